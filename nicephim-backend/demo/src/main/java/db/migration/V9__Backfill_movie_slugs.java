@@ -0,0 +1,52 @@
+package db.migration;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import demo.demo.services.movie.MovieSlugs;
+
+/**
+ * Fills movies.slug / movies.alias_slug added in V8.
+ * Slugs need Unicode normalization (Vietnamese diacritics) that T-SQL cannot do, hence a Java migration.
+ * Duplicate titles get "-2", "-3"... in creation order so the oldest movie keeps the plain slug.
+ */
+public class V9__Backfill_movie_slugs extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT slug FROM dbo.movies WHERE slug IS NOT NULL", String.class));
+
+        List<Map<String, Object>> movies = jdbcTemplate.queryForList(
+            "SELECT movie_id, title, alias_title FROM dbo.movies WHERE slug IS NULL ORDER BY created_at, movie_id");
+
+        int updated = 0;
+        for (Map<String, Object> row : movies) {
+            UUID movieId = UUID.fromString(row.get("movie_id").toString());
+            String base = MovieSlugs.forTitle((String) row.get("title"), movieId);
+
+            String slug = base;
+            for (int n = 2; taken.contains(slug); n++) {
+                slug = MovieSlugs.withSuffix(base, n);
+            }
+            taken.add(slug);
+
+            String aliasSlug = MovieSlugs.slugify((String) row.get("alias_title"));
+            updated += jdbcTemplate.update(
+                "UPDATE dbo.movies SET slug = ?, alias_slug = ? WHERE movie_id = ?",
+                slug, aliasSlug.isEmpty() ? null : aliasSlug, movieId.toString());
+        }
+
+        System.out.println("🔗 Backfilled slugs for " + updated + " movies");
+    }
+}
@@ -0,0 +1,68 @@
+package demo.demo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import demo.demo.services.media.HlsFileLocator;
+import demo.demo.services.media.HlsMemoryCache;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Maps /videos/<videoId>/<file> onto the HLS tree of the video, wherever it lives:
+ * sharded or legacy flat layout on local disk, or the read-through cache for object storage / origin.
+ * Hot files are optionally served from the in-memory LRU in front of the disk.
+ */
+public class HlsResourceResolver extends AbstractResourceResolver {
+
+	private final HlsFileLocator hlsFileLocator;
+	private final HlsMemoryCache hlsMemoryCache;
+
+	public HlsResourceResolver(HlsFileLocator hlsFileLocator, HlsMemoryCache hlsMemoryCache) {
+		this.hlsFileLocator = hlsFileLocator;
+		this.hlsMemoryCache = hlsMemoryCache;
+	}
+
+	@Override
+	@Nullable
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+		Resource resource = resolve(requestPath);
+		if (resource == null || !hlsMemoryCache.isEnabled()) {
+			return resource;
+		}
+		try {
+			return hlsMemoryCache.get(requestPath, resource.getFile().toPath(), resource);
+		} catch (IOException e) {
+			return resource;
+		}
+	}
+
+	@Override
+	@Nullable
+	protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+			ResourceResolverChain chain) {
+		return resolve(resourceUrlPath) != null ? resourceUrlPath : null;
+	}
+
+	@Nullable
+	private Resource resolve(String requestPath) {
+		int slash = requestPath.indexOf('/');
+		if (slash <= 0) {
+			return null;
+		}
+		try {
+			Path file = hlsFileLocator.locate(requestPath.substring(0, slash), requestPath.substring(slash + 1));
+			return file != null ? new FileSystemResource(file) : null;
+		} catch (IOException e) {
+			System.err.println("❌ Error resolving HLS resource " + requestPath + ": " + e.getMessage());
+			return null;
+		}
+	}
+}
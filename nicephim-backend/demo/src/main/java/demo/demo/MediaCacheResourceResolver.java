@@ -0,0 +1,57 @@
+package demo.demo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import demo.demo.services.media.MediaArea;
+import demo.demo.services.media.MediaReadCache;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Serves poster/banner files from object storage through the local read-through cache.
+ * Only registered when media.storage.type is not local.
+ */
+public class MediaCacheResourceResolver extends AbstractResourceResolver {
+
+	private final MediaReadCache mediaReadCache;
+	private final List<MediaArea> areas;
+
+	public MediaCacheResourceResolver(MediaReadCache mediaReadCache, List<MediaArea> areas) {
+		this.mediaReadCache = mediaReadCache;
+		this.areas = areas;
+	}
+
+	@Override
+	@Nullable
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+		if (requestPath.contains("/") || requestPath.contains("..")) {
+			return chain.resolveResource(request, requestPath, locations);
+		}
+		try {
+			for (MediaArea area : areas) {
+				Path file = mediaReadCache.fetch(area, requestPath);
+				if (file != null) {
+					return new FileSystemResource(file);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("❌ Error resolving media " + requestPath + ": " + e.getMessage());
+		}
+		return chain.resolveResource(request, requestPath, locations);
+	}
+
+	@Override
+	@Nullable
+	protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+			ResourceResolverChain chain) {
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+}
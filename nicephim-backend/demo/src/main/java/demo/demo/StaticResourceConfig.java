@@ -1,6 +1,7 @@
 package demo.demo;
 
 import java.time.Duration;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -8,18 +9,50 @@ import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import demo.demo.services.media.HlsFileLocator;
+import demo.demo.services.media.HlsMemoryCache;
+import demo.demo.services.media.MediaArea;
+import demo.demo.services.media.MediaReadCache;
+import demo.demo.services.media.MediaStorage;
+
 @Configuration
 public class StaticResourceConfig implements WebMvcConfigurer {
 
 	@Value("${media.hls.dir}")
 	private String hlsDir;
 
+	private final HlsFileLocator hlsFileLocator;
+	private final HlsMemoryCache hlsMemoryCache;
+	private final MediaStorage mediaStorage;
+	private final MediaReadCache mediaReadCache;
+
+	public StaticResourceConfig(HlsFileLocator hlsFileLocator, HlsMemoryCache hlsMemoryCache,
+			MediaStorage mediaStorage, MediaReadCache mediaReadCache) {
+		this.hlsFileLocator = hlsFileLocator;
+		this.hlsMemoryCache = hlsMemoryCache;
+		this.mediaStorage = mediaStorage;
+		this.mediaReadCache = mediaReadCache;
+	}
+
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
 		registry
 			.addResourceHandler("/videos/**")
 			.addResourceLocations("file:" + ensureTrailingSlash(hlsDir))
-			.setCacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic());
+			.setCacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+			.resourceChain(false)
+			.addResolver(new HlsResourceResolver(hlsFileLocator, hlsMemoryCache));
+
+		// Local storage serves posters/banners through spring.web.resources.static-locations;
+		// object storage and edge nodes go through the read-through cache
+		if (!mediaStorage.isLocal()) {
+			registry
+				.addResourceHandler("/*.png", "/*.jpg", "/*.jpeg", "/*.webp", "/*.gif")
+				.addResourceLocations("classpath:/static/")
+				.setCacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+				.resourceChain(false)
+				.addResolver(new MediaCacheResourceResolver(mediaReadCache, List.of(MediaArea.POSTER, MediaArea.BANNER)));
+		}
 	}
 
 	private String ensureTrailingSlash(String path) {
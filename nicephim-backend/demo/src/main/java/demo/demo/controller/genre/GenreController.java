@@ -2,13 +2,16 @@ package demo.demo.controller.genre;
 
 import demo.demo.dto.genre.CreateGenreRequest;
 import demo.demo.dto.genre.GenreResponse;
+import demo.demo.dto.genre.SetMovieGenresRequest;
 import demo.demo.dto.genre.UpdateGenreRequest;
 import demo.demo.services.genre.GenreService;
+import demo.demo.services.movie.CatalogVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,6 +24,9 @@ public class GenreController {
     @Autowired
     private GenreService genreService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     /**
      * Create a new genre
      */
@@ -41,10 +47,14 @@ public class GenreController {
      * Get all genres
      */
     @GetMapping
-    public ResponseEntity<?> getAllGenres() {
+    public ResponseEntity<?> getAllGenres(WebRequest request) {
         try {
+            String etag = catalogVersion.genresEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             List<GenreResponse> genres = genreService.getAllGenres();
-            return ResponseEntity.ok(new GenreListResponse(true, genres, null));
+            return ResponseEntity.ok().eTag(etag).body(new GenreListResponse(true, genres, null));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new GenreListResponse(false, null, e.getMessage()));
@@ -55,10 +65,14 @@ public class GenreController {
      * Get genre by ID
      */
     @GetMapping("/{genreId}")
-    public ResponseEntity<?> getGenreById(@PathVariable UUID genreId) {
+    public ResponseEntity<?> getGenreById(@PathVariable UUID genreId, WebRequest request) {
         try {
+            String etag = catalogVersion.genresEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             GenreResponse response = genreService.getGenreById(genreId);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         } catch (RuntimeException e) {
@@ -104,13 +118,17 @@ public class GenreController {
      * Get genres for a specific movie
      */
     @GetMapping("/movie/{movieId}")
-    public ResponseEntity<?> getGenresByMovieId(@PathVariable UUID movieId) {
+    public ResponseEntity<?> getGenresByMovieId(@PathVariable UUID movieId, WebRequest request) {
         try {
+            String etag = catalogVersion.genresEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
             List<GenreResponse> genres = genreService.getGenresByMovieId(movieId);
             GenreListResponse response = new GenreListResponse();
             response.setSuccess(true);
             response.setData(genres);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
         } catch (RuntimeException e) {
             GenreListResponse response = new GenreListResponse();
             response.setSuccess(false);
@@ -119,6 +137,23 @@ public class GenreController {
         }
     }
 
+    /**
+     * Replace all genres of a movie with the given set in one request
+     */
+    @PutMapping("/movie/{movieId}")
+    public ResponseEntity<?> setGenresForMovie(@PathVariable UUID movieId,
+                                             @Valid @RequestBody SetMovieGenresRequest request) {
+        try {
+            List<GenreResponse> genres = genreService.setGenresForMovie(movieId, request.getGenreIds());
+            return ResponseEntity.ok(new GenreListResponse(true, genres, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new GenreListResponse(false, null, e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new GenreListResponse(false, null, e.getMessage()));
+        }
+    }
+
     /**
      * Add genre to movie
      */
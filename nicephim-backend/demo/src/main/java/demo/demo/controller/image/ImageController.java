@@ -4,12 +4,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.beans.factory.annotation.Value;
+
+import demo.demo.services.media.MediaArea;
+import demo.demo.services.media.MediaStorage;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -19,23 +19,23 @@ import java.util.UUID;
 @CrossOrigin(origins = "http://localhost:3000")
 public class ImageController {
 
-    @Value("${media.poster.dir}")
-    private String posterDir;
+    private final MediaStorage mediaStorage;
 
-    @Value("${media.banner.dir}")
-    private String bannerDir;
+    public ImageController(MediaStorage mediaStorage) {
+        this.mediaStorage = mediaStorage;
+    }
 
     @PostMapping("/upload/poster")
     public ResponseEntity<Map<String, Object>> uploadPoster(@RequestParam("file") MultipartFile file) {
-        return uploadImage(file, posterDir, "poster");
+        return uploadImage(file, MediaArea.POSTER, "poster");
     }
 
     @PostMapping("/upload/banner")
     public ResponseEntity<Map<String, Object>> uploadBanner(@RequestParam("file") MultipartFile file) {
-        return uploadImage(file, bannerDir, "banner");
+        return uploadImage(file, MediaArea.BANNER, "banner");
     }
 
-    private ResponseEntity<Map<String, Object>> uploadImage(MultipartFile file, String uploadDir, String imageType) {
+    private ResponseEntity<Map<String, Object>> uploadImage(MultipartFile file, MediaArea area, String imageType) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -61,12 +61,6 @@ public class ImageController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
             // Generate unique filename
             String originalFilename = file.getOriginalFilename();
             String fileExtension = "";
@@ -75,10 +69,11 @@ public class ImageController {
             }
             
             String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-            Path filePath = uploadPath.resolve(uniqueFilename);
 
-            // Save file
-            Files.copy(file.getInputStream(), filePath);
+            // Save file (local disk or object storage)
+            try (InputStream in = file.getInputStream()) {
+                mediaStorage.put(area, uniqueFilename, in, file.getSize(), contentType);
+            }
 
             // Generate full URL for the uploaded image
             String imageUrl = "http://localhost:8080/" + uniqueFilename;
@@ -108,27 +103,31 @@ public class ImageController {
 
     @DeleteMapping("/delete/poster/{filename}")
     public ResponseEntity<Map<String, Object>> deletePoster(@PathVariable String filename) {
-        return deleteImage(filename, posterDir, "poster");
+        return deleteImage(filename, MediaArea.POSTER, "poster");
     }
 
     @DeleteMapping("/delete/banner/{filename}")
     public ResponseEntity<Map<String, Object>> deleteBanner(@PathVariable String filename) {
-        return deleteImage(filename, bannerDir, "banner");
+        return deleteImage(filename, MediaArea.BANNER, "banner");
     }
 
-    private ResponseEntity<Map<String, Object>> deleteImage(String filename, String uploadDir, String imageType) {
+    private ResponseEntity<Map<String, Object>> deleteImage(String filename, MediaArea area, String imageType) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Path filePath = Paths.get(uploadDir, filename);
-            
-            if (!Files.exists(filePath)) {
+            if (filename.contains("/") || filename.contains("\\") || filename.contains("..")) {
+                response.put("success", false);
+                response.put("error", "Tên file không hợp lệ");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (!mediaStorage.exists(area, filename)) {
                 response.put("success", false);
                 response.put("error", "File không tồn tại");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
 
-            Files.delete(filePath);
+            mediaStorage.delete(area, filename);
 
             response.put("success", true);
             response.put("message", "Xóa " + imageType + " thành công!");
@@ -0,0 +1,149 @@
+package demo.demo.controller.media;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import demo.demo.services.media.HlsLayoutMigrator;
+import demo.demo.services.media.HlsTieringService;
+import demo.demo.services.media.OrphanMediaCollector;
+import demo.demo.services.movie.MovieDeletionWorker;
+
+@RestController
+@RequestMapping("/api/admin/media")
+@CrossOrigin(origins = "http://localhost:3000")
+public class MediaAdminController {
+
+	private final HlsLayoutMigrator hlsLayoutMigrator;
+	private final HlsTieringService hlsTieringService;
+	private final MovieDeletionWorker movieDeletionWorker;
+	private final OrphanMediaCollector orphanMediaCollector;
+
+	public MediaAdminController(HlsLayoutMigrator hlsLayoutMigrator, HlsTieringService hlsTieringService,
+			MovieDeletionWorker movieDeletionWorker, OrphanMediaCollector orphanMediaCollector) {
+		this.hlsLayoutMigrator = hlsLayoutMigrator;
+		this.hlsTieringService = hlsTieringService;
+		this.movieDeletionWorker = movieDeletionWorker;
+		this.orphanMediaCollector = orphanMediaCollector;
+	}
+
+	/**
+	 * Start moving flat media trees into the sharded layout (runs in background)
+	 */
+	@PostMapping("/layout/migrate")
+	public ResponseEntity<Map<String, Object>> startLayoutMigration() {
+		boolean started = hlsLayoutMigrator.start();
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", started);
+		if (!started) {
+			response.put("error", "Migration is already running");
+		}
+		response.put("data", hlsLayoutMigrator.getStatus());
+		return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+	}
+
+	/**
+	 * Progress of the layout migration
+	 */
+	@GetMapping("/layout/migrate")
+	public ResponseEntity<Map<String, Object>> getLayoutMigrationStatus() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("data", hlsLayoutMigrator.getStatus());
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Run one hot/cold tiering pass now (runs in background)
+	 */
+	@PostMapping("/tiering/run")
+	public ResponseEntity<Map<String, Object>> startTiering() {
+		boolean started = hlsTieringService.start();
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", started);
+		if (!started) {
+			response.put("error", "Tiering is already running or no cold tier is configured");
+		}
+		response.put("data", hlsTieringService.getStatus());
+		return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+	}
+
+	/**
+	 * Tiering progress, capacity freed and rehydration latency
+	 */
+	@GetMapping("/tiering")
+	public ResponseEntity<Map<String, Object>> getTieringStatus() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("data", hlsTieringService.getStatus());
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Start an orphaned media sweep (runs in background); dryRun only lists what would be deleted
+	 */
+	@PostMapping("/gc/run")
+	public ResponseEntity<Map<String, Object>> startGarbageCollection(@RequestParam(required = false) Boolean dryRun) {
+		boolean started = orphanMediaCollector.start(dryRun != null ? dryRun : orphanMediaCollector.isDefaultDryRun());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", started);
+		if (!started) {
+			response.put("error", "Garbage collection is already running");
+		}
+		response.put("data", orphanMediaCollector.getStatus());
+		return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+	}
+
+	/**
+	 * Orphans found by the last sweep (with a sample of paths), files deleted and bytes reclaimed
+	 */
+	@GetMapping("/gc")
+	public ResponseEntity<Map<String, Object>> getGarbageCollectionStatus() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("data", orphanMediaCollector.getStatus());
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Deleted movies still waiting for cleanup, rooms removed and bytes reclaimed from their media
+	 */
+	@GetMapping("/deletions")
+	public ResponseEntity<Map<String, Object>> getDeletionStatus() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("data", movieDeletionWorker.getStatus());
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Bring every cold rendition of a video back to the hot tier
+	 */
+	@PostMapping("/tiering/{videoId}/rehydrate")
+	public ResponseEntity<Map<String, Object>> rehydrate(@PathVariable String videoId) {
+		Map<String, Object> response = new HashMap<>();
+		try {
+			boolean restored = hlsTieringService.rehydrateAll(videoId);
+			response.put("success", true);
+			response.put("data", Map.of("videoId", videoId, "rehydrated", restored));
+			return ResponseEntity.ok(response);
+		} catch (IOException e) {
+			response.put("success", false);
+			response.put("error", "Lỗi khi khôi phục video: " + e.getMessage());
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+		}
+	}
+}
@@ -1,21 +1,53 @@
 package demo.demo.controller.movie;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import demo.demo.services.movie.CatalogVersion;
+import demo.demo.services.movie.HomepageRailsSnapshot;
+import demo.demo.services.movie.MovieFacetIndex;
+import demo.demo.services.movie.MovieImportParser;
+import demo.demo.services.movie.MovieImportService;
 import demo.demo.services.movie.MovieService;
+import demo.demo.services.movie.MovieView;
 import demo.demo.services.auth.AuthService;
 import demo.demo.dto.movie.CreateMovieRequest;
 import demo.demo.dto.movie.UpdateMovieRequest;
+import demo.demo.dto.movie.MovieBatchRequest;
+import demo.demo.dto.movie.MovieBatchResponse;
+import demo.demo.dto.movie.MovieCardResponse;
+import demo.demo.dto.movie.MovieCursorPage;
+import demo.demo.dto.movie.MovieFilterResponse;
+import demo.demo.dto.movie.MovieImportResult;
 import demo.demo.dto.movie.MovieResponse;
+import demo.demo.dto.movie.MovieSearchResponse;
+import demo.demo.dto.movie.MovieSuggestionResponse;
 import demo.demo.dto.auth.RegisterRequest;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/admin/movies")
@@ -24,10 +56,20 @@ public class MovieController {
 
     private final MovieService movieService;
     private final AuthService authService;
-
-    public MovieController(MovieService movieService, AuthService authService) {
+    private final HomepageRailsSnapshot homepageRailsSnapshot;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final MovieImportService movieImportService;
+
+    public MovieController(MovieService movieService, AuthService authService,
+                           HomepageRailsSnapshot homepageRailsSnapshot, CatalogVersion catalogVersion,
+                           ObjectMapper objectMapper, MovieImportService movieImportService) {
         this.movieService = movieService;
+        this.movieImportService = movieImportService;
         this.authService = authService;
+        this.homepageRailsSnapshot = homepageRailsSnapshot;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -52,23 +94,71 @@ public class MovieController {
         }
     }
 
+    /**
+     * Newest first. Pass the returned nextCursor back as cursor for the next page;
+     * page is still accepted for older clients. The total is only computed with includeTotal=true.
+     * view=card returns only what a list card shows (see MovieCardResponse); the same applies to /search, /filter and /batch.
+     */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getMovies(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
         try {
-            List<MovieResponse> movies = movieService.getAllMovies(page, size);
-            long totalMovies = movieService.getTotalMovies();
+            // Unchanged catalog: 304 without reading anything
+            String etag = catalogVersion.moviesEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+
+            MovieView movieView = MovieView.parse(view);
+            MovieCursorPage result = cursor == null && page != null && page > 0
+                ? movieService.getMoviesByPage(page, size, movieView)
+                : movieService.getMovies(cursor, size, movieView);
+
+            Map<String, Object> pagination = new HashMap<>();
+            pagination.put("page", page != null ? page : 0);
+            pagination.put("size", size);
+            pagination.put("hasNext", result.nextCursor != null);
+            pagination.put("nextCursor", result.nextCursor);
+            if (includeTotal) {
+                long totalMovies = movieService.getTotalMovies();
+                pagination.put("total", totalMovies);
+                pagination.put("totalPages", (totalMovies + size - 1) / size);
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", movies);
-            response.put("pagination", Map.of(
-                "page", page,
-                "size", size,
-                "total", totalMovies,
-                "totalPages", (totalMovies + size - 1) / size
-            ));
+            response.put("data", result.movies);
+            response.put("pagination", pagination);
+
+            return ResponseEntity.ok().eTag(etag).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Several movies by id in one request, in request order; ids without a movie are listed in "missing"
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getMoviesByIds(
+            @RequestBody MovieBatchRequest dto,
+            @RequestParam(required = false) String view) {
+        try {
+            MovieBatchResponse batch = movieService.getMoviesByIds(dto.ids, MovieView.parse(view));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", batch.movies);
+            response.put("missing", batch.missing);
+            response.put("count", batch.movies.size());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -80,15 +170,20 @@ public class MovieController {
     }
 
     @GetMapping("/{movieId}")
-    public ResponseEntity<Map<String, Object>> getMovieById(@PathVariable UUID movieId) {
+    public ResponseEntity<Map<String, Object>> getMovieById(@PathVariable UUID movieId, WebRequest request) {
         try {
             MovieResponse movie = movieService.getMovieById(movieId);
+            // Served from MovieResponseCache when hot, so a 304 usually costs no query either
+            String etag = catalogVersion.movieEtag(movie);
+            if (request.checkNotModified(etag, catalogVersion.movieLastModified(movie))) {
+                return null;
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", movie);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
         } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -103,15 +198,62 @@ public class MovieController {
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<Map<String, Object>> getMovieBySlug(@PathVariable String slug) {
+    public ResponseEntity<Map<String, Object>> getMovieBySlug(@PathVariable String slug, WebRequest request) {
         try {
             MovieResponse movie = movieService.getMovieBySlug(slug);
+            // Served from MovieResponseCache when hot, so a 304 usually costs no query either
+            String etag = catalogVersion.movieEtag(movie);
+            if (request.checkNotModified(etag, catalogVersion.movieLastModified(movie))) {
+                return null;
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", movie);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", "Lỗi hệ thống: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * "More like this": movies sharing genres with this one, most similar first (see RelatedMoviesIndex).
+     * e.g. /{movieId}/related?limit=12&view=card for a rail on the movie page or after a watch room ends
+     */
+    @GetMapping("/{movieId}/related")
+    public ResponseEntity<Map<String, Object>> getRelatedMovies(
+            @PathVariable UUID movieId,
+            @RequestParam(defaultValue = "12") int limit,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        try {
+            String etag = catalogVersion.relatedEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+
+            List<? extends MovieCardResponse> movies = movieService.getRelatedMovies(movieId, limit, MovieView.parse(view));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", movies);
+            response.put("count", movies.size());
+
+            return ResponseEntity.ok().eTag(etag).body(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -175,14 +317,158 @@ public class MovieController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchMovies(@RequestParam String title) {
+    public ResponseEntity<Map<String, Object>> searchMovies(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
         try {
-            List<MovieResponse> movies = movieService.searchMoviesByTitle(title);
+            String etag = catalogVersion.moviesEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+
+            MovieSearchResponse result = movieService.searchMovies(title, page, size, MovieView.parse(view));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", movies);
-            response.put("count", movies.size());
+            response.put("data", result.movies);
+            response.put("count", result.movies.size());
+            response.put("pagination", Map.of(
+                "page", page,
+                "size", size,
+                "total", result.total,
+                "totalPages", (result.total + size - 1) / size
+            ));
+
+            return ResponseEntity.ok().eTag(etag).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * e.g. /filter?genreId=..&genreId=..&yearFrom=2015&yearTo=2020&minRating=7&series=false&page=0&size=20
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<Map<String, Object>> filterMovies(
+            @RequestParam(name = "genreId", required = false) List<UUID> genreIds,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(required = false) Boolean series,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        try {
+            String etag = catalogVersion.moviesEtag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+
+            MovieFacetIndex.Filter filter = new MovieFacetIndex.Filter(
+                genreIds != null ? new HashSet<>(genreIds) : null, yearFrom, yearTo, minRating, series);
+            MovieFilterResponse result = movieService.filterMovies(filter, page, size, MovieView.parse(view));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", result.movies);
+            response.put("facets", result.facets);
+            response.put("pagination", Map.of(
+                "page", page,
+                "size", size,
+                "total", result.total,
+                "totalPages", (result.total + size - 1) / size
+            ));
+
+            return ResponseEntity.ok().eTag(etag).body(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Map<String, Object>> autocompleteMovies(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            List<MovieSuggestionResponse> suggestions = movieService.autocomplete(query, limit);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", suggestions);
+            response.put("count", suggestions.size());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Homepage rails (newest, top rated, series, by genre) from the in-memory snapshot.
+     * The body is pre-serialized; clients revalidate with If-None-Match and get 304 while it is unchanged.
+     */
+    @GetMapping("/homepage")
+    public ResponseEntity<?> getHomepageRails(WebRequest request) {
+        try {
+            HomepageRailsSnapshot.Body body = homepageRailsSnapshot.get();
+            if (request.checkNotModified(body.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(body.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body.json());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Bulk import from CSV (Content-Type: text/csv, header row with CreateMovieRequest field names)
+     * or NDJSON (one CreateMovieRequest per line). Valid rows are imported even if others are rejected;
+     * the result lists the rejected rows and the throughput.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<Map<String, Object>> importMovies(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        try {
+            Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+            List<MovieImportParser.ParsedRow> rows = contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")
+                ? MovieImportParser.parseCsv(reader)
+                : MovieImportParser.parseNdjson(reader, objectMapper);
+            if (rows.isEmpty()) {
+                throw new IllegalArgumentException("File nhập không có dòng dữ liệu nào");
+            }
+
+            MovieImportResult result = movieImportService.importMovies(rows, getOrCreateAdminUser());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Đã nhập " + result.imported + "/" + result.received + " phim");
+            response.put("data", result);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -193,6 +479,48 @@ public class MovieController {
         }
     }
 
+    /**
+     * Whole catalog as newline-delimited JSON (one MovieResponse per line, oldest first), streamed from a
+     * single query in constant memory. Gzip-compressed when the client sends Accept-Encoding: gzip
+     * (e.g. curl --compressed).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMovies(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : new BufferedOutputStream(outputStream, 64 * 1024);
+            long[] rows = {0};
+            try {
+                movieService.exportMovies(movie -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(movie));
+                        out.write('\n');
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.close();
+                System.out.println("📦 Exported " + rows[0] + " movies as NDJSON" + (gzip ? " (gzip)" : ""));
+            } catch (RuntimeException e) {
+                // Headers are already sent: all we can do is cut the stream short
+                System.err.println("❌ Movie export aborted after " + rows[0] + " rows: " + e.getMessage());
+                throw e;
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movies.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @PutMapping("/{movieId}/poster")
     public ResponseEntity<Map<String, Object>> updateMoviePoster(
             @PathVariable UUID movieId,
@@ -2,6 +2,7 @@ package demo.demo.controller.room;
 
 import demo.demo.services.room.WatchRoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -170,6 +171,37 @@ public class RoomController {
 		}
 	}
 
+	/**
+	 * Limit the playback quality offered to everyone in the room (host only: the body carries the host's username, as for room deletion)
+	 */
+	@PutMapping("/api/rooms/{roomId}/max-quality")
+	public ResponseEntity<Map<String, Object>> setRoomMaxQuality(
+			@PathVariable String roomId,
+			@RequestBody Map<String, Object> request) {
+		try {
+			String username = (String) request.get("username");
+			Object value = request.get("maxHeight");
+			Integer maxHeight = value instanceof Number ? ((Number) value).intValue() : null;
+
+			if (!watchRoomService.setRoomMaxQuality(roomId, username, maxHeight)) {
+				return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+					"success", false,
+					"error", "Room not found or only the host can change its quality"
+				));
+			}
+
+			Map<String, Object> response = new HashMap<>();
+			response.put("success", true);
+			response.put("maxHeight", watchRoomService.getRoomMaxQuality(roomId));
+			return ResponseEntity.ok(response);
+		} catch (Exception e) {
+			return ResponseEntity.internalServerError().body(Map.of(
+				"success", false,
+				"error", e.getMessage()
+			));
+		}
+	}
+
 	// WebSocket message handlers
 
 	/**
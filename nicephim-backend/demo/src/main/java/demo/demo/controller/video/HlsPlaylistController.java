@@ -0,0 +1,85 @@
+package demo.demo.controller.video;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import demo.demo.services.room.WatchRoomService;
+import demo.demo.services.video.DeviceClass;
+import demo.demo.services.video.HlsPlaylistService;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+public class HlsPlaylistController {
+
+	private static final MediaType M3U8 = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+	private static final Pattern VIDEO_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+	private final HlsPlaylistService hlsPlaylistService;
+	private final WatchRoomService watchRoomService;
+
+	public HlsPlaylistController(HlsPlaylistService hlsPlaylistService, WatchRoomService watchRoomService) {
+		this.hlsPlaylistService = hlsPlaylistService;
+		this.watchRoomService = watchRoomService;
+	}
+
+	/**
+	 * Master playlist filtered per request: ?device=mobile|tablet|desktop|tv (falls back to User-Agent),
+	 * ?maxHeight=720 and ?roomId=... (room quality limit). The smallest limit wins.
+	 */
+	@GetMapping("/videos/{videoId}/master.m3u8")
+	public ResponseEntity<byte[]> master(
+			@PathVariable String videoId,
+			@RequestParam(required = false) String device,
+			@RequestParam(required = false) Integer maxHeight,
+			@RequestParam(required = false) String roomId,
+			@RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) throws Exception {
+		if (!VIDEO_ID.matcher(videoId).matches()) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		DeviceClass deviceClass = DeviceClass.fromParam(device);
+		boolean fromUserAgent = deviceClass == null;
+		if (fromUserAgent) {
+			deviceClass = DeviceClass.fromUserAgent(userAgent);
+		}
+
+		Integer cap = minHeight(deviceClass.getMaxHeight(), maxHeight != null && maxHeight > 0 ? maxHeight : null);
+		cap = minHeight(cap, watchRoomService.getRoomMaxQuality(roomId));
+
+		byte[] body = hlsPlaylistService.renderMaster(videoId, cap);
+		if (body == null) {
+			return ResponseEntity.notFound().build();
+		}
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+			.contentType(M3U8)
+			.contentLength(body.length);
+		if (roomId != null) {
+			// Room limit can change at any time
+			response.cacheControl(CacheControl.noCache());
+		} else {
+			response.cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic());
+		}
+		if (fromUserAgent) {
+			response.header(HttpHeaders.VARY, HttpHeaders.USER_AGENT);
+		}
+		return response.body(body);
+	}
+
+	private Integer minHeight(Integer a, Integer b) {
+		if (a == null) return b;
+		if (b == null) return a;
+		return Math.min(a, b);
+	}
+}
@@ -2,9 +2,14 @@ package demo.demo.dto.genre;
 
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class GenreResponse {
     public UUID genreId;
     public String name;
+    // Live movies in the genre; only filled by the genre endpoints
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer movieCount;
 
     // Default constructor
     public GenreResponse() {}
@@ -15,11 +20,18 @@ public class GenreResponse {
         this.name = name;
     }
 
+    public GenreResponse(UUID genreId, String name, Integer movieCount) {
+        this.genreId = genreId;
+        this.name = name;
+        this.movieCount = movieCount;
+    }
+
     @Override
     public String toString() {
         return "GenreResponse{" +
                 "genreId=" + genreId +
                 ", name='" + name + '\'' +
+                ", movieCount=" + movieCount +
                 '}';
     }
 }
@@ -0,0 +1,39 @@
+package demo.demo.dto.genre;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public class SetMovieGenresRequest {
+
+    // The movie's complete genre set; an empty list removes every genre
+    @NotNull(message = "Danh sách thể loại không được để trống")
+    @Size(max = 100, message = "Một phim không được có quá 100 thể loại")
+    private List<UUID> genreIds;
+
+    // Default constructor
+    public SetMovieGenresRequest() {}
+
+    // Constructor with parameters
+    public SetMovieGenresRequest(List<UUID> genreIds) {
+        this.genreIds = genreIds;
+    }
+
+    // Getters and setters
+    public List<UUID> getGenreIds() {
+        return genreIds;
+    }
+
+    public void setGenreIds(List<UUID> genreIds) {
+        this.genreIds = genreIds;
+    }
+
+    @Override
+    public String toString() {
+        return "SetMovieGenresRequest{" +
+                "genreIds=" + genreIds +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+import java.util.UUID;
+
+public class HomepageRailsResponse {
+    public List<MovieResponse> newest;
+    public List<MovieResponse> topRated;
+    public List<MovieResponse> series;
+    // one rail per genre that has movies, by genre name
+    public List<GenreRail> genres;
+    public String generatedAt;
+
+    public static class GenreRail {
+        public UUID genreId;
+        public String name;
+        public List<MovieResponse> movies;
+
+        public GenreRail(UUID genreId, String name, List<MovieResponse> movies) {
+            this.genreId = genreId;
+            this.name = name;
+            this.movies = movies;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+import java.util.UUID;
+
+public class MovieBatchRequest {
+    // At most MovieService.MAX_BATCH_IDS ids
+    public List<UUID> ids;
+}
@@ -0,0 +1,20 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+import java.util.UUID;
+
+public class MovieBatchResponse {
+    // Found movies in request order (duplicate ids appear once)
+    public List<? extends MovieCardResponse> movies;
+    // Requested ids with no movie, in request order
+    public List<UUID> missing;
+
+    // Default constructor
+    public MovieBatchResponse() {}
+
+    // Constructor with parameters
+    public MovieBatchResponse(List<? extends MovieCardResponse> movies, List<UUID> missing) {
+        this.movies = movies;
+        this.missing = missing;
+    }
+}
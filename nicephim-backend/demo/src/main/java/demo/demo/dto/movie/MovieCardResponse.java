@@ -0,0 +1,19 @@
+package demo.demo.dto.movie;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What a list card shows (view=card on the list endpoints); MovieResponse adds the detail fields.
+ */
+public class MovieCardResponse {
+    public UUID movieId;
+    public String title;
+    public String aliasTitle;
+    public String slug;
+    public Short releaseYear;
+    public String ageRating;
+    public BigDecimal imdbRating;
+    public boolean isSeries;
+    public String posterUrl;
+}
@@ -0,0 +1,18 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+
+public class MovieCursorPage {
+    public List<? extends MovieCardResponse> movies;
+    // Opaque token for the next page, null on the last page
+    public String nextCursor;
+
+    // Default constructor
+    public MovieCursorPage() {}
+
+    // Constructor with parameters
+    public MovieCursorPage(List<? extends MovieCardResponse> movies, String nextCursor) {
+        this.movies = movies;
+        this.nextCursor = nextCursor;
+    }
+}
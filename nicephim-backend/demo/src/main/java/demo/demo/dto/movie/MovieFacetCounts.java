@@ -0,0 +1,27 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class MovieFacetCounts {
+    public List<GenreCount> genres;
+    // release year -> count, newest year first
+    public Map<Integer, Integer> years;
+    // whole IMDb star (7 = 7.0..7.9) -> count
+    public Map<Integer, Integer> ratings;
+    public int series;
+    public int movies;
+
+    public static class GenreCount {
+        public UUID genreId;
+        public String name;
+        public int count;
+
+        public GenreCount(UUID genreId, String name, int count) {
+            this.genreId = genreId;
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
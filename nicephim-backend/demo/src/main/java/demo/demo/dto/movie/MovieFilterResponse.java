@@ -0,0 +1,11 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+
+public class MovieFilterResponse {
+    public List<? extends MovieCardResponse> movies;
+    public long total;
+    public int page;
+    public int size;
+    public MovieFacetCounts facets;
+}
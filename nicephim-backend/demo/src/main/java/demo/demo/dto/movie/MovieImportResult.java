@@ -0,0 +1,27 @@
+package demo.demo.dto.movie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovieImportResult {
+    public int received;
+    public int imported;
+    public int failed;
+    public long elapsedMs;
+    public double rowsPerSecond;
+    // Rejected rows, in input order
+    public List<RowError> errors = new ArrayList<>();
+
+    public static class RowError {
+        // 1-based data row (CSV header and blank lines not counted)
+        public int row;
+        public String title;
+        public String error;
+
+        public RowError(int row, String title, String error) {
+            this.row = row;
+            this.title = title;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+
+/**
+ * One movie of a bulk import: the create fields, plus genres by name as an alternative to genreIds
+ */
+public class MovieImportRow extends CreateMovieRequest {
+    public List<String> genres;
+}
@@ -1,21 +1,12 @@
 package demo.demo.dto.movie;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import demo.demo.dto.genre.GenreResponse;
 
-public class MovieResponse {
-    public UUID movieId;
-    public String title;
-    public String aliasTitle;
+public class MovieResponse extends MovieCardResponse {
     public String description;
-    public Short releaseYear;
-    public String ageRating;
-    public BigDecimal imdbRating;
-    public boolean isSeries;
-    public String posterUrl;
     public String bannerUrl;
     public UUID createdBy;
     public OffsetDateTime createdAt;
@@ -26,4 +17,4 @@ public class MovieResponse {
     public String videoId;
     public String hlsUrl;
     public String videoStatus;
-}
\ No newline at end of file
+}
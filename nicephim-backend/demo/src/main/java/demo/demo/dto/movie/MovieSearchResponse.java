@@ -0,0 +1,21 @@
+package demo.demo.dto.movie;
+
+import java.util.List;
+
+public class MovieSearchResponse {
+    public List<? extends MovieCardResponse> movies;
+    public long total;
+    public int page;
+    public int size;
+
+    // Default constructor
+    public MovieSearchResponse() {}
+
+    // Constructor with parameters
+    public MovieSearchResponse(List<? extends MovieCardResponse> movies, long total, int page, int size) {
+        this.movies = movies;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+}
@@ -0,0 +1,12 @@
+package demo.demo.dto.movie;
+
+import java.util.UUID;
+
+public class MovieSuggestionResponse {
+    public UUID movieId;
+    public String title;
+    public String aliasTitle;
+    public String slug;
+    public String posterUrl;
+    public Short releaseYear;
+}
@@ -24,6 +24,9 @@ public class Movie {
     private String hlsUrl;
     private String videoStatus;
 
+    // URL slug (unique, generated from title)
+    private String slug;
+
     public UUID getMovieId() { return movieId; }
     public void setMovieId(UUID movieId) { this.movieId = movieId; }
 
@@ -72,4 +75,7 @@ public class Movie {
 
     public String getVideoStatus() { return videoStatus; }
     public void setVideoStatus(String videoStatus) { this.videoStatus = videoStatus; }
-}
\ No newline at end of file
+
+    public String getSlug() { return slug; }
+    public void setSlug(String slug) { this.slug = slug; }
+}
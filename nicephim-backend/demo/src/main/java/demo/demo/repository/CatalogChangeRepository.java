@@ -0,0 +1,66 @@
+package demo.demo.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * dbo.catalog_changes: the change feed shared by all backend nodes (see V11)
+ */
+@Repository
+public class CatalogChangeRepository {
+
+    /**
+     * One feed row; version is the row_version as a number, increasing in commit-safe order
+     */
+    public record CatalogChange(long version, String entityType, UUID entityId, String changeType, String origin) { }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(String entityType, UUID entityId, String changeType, String origin) {
+        jdbcTemplate.update(
+            "INSERT INTO dbo.catalog_changes (entity_type, entity_id, change_type, origin) VALUES (?, ?, ?, ?)",
+            entityType, entityId.toString(), changeType, origin);
+    }
+
+    /**
+     * Where a node joining now starts reading: the newest version that is already safe to read past
+     */
+    public long currentVersion() {
+        Long version = jdbcTemplate.queryForObject(
+            "SELECT CAST(MIN_ACTIVE_ROWVERSION() AS BIGINT) - 1", Long.class);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Up to limit changes after afterVersion, oldest first. Stops below MIN_ACTIVE_ROWVERSION():
+     * a change still in an open transaction (and everything after it) is returned by a later poll.
+     */
+    public List<CatalogChange> findChangesAfter(long afterVersion, int limit) {
+        String sql = "SELECT TOP (?) CAST(row_version AS BIGINT) AS version, entity_type, entity_id, change_type, origin " +
+                     "FROM dbo.catalog_changes " +
+                     "WHERE row_version > CAST(CAST(? AS BIGINT) AS BINARY(8)) AND row_version < MIN_ACTIVE_ROWVERSION() " +
+                     "ORDER BY row_version";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new CatalogChange(
+            rs.getLong("version"),
+            rs.getString("entity_type"),
+            rs.getObject("entity_id", UUID.class),
+            rs.getString("change_type"),
+            rs.getString("origin")
+        ), limit, afterVersion);
+    }
+
+    /**
+     * Delete changes older than retentionHours; returns the number of rows removed
+     */
+    public int deleteChangesOlderThan(int retentionHours) {
+        return jdbcTemplate.update(
+            "DELETE FROM dbo.catalog_changes WHERE changed_at < DATEADD(HOUR, -?, SYSUTCDATETIME())", retentionHours);
+    }
+}
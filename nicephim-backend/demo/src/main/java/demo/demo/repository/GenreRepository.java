@@ -2,17 +2,35 @@ package demo.demo.repository;
 
 import demo.demo.model.Genre;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 @Repository
 public class GenreRepository {
 
+    // SQL Server allows at most 2100 parameters per statement
+    private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+
+    /**
+     * A genre with the number of live (not deleted) movies assigned to it
+     */
+    public record GenreMovieCount(UUID genreId, String name, int movieCount) { }
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -65,6 +83,25 @@ public class GenreRepository {
         return jdbcTemplate.query(sql, genreRowMapper);
     }
 
+    /**
+     * Every genre with its live movie count, ordered by name (one query; genres without movies count 0)
+     */
+    public List<GenreMovieCount> findAllGenresWithMovieCounts() {
+        String sql = """
+            SELECT g.genre_id, g.name, COUNT(m.movie_id) AS movie_count
+            FROM dbo.genres g
+            LEFT JOIN dbo.movie_genres mg ON mg.genre_id = g.genre_id
+            LEFT JOIN dbo.movies m ON m.movie_id = mg.movie_id AND m.deleted_at IS NULL
+            GROUP BY g.genre_id, g.name
+            ORDER BY g.name
+            """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new GenreMovieCount(
+            UUID.fromString(rs.getString("genre_id")),
+            rs.getString("name"),
+            rs.getInt("movie_count")
+        ));
+    }
+
     /**
      * Update genre
      */
@@ -116,19 +153,146 @@ public class GenreRepository {
     }
 
     /**
-     * Add genre to movie
+     * Get genres for many movies in one round trip per 1000 ids (movieId -> genres ordered by name).
+     * Movies without genres map to an empty list.
+     */
+    public Map<UUID, List<Genre>> findGenresByMovieIds(Collection<UUID> movieIds) {
+        Map<UUID, List<Genre>> genresByMovie = new HashMap<>();
+        if (movieIds == null || movieIds.isEmpty()) {
+            return genresByMovie;
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(movieIds));
+        for (UUID id : ids) {
+            genresByMovie.put(id, new ArrayList<>());
+        }
+
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            String sql = "SELECT mg.movie_id, g.genre_id, g.name " +
+                         "FROM dbo.movie_genres mg " +
+                         "INNER JOIN dbo.genres g ON g.genre_id = mg.genre_id " +
+                         "WHERE mg.movie_id IN (" + placeholders + ") " +
+                         "ORDER BY g.name";
+
+            jdbcTemplate.query(sql, rs -> {
+                UUID movieId = UUID.fromString(rs.getString("movie_id"));
+                Genre genre = new Genre();
+                genre.setGenreId(UUID.fromString(rs.getString("genre_id")));
+                genre.setName(rs.getString("name"));
+                genresByMovie.computeIfAbsent(movieId, k -> new ArrayList<>()).add(genre);
+            }, batch.stream().map(UUID::toString).toArray());
+        }
+
+        return genresByMovie;
+    }
+
+    /**
+     * Stream every (movie_id, genre_id) assignment to the consumer (used to build in-memory indexes)
+     */
+    public void forEachMovieGenre(BiConsumer<UUID, UUID> consumer) {
+        String sql = "SELECT mg.movie_id, mg.genre_id FROM dbo.movie_genres mg " +
+                     "INNER JOIN dbo.movies m ON m.movie_id = mg.movie_id AND m.deleted_at IS NULL";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(UUID.fromString(rs.getString("movie_id")), UUID.fromString(rs.getString("genre_id")));
+        });
+    }
+
+    /**
+     * The newest perGenre movie ids of every genre in one query (genreId -> movie ids, newest first)
+     */
+    public Map<UUID, List<UUID>> findNewestMovieIdsPerGenre(int perGenre) {
+        String sql = "SELECT genre_id, movie_id FROM (" +
+                     "SELECT mg.genre_id, mg.movie_id, " +
+                     "ROW_NUMBER() OVER (PARTITION BY mg.genre_id ORDER BY m.created_at DESC, m.movie_id DESC) AS rn " +
+                     "FROM dbo.movie_genres mg " +
+                     "INNER JOIN dbo.movies m ON m.movie_id = mg.movie_id AND m.deleted_at IS NULL" +
+                     ") ranked WHERE rn <= ? ORDER BY genre_id, rn";
+
+        Map<UUID, List<UUID>> movieIdsByGenre = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            movieIdsByGenre.computeIfAbsent(UUID.fromString(rs.getString("genre_id")), k -> new ArrayList<>())
+                    .add(UUID.fromString(rs.getString("movie_id")));
+        }, perGenre);
+        return movieIdsByGenre;
+    }
+
+    /**
+     * Insert many (movieId, genreId) assignments with JDBC batching; runs in the caller's transaction
+     */
+    public void batchAddGenresToMovies(List<UUID[]> movieGenrePairs, int batchSize) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO dbo.movie_genres (movie_id, genre_id) VALUES (?, ?)",
+            movieGenrePairs,
+            batchSize,
+            (ps, pair) -> {
+                ps.setString(1, pair[0].toString());
+                ps.setString(2, pair[1].toString());
+            }
+        );
+    }
+
+    /**
+     * Add genre to movie; returns false when the movie already has it
      */
     public boolean addGenreToMovie(UUID movieId, UUID genreId) {
-        String sql = "INSERT INTO dbo.movie_genres (movie_id, genre_id) VALUES (?, ?)";
+        String sql = "INSERT INTO dbo.movie_genres (movie_id, genre_id) " +
+                     "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM dbo.movie_genres WHERE movie_id = ? AND genre_id = ?)";
         try {
-            int rowsAffected = jdbcTemplate.update(sql, movieId.toString(), genreId.toString());
+            int rowsAffected = jdbcTemplate.update(sql, movieId.toString(), genreId.toString(), movieId.toString(), genreId.toString());
             return rowsAffected > 0;
-        } catch (Exception e) {
-            // Handle duplicate key constraint
+        } catch (DuplicateKeyException e) {
+            // Added concurrently by another request
             return false;
         }
     }
 
+    /**
+     * Genre ids of a live movie, locking its assignments until the end of the caller's transaction
+     * (UPDLOCK + HOLDLOCK also covers the empty range, so concurrent replacements for the same movie queue up).
+     * Returns null when the movie does not exist or is deleted.
+     */
+    public Set<UUID> lockGenreIdsOfMovie(UUID movieId) {
+        Integer movies = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM dbo.movies WHERE movie_id = ? AND deleted_at IS NULL", Integer.class, movieId.toString());
+        if (movies == null || movies == 0) {
+            return null;
+        }
+        Set<UUID> genreIds = new HashSet<>();
+        jdbcTemplate.query(
+            "SELECT genre_id FROM dbo.movie_genres WITH (UPDLOCK, HOLDLOCK) WHERE movie_id = ?",
+            rs -> {
+                genreIds.add(UUID.fromString(rs.getString("genre_id")));
+            },
+            movieId.toString()
+        );
+        return genreIds;
+    }
+
+    /**
+     * Remove several genres from a movie in one statement; returns the number of rows removed
+     */
+    public int removeGenresFromMovie(UUID movieId, Collection<UUID> genreIds) {
+        if (genreIds.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(genreIds));
+        int removed = 0;
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            List<Object> args = new ArrayList<>(batch.size() + 1);
+            args.add(movieId.toString());
+            batch.forEach(id -> args.add(id.toString()));
+            removed += jdbcTemplate.update(
+                "DELETE FROM dbo.movie_genres WHERE movie_id = ? AND genre_id IN (" + placeholders + ")",
+                args.toArray()
+            );
+        }
+        return removed;
+    }
+
     /**
      * Remove genre from movie
      */
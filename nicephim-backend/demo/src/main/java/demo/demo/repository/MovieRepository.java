@@ -1,140 +1,58 @@
 package demo.demo.repository;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import demo.demo.model.Genre;
 import demo.demo.model.Movie;
+import demo.demo.services.movie.MovieSlugs;
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.OffsetDateTime;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Repository
 public class MovieRepository {
 
-    private final JdbcTemplate jdbcTemplate;
-
-    public MovieRepository(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
-    }
-
-    private RowMapper<Movie> movieRowMapper = new RowMapper<Movie>() {
-        @Override
-        public Movie mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Movie movie = new Movie();
-            movie.setMovieId(UUID.fromString(rs.getString("movie_id")));
-            movie.setTitle(rs.getString("title"));
-            movie.setAliasTitle(rs.getString("alias_title"));
-            movie.setDescription(rs.getString("description"));
-
-            Short releaseYear = rs.getObject("release_year") != null ? rs.getShort("release_year") : null;
-            movie.setReleaseYear(releaseYear);
-
-            movie.setAgeRating(rs.getString("age_rating"));
-
-            BigDecimal imdbRating = rs.getBigDecimal("imdb_rating");
-            movie.setImdbRating(imdbRating);
-
-            movie.setSeries(rs.getBoolean("is_series"));
-            movie.setPosterUrl(rs.getString("poster_url"));
-            movie.setBannerUrl(rs.getString("banner_url"));
-            movie.setCreatedBy(UUID.fromString(rs.getString("created_by")));
-            
-            // Video fields (re-enabled after V2 migration)
-            movie.setVideoId(rs.getString("video_id"));
-            movie.setHlsUrl(rs.getString("hls_url"));
-            movie.setVideoStatus(rs.getString("video_status"));
-
-            Object createdAtObj = rs.getObject("created_at");
-            if (createdAtObj != null) {
-                // Handle SQL Server datetime format
-                String dateTimeStr = createdAtObj.toString();
-                if (dateTimeStr.contains(" ")) {
-                    // Convert SQL Server format to ISO format
-                    dateTimeStr = dateTimeStr.replace(" ", "T") + "Z";
-                }
-                movie.setCreatedAt(OffsetDateTime.parse(dateTimeStr));
-            }
+    // SQL Server allows at most 2100 parameters per statement
+    private static final int IN_CLAUSE_BATCH_SIZE = 1000;
 
-            Object updatedAtObj = rs.getObject("updated_at");
-            if (updatedAtObj != null) {
-                // Handle SQL Server datetime format
-                String dateTimeStr = updatedAtObj.toString();
-                if (dateTimeStr.contains(" ")) {
-                    // Convert SQL Server format to ISO format
-                    dateTimeStr = dateTimeStr.replace(" ", "T") + "Z";
-                }
-                movie.setUpdatedAt(OffsetDateTime.parse(dateTimeStr));
-            }
+    // Rows per round trip while streaming the whole catalog
+    private static final int EXPORT_FETCH_SIZE = 1000;
 
-            return movie;
-        }
-    };
-
-    private RowMapper<Movie> movieRowMapperWithCreator = new RowMapper<Movie>() {
-        @Override
-        public Movie mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Movie movie = new Movie();
-            movie.setMovieId(UUID.fromString(rs.getString("movie_id")));
-            movie.setTitle(rs.getString("title"));
-            movie.setAliasTitle(rs.getString("alias_title"));
-            movie.setDescription(rs.getString("description"));
-
-            Short releaseYear = rs.getObject("release_year") != null ? rs.getShort("release_year") : null;
-            movie.setReleaseYear(releaseYear);
-
-            movie.setAgeRating(rs.getString("age_rating"));
-
-            BigDecimal imdbRating = rs.getBigDecimal("imdb_rating");
-            movie.setImdbRating(imdbRating);
-
-            movie.setSeries(rs.getBoolean("is_series"));
-            movie.setPosterUrl(rs.getString("poster_url"));
-            movie.setBannerUrl(rs.getString("banner_url"));
-            movie.setCreatedBy(UUID.fromString(rs.getString("created_by")));
-            
-            // Video fields (re-enabled after V2 migration)
-            movie.setVideoId(rs.getString("video_id"));
-            movie.setHlsUrl(rs.getString("hls_url"));
-            movie.setVideoStatus(rs.getString("video_status"));
-
-            Object createdAtObj = rs.getObject("created_at");
-            if (createdAtObj != null) {
-                // Handle SQL Server datetime format
-                String dateTimeStr = createdAtObj.toString();
-                if (dateTimeStr.contains(" ")) {
-                    // Convert SQL Server format to ISO format
-                    dateTimeStr = dateTimeStr.replace(" ", "T") + "Z";
-                }
-                movie.setCreatedAt(OffsetDateTime.parse(dateTimeStr));
-            }
+    private static final String MOVIE_COLUMNS =
+        "movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, slug, created_at, updated_at";
+    // List cards only: no description (NVARCHAR(MAX)), banner, video or audit columns; created_at is kept for cursors
+    private static final String MOVIE_CARD_COLUMNS =
+        "movie_id, title, alias_title, slug, release_year, age_rating, imdb_rating, is_series, poster_url, created_at";
 
-            Object updatedAtObj = rs.getObject("updated_at");
-            if (updatedAtObj != null) {
-                // Handle SQL Server datetime format
-                String dateTimeStr = updatedAtObj.toString();
-                if (dateTimeStr.contains(" ")) {
-                    // Convert SQL Server format to ISO format
-                    dateTimeStr = dateTimeStr.replace(" ", "T") + "Z";
-                }
-                movie.setUpdatedAt(OffsetDateTime.parse(dateTimeStr));
-            }
+    // "movie_id, title" -> "m.movie_id, m.title"
+    private static String qualified(String alias, String columns) {
+        return alias + "." + columns.replace(", ", ", " + alias + ".");
+    }
 
-            // Add creator name if available
-            String creatorName = rs.getString("creator_name");
-            if (creatorName != null) {
-                // Store creator name in a custom field or use a Map for additional data
-                // For now, we'll just log it
-                System.out.println("Creator: " + creatorName);
-            }
+    private final JdbcTemplate jdbcTemplate;
 
-            return movie;
-        }
-    };
+    public MovieRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
 
     public UUID insertMovie(String title, String aliasTitle, String description, Short releaseYear,
                            String ageRating, BigDecimal imdbRating, boolean isSeries,
@@ -148,12 +66,18 @@ public class MovieRepository {
                            String posterUrl, String bannerUrl, UUID createdBy,
                            String videoId, String hlsUrl, String videoStatus) throws DataAccessException {
         UUID movieId = UUID.randomUUID();
+        String aliasSlug = aliasSlugOf(aliasTitle);
         try {
             System.out.println("Inserting movie with video data - videoId: " + videoId + ", hlsUrl: " + hlsUrl + ", videoStatus: " + videoStatus);
-            int rowsAffected = jdbcTemplate.update(
-                "INSERT INTO dbo.movies (movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?)",
-                movieId, title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, createdBy, videoId, hlsUrl, videoStatus
-            );
+            int rowsAffected;
+            try {
+                rowsAffected = insertMovieRow(movieId, allocateSlug(MovieSlugs.forTitle(title, movieId), movieId), aliasSlug,
+                    title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, createdBy, videoId, hlsUrl, videoStatus);
+            } catch (DuplicateKeyException e) {
+                // Another movie with the same title took the slug concurrently: pick the next free suffix
+                rowsAffected = insertMovieRow(movieId, allocateSlug(MovieSlugs.forTitle(title, movieId), movieId), aliasSlug,
+                    title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, createdBy, videoId, hlsUrl, videoStatus);
+            }
             System.out.println("Movie inserted with ID: " + movieId + ", rows affected: " + rowsAffected);
             return movieId;
         } catch (Exception e) {
@@ -163,153 +87,422 @@ public class MovieRepository {
         }
     }
 
-    public Movie findMovieById(UUID movieId) {
-        try {
-            System.out.println("Searching for movie by ID: " + movieId);
-            List<Movie> movies = jdbcTemplate.query(
-                "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies WHERE movie_id = ?",
-                movieRowMapper,
-                movieId
-            );
-            
-            if (movies.isEmpty()) {
-                System.err.println("No movie found with ID: " + movieId);
-                return null;
+    private int insertMovieRow(UUID movieId, String slug, String aliasSlug, String title, String aliasTitle, String description,
+                               Short releaseYear, String ageRating, BigDecimal imdbRating, boolean isSeries,
+                               String posterUrl, String bannerUrl, UUID createdBy,
+                               String videoId, String hlsUrl, String videoStatus) {
+        return jdbcTemplate.update(
+            "INSERT INTO dbo.movies (movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, slug, alias_slug) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)",
+            movieId, title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, createdBy, videoId, hlsUrl, videoStatus, slug, aliasSlug
+        );
+    }
+
+    /**
+     * Insert many movies with JDBC batching (one round trip per batchSize rows). Each movie must already
+     * carry its movieId and a free slug; created_at is set by the database. Runs in the caller's transaction.
+     */
+    public void batchInsertMovies(List<Movie> movies, int batchSize) throws DataAccessException {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO dbo.movies (movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, slug, alias_slug) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)",
+            movies,
+            batchSize,
+            (ps, movie) -> {
+                ps.setString(1, movie.getMovieId().toString());
+                ps.setString(2, movie.getTitle());
+                ps.setString(3, movie.getAliasTitle());
+                ps.setString(4, movie.getDescription());
+                ps.setObject(5, movie.getReleaseYear(), Types.SMALLINT);
+                ps.setString(6, movie.getAgeRating());
+                ps.setBigDecimal(7, movie.getImdbRating());
+                ps.setBoolean(8, movie.isSeries());
+                ps.setString(9, movie.getPosterUrl());
+                ps.setString(10, movie.getBannerUrl());
+                ps.setString(11, movie.getCreatedBy().toString());
+                ps.setString(12, movie.getVideoId());
+                ps.setString(13, movie.getHlsUrl());
+                ps.setString(14, movie.getVideoStatus());
+                ps.setString(15, movie.getSlug());
+                ps.setString(16, aliasSlugOf(movie.getAliasTitle()));
             }
-            
-            System.out.println("Found movie: " + movies.get(0).getTitle());
-            return movies.get(0);
-        } catch (Exception e) {
-            System.err.println("Error finding movie by ID " + movieId + ": " + e.getMessage());
-            e.printStackTrace();
-            return null;
+        );
+    }
+
+    /**
+     * Every slug in use (bulk import allocates slugs in memory against this set)
+     */
+    public Set<String> findAllSlugs() {
+        Set<String> slugs = new HashSet<>();
+        jdbcTemplate.query("SELECT slug FROM dbo.movies WHERE slug IS NOT NULL", rs -> {
+            slugs.add(rs.getString(1));
+        });
+        return slugs;
+    }
+
+    /**
+     * First free slug among base, base-2, base-3... (ignoring the movie's own row).
+     * slug only contains [a-z0-9-] so the LIKE prefix has no wildcards and seeks UX_movies_slug.
+     */
+    public String allocateSlug(String base, UUID movieId) {
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT slug FROM dbo.movies WHERE (slug = ? OR slug LIKE ?) AND movie_id <> ?",
+            String.class,
+            base, base + "-%", movieId
+        ));
+        String slug = base;
+        for (int n = 2; taken.contains(slug); n++) {
+            slug = MovieSlugs.withSuffix(base, n);
         }
+        return slug;
+    }
+
+    private String aliasSlugOf(String aliasTitle) {
+        String aliasSlug = MovieSlugs.slugify(aliasTitle);
+        return aliasSlug.isEmpty() ? null : aliasSlug;
     }
 
-    public Movie findMovieByIdWithCreator(UUID movieId) {
+    public Movie findMovieById(UUID movieId) {
         try {
-            System.out.println("Searching for movie with ID: " + movieId);
             List<Movie> movies = jdbcTemplate.query(
-                "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies WHERE movie_id = ?",
-                movieRowMapper,
+                "SELECT " + MOVIE_COLUMNS + " FROM dbo.movies WHERE movie_id = ? AND deleted_at IS NULL",
+                new MovieRowMapper(),
                 movieId
             );
-            
-            if (movies.isEmpty()) {
-                System.err.println("No movie found with ID: " + movieId);
-                return null;
-            }
-            
-            System.out.println("Found movie: " + movies.get(0).getTitle());
-            return movies.get(0);
+
+            return movies.isEmpty() ? null : movies.get(0);
         } catch (Exception e) {
-            System.err.println("Error finding movie by ID with creator " + movieId + ": " + e.getMessage());
+            System.err.println("Error finding movie by ID " + movieId + ": " + e.getMessage());
             e.printStackTrace();
             return null;
         }
     }
 
     public List<Movie> findAllMovies(int limit, int offset) {
+        return findAllMovies(MOVIE_COLUMNS, limit, offset);
+    }
+
+    /**
+     * Same as findAllMovies, reading only the card columns
+     */
+    public List<Movie> findAllMovieCards(int limit, int offset) {
+        return findAllMovies(MOVIE_CARD_COLUMNS, limit, offset);
+    }
+
+    private List<Movie> findAllMovies(String columns, int limit, int offset) {
         return jdbcTemplate.query(
-            "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies ORDER BY created_at DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
-            movieRowMapper,
+            "SELECT " + columns + " FROM dbo.movies WHERE deleted_at IS NULL ORDER BY created_at DESC, movie_id DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+            new MovieRowMapper(),
             offset, limit
         );
     }
 
+    /**
+     * Keyset page of the catalog, newest first: the movies right after (afterCreatedAt, afterMovieId),
+     * or the first page when afterCreatedAt is null. Seeks IX_movies_created_at, so every page costs
+     * the same however deep it is.
+     */
+    public List<Movie> findMoviesAfter(Instant afterCreatedAt, UUID afterMovieId, int limit) {
+        return findMoviesAfter(MOVIE_COLUMNS, afterCreatedAt, afterMovieId, limit);
+    }
+
+    /**
+     * Same as findMoviesAfter, reading only the card columns
+     */
+    public List<Movie> findMovieCardsAfter(Instant afterCreatedAt, UUID afterMovieId, int limit) {
+        return findMoviesAfter(MOVIE_CARD_COLUMNS, afterCreatedAt, afterMovieId, limit);
+    }
+
+    private List<Movie> findMoviesAfter(String columns, Instant afterCreatedAt, UUID afterMovieId, int limit) {
+        if (afterCreatedAt == null) {
+            return jdbcTemplate.query(
+                "SELECT TOP (?) " + columns + " FROM dbo.movies WHERE deleted_at IS NULL ORDER BY created_at DESC, movie_id DESC",
+                new MovieRowMapper(),
+                limit
+            );
+        }
+
+        // created_at is stored in UTC (SYSUTCDATETIME)
+        LocalDateTime createdAt = LocalDateTime.ofInstant(afterCreatedAt, ZoneOffset.UTC);
+        return jdbcTemplate.query(
+            "SELECT TOP (?) " + columns + " FROM dbo.movies " +
+            "WHERE deleted_at IS NULL AND (created_at < ? OR (created_at = ? AND movie_id < ?)) ORDER BY created_at DESC, movie_id DESC",
+            new MovieRowMapper(),
+            limit, createdAt, createdAt, afterMovieId
+        );
+    }
+
+    /**
+     * Highest IMDb rating first (unrated movies excluded), newest first among equal ratings
+     */
+    public List<Movie> findTopRatedMovies(int limit) {
+        return jdbcTemplate.query(
+            "SELECT TOP (?) " + MOVIE_COLUMNS + " FROM dbo.movies " +
+            "WHERE imdb_rating IS NOT NULL AND deleted_at IS NULL ORDER BY imdb_rating DESC, created_at DESC, movie_id DESC",
+            new MovieRowMapper(),
+            limit
+        );
+    }
+
+    /**
+     * Newest series first
+     */
+    public List<Movie> findNewestSeries(int limit) {
+        return jdbcTemplate.query(
+            "SELECT TOP (?) " + MOVIE_COLUMNS + " FROM dbo.movies " +
+            "WHERE is_series = 1 AND deleted_at IS NULL ORDER BY created_at DESC, movie_id DESC",
+            new MovieRowMapper(),
+            limit
+        );
+    }
+
+    /**
+     * Load several movies by id, in no particular order (missing ids are skipped)
+     */
+    public List<Movie> findMoviesByIds(Collection<UUID> movieIds) {
+        return findMoviesByIds(MOVIE_COLUMNS, movieIds);
+    }
+
+    /**
+     * Same as findMoviesByIds, reading only the card columns
+     */
+    public List<Movie> findMovieCardsByIds(Collection<UUID> movieIds) {
+        return findMoviesByIds(MOVIE_CARD_COLUMNS, movieIds);
+    }
+
+    private List<Movie> findMoviesByIds(String columns, Collection<UUID> movieIds) {
+        List<Movie> movies = new ArrayList<>();
+        if (movieIds == null || movieIds.isEmpty()) {
+            return movies;
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(movieIds));
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            movies.addAll(jdbcTemplate.query(
+                "SELECT " + columns + " FROM dbo.movies WHERE movie_id IN (" + placeholders + ") AND deleted_at IS NULL",
+                new MovieRowMapper(),
+                batch.stream().map(UUID::toString).toArray()
+            ));
+        }
+        return movies;
+    }
+
+    /**
+     * Stream every movie row, oldest first, to the consumer without materializing the whole table (used to build in-memory indexes)
+     */
+    public void forEachMovie(Consumer<Movie> consumer) {
+        MovieRowMapper movieRowMapper = new MovieRowMapper();
+        jdbcTemplate.query(
+            "SELECT " + MOVIE_COLUMNS + " FROM dbo.movies WHERE deleted_at IS NULL ORDER BY created_at, movie_id",
+            rs -> {
+                consumer.accept(movieRowMapper.mapRow(rs, rs.getRow()));
+            }
+        );
+    }
+
+    /**
+     * Stream the video_id, poster_url and banner_url of every row, tombstoned ones included
+     * (the media garbage collector treats all of them as in use). Nulls are skipped.
+     */
+    public void forEachMediaReference(Consumer<String> consumer) {
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                    "SELECT video_id, poster_url, banner_url FROM dbo.movies",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                return ps;
+            },
+            (ResultSet rs) -> {
+                for (int column = 1; column <= 3; column++) {
+                    String value = rs.getString(column);
+                    if (value != null) {
+                        consumer.accept(value);
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Stream every movie with its genres (ordered by name), oldest first, in one forward-only query.
+     * Genres are aggregated per row, so nothing but the current row is held in memory.
+     */
+    public void forEachMovieWithGenres(BiConsumer<Movie, List<Genre>> consumer) {
+        String sql = "SELECT " + qualified("m", MOVIE_COLUMNS) + ", " +
+                     // id<US>name<RS>id<US>name...: control characters never appear in genre names
+                     "(SELECT STRING_AGG(CONCAT(CONVERT(CHAR(36), g.genre_id), CHAR(31), g.name), CHAR(30)) WITHIN GROUP (ORDER BY g.name) " +
+                     " FROM dbo.movie_genres mg INNER JOIN dbo.genres g ON g.genre_id = mg.genre_id WHERE mg.movie_id = m.movie_id) AS genres " +
+                     "FROM dbo.movies m WHERE m.deleted_at IS NULL ORDER BY m.created_at, m.movie_id";
+        MovieRowMapper movieRowMapper = new MovieRowMapper();
+
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                return ps;
+            },
+            (ResultSet rs) -> {
+                Movie movie = movieRowMapper.mapRow(rs, rs.getRow());
+                List<Genre> genres = new ArrayList<>();
+                String aggregated = rs.getString("genres");
+                if (aggregated != null) {
+                    for (String entry : aggregated.split(String.valueOf((char) 30))) {
+                        int separator = entry.indexOf((char) 31);
+                        genres.add(new Genre(UUID.fromString(entry.substring(0, separator)), entry.substring(separator + 1)));
+                    }
+                }
+                consumer.accept(movie, genres);
+            }
+        );
+    }
+
     public List<Movie> findMoviesByTitle(String title) {
         return jdbcTemplate.query(
-            "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies WHERE title LIKE ? OR alias_title LIKE ?",
-            movieRowMapper,
+            "SELECT " + MOVIE_COLUMNS + " FROM dbo.movies WHERE (title LIKE ? OR alias_title LIKE ?) AND deleted_at IS NULL",
+            new MovieRowMapper(),
             "%" + title + "%", "%" + title + "%"
         );
     }
 
+    /**
+     * Lookup by the persisted slug (unique index seek), falling back to the alias title slug.
+     * The incoming slug is normalized the same way it was generated, so "Hồ-Chí" and "ho-chi" both match.
+     */
     public Movie findMovieBySlug(String slug) {
-        System.out.println("🔍 Searching for movie with slug: " + slug);
-        
-        // First try exact match with the provided slug
+        String normalized = MovieSlugs.slugify(slug);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
         List<Movie> movies = jdbcTemplate.query(
-            "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies WHERE LOWER(REPLACE(REPLACE(title, ' ', '-'), '--', '-')) = ? OR LOWER(REPLACE(REPLACE(alias_title, ' ', '-'), '--', '-')) = ?",
-            movieRowMapper,
-            slug.toLowerCase(), slug.toLowerCase()
+            "SELECT " + MOVIE_COLUMNS + " FROM dbo.movies WHERE slug = ? AND deleted_at IS NULL",
+            new MovieRowMapper(),
+            normalized
         );
-        
-        System.out.println("🔍 Exact match found " + movies.size() + " movies");
-        
-        // If no exact match found, try more flexible matching
+
         if (movies.isEmpty()) {
-            System.out.println("🔍 No exact match found, trying normalized slug");
-            
-            // Try matching with URL decoding and normalization
-            String normalizedSlug = slug.toLowerCase()
-                .replace("%C3%A9", "é")  // URL encoded é
-                .replace("%C3%A0", "à")  // URL encoded à
-                .replace("%C3%A1", "á")  // URL encoded á
-                .replace("%C3%A2", "â")  // URL encoded â
-                .replace("%C3%A3", "ã")  // URL encoded ã
-                .replace("%C3%A4", "ä")  // URL encoded ä
-                .replace("%C3%A5", "å")  // URL encoded å
-                .replace("%C3%A6", "æ")  // URL encoded æ
-                .replace("%C3%A7", "ç")  // URL encoded ç
-                .replace("%C3%A8", "è")  // URL encoded è
-                .replace("%C3%A9", "é")  // URL encoded é
-                .replace("%C3%AA", "ê")  // URL encoded ê
-                .replace("%C3%AB", "ë")  // URL encoded ë
-                .replace("%C3%AC", "ì")  // URL encoded ì
-                .replace("%C3%AD", "í")  // URL encoded í
-                .replace("%C3%AE", "î")  // URL encoded î
-                .replace("%C3%AF", "ï")  // URL encoded ï
-                .replace("%C3%B0", "ð")  // URL encoded ð
-                .replace("%C3%B1", "ñ")  // URL encoded ñ
-                .replace("%C3%B2", "ò")  // URL encoded ò
-                .replace("%C3%B3", "ó")  // URL encoded ó
-                .replace("%C3%B4", "ô")  // URL encoded ô
-                .replace("%C3%B5", "õ")  // URL encoded õ
-                .replace("%C3%B6", "ö")  // URL encoded ö
-                .replace("%C3%B7", "÷")  // URL encoded ÷
-                .replace("%C3%B8", "ø")  // URL encoded ø
-                .replace("%C3%B9", "ù")  // URL encoded ù
-                .replace("%C3%BA", "ú")  // URL encoded ú
-                .replace("%C3%BB", "û")  // URL encoded û
-                .replace("%C3%BC", "ü")  // URL encoded ü
-                .replace("%C3%BD", "ý")  // URL encoded ý
-                .replace("%C3%BE", "þ")  // URL encoded þ
-                .replace("%C3%BF", "ÿ"); // URL encoded ÿ
-            
-            System.out.println("🔍 Normalized slug: " + normalizedSlug);
-            
             movies = jdbcTemplate.query(
-                "SELECT movie_id, title, alias_title, description, release_year, age_rating, imdb_rating, is_series, poster_url, banner_url, created_by, video_id, hls_url, video_status, created_at, updated_at FROM dbo.movies WHERE LOWER(REPLACE(REPLACE(title, ' ', '-'), '--', '-')) = ? OR LOWER(REPLACE(REPLACE(alias_title, ' ', '-'), '--', '-')) = ?",
-                movieRowMapper,
-                normalizedSlug, normalizedSlug
+                "SELECT TOP 1 " + MOVIE_COLUMNS + " FROM dbo.movies WHERE alias_slug = ? AND deleted_at IS NULL ORDER BY created_at",
+                new MovieRowMapper(),
+                normalized
             );
-            
-            System.out.println("🔍 Normalized match found " + movies.size() + " movies");
         }
-        
+
         return movies.isEmpty() ? null : movies.get(0);
     }
 
     public int updateMovie(UUID movieId, String title, String aliasTitle, String description, Short releaseYear,
                           String ageRating, BigDecimal imdbRating, boolean isSeries,
                           String posterUrl, String bannerUrl) throws DataAccessException {
+        List<Map<String, Object>> current = jdbcTemplate.queryForList(
+            "SELECT title, alias_title, slug, alias_slug FROM dbo.movies WHERE movie_id = ?", movieId);
+        if (current.isEmpty()) {
+            return 0;
+        }
+        // Published slugs only move with the title: an unrelated edit must not turn "foo-2" into "foo"
+        // because the other "foo" has been purged since
+        Map<String, Object> row = current.get(0);
+        String slug = (String) row.get("slug");
+        if (slug == null || !Objects.equals(row.get("title"), title)) {
+            slug = allocateSlug(MovieSlugs.forTitle(title, movieId), movieId);
+        }
+        String aliasSlug = Objects.equals(row.get("alias_title"), aliasTitle)
+            ? (String) row.get("alias_slug") : aliasSlugOf(aliasTitle);
         return jdbcTemplate.update(
-            "UPDATE dbo.movies SET title = ?, alias_title = ?, description = ?, release_year = ?, age_rating = ?, imdb_rating = ?, is_series = ?, poster_url = ?, banner_url = ?, updated_at = SYSUTCDATETIME() WHERE movie_id = ?",
-            title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, movieId
+            "UPDATE dbo.movies SET title = ?, alias_title = ?, description = ?, release_year = ?, age_rating = ?, imdb_rating = ?, is_series = ?, poster_url = ?, banner_url = ?, slug = ?, alias_slug = ?, updated_at = SYSUTCDATETIME() WHERE movie_id = ?",
+            title, aliasTitle, description, releaseYear, ageRating, imdbRating, isSeries, posterUrl, bannerUrl, slug, aliasSlug, movieId
         );
     }
 
-    public int deleteMovie(UUID movieId) throws DataAccessException {
-        // First delete all watch rooms referencing this movie
-        jdbcTemplate.update("DELETE FROM dbo.watch_rooms WHERE movie_id = ?", movieId);
-        
-        // Then delete the movie
-        return jdbcTemplate.update("DELETE FROM dbo.movies WHERE movie_id = ?", movieId);
+    /**
+     * Mark the movie deleted: it disappears from every read at once, while its rooms, media and row
+     * are removed later by MovieDeletionWorker. Returns 0 when the movie is missing or already deleted.
+     */
+    public int tombstoneMovie(UUID movieId) throws DataAccessException {
+        return jdbcTemplate.update(
+            "UPDATE dbo.movies SET deleted_at = SYSUTCDATETIME() WHERE movie_id = ? AND deleted_at IS NULL",
+            movieId
+        );
+    }
+
+    /**
+     * Up to limit tombstoned movies after afterMovieId (null for the first page), in movie_id order so a run
+     * can page past movies it has to skip. The filtered IX_movies_deleted_at covers only tombstoned rows.
+     */
+    public List<Movie> findTombstonedMovies(int limit, UUID afterMovieId) {
+        if (afterMovieId == null) {
+            return jdbcTemplate.query(
+                "SELECT TOP (?) " + MOVIE_COLUMNS + " FROM dbo.movies WHERE deleted_at IS NOT NULL ORDER BY movie_id",
+                new MovieRowMapper(),
+                limit
+            );
+        }
+        return jdbcTemplate.query(
+            "SELECT TOP (?) " + MOVIE_COLUMNS + " FROM dbo.movies WHERE deleted_at IS NOT NULL AND movie_id > ? ORDER BY movie_id",
+            new MovieRowMapper(),
+            limit, afterMovieId
+        );
+    }
+
+    public long countTombstonedMovies() {
+        return jdbcTemplate.queryForObject("SELECT COUNT_BIG(*) FROM dbo.movies WHERE deleted_at IS NOT NULL", Long.class);
+    }
+
+    /**
+     * Delete at most batchSize watch rooms of the movie; returns the number removed
+     */
+    public int deleteWatchRoomsBatch(UUID movieId, int batchSize) throws DataAccessException {
+        return jdbcTemplate.update("DELETE TOP (?) FROM dbo.watch_rooms WHERE movie_id = ?", batchSize, movieId);
+    }
+
+    /**
+     * Whether a movie other than movieId (live or tombstoned) still uses the video
+     */
+    public boolean isVideoUsedByOtherMovie(String videoId, UUID movieId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM dbo.movies WHERE video_id = ? AND movie_id <> ?",
+            Integer.class, videoId, movieId
+        );
+        return count != null && count > 0;
+    }
+
+    /**
+     * Whether a movie other than movieId (live or tombstoned) still shows the image as poster or banner
+     */
+    public boolean isImageUsedByOtherMovie(String imageUrl, UUID movieId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM dbo.movies WHERE (poster_url = ? OR banner_url = ?) AND movie_id <> ?",
+            Integer.class, imageUrl, imageUrl, movieId
+        );
+        return count != null && count > 0;
+    }
+
+    /**
+     * Remove a tombstoned row for good (movie_genres cascades); live movies are never touched
+     */
+    public int purgeMovie(UUID movieId) throws DataAccessException {
+        return jdbcTemplate.update("DELETE FROM dbo.movies WHERE movie_id = ? AND deleted_at IS NOT NULL", movieId);
     }
 
     public long countMovies() {
-        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dbo.movies", Long.class);
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dbo.movies WHERE deleted_at IS NULL", Long.class);
+    }
+
+    /**
+     * Cheap summary of the catalog tables that changes whenever a movie, genre or assignment is written
+     * (used to notice writes made by other instances)
+     */
+    public String catalogFingerprint() {
+        return jdbcTemplate.queryForObject(
+            "SELECT CONCAT(" +
+            "(SELECT COUNT_BIG(*) FROM dbo.movies WHERE deleted_at IS NULL), '|', " +
+            "(SELECT MAX(created_at) FROM dbo.movies), '|', " +
+            "(SELECT MAX(updated_at) FROM dbo.movies), '|', " +
+            "(SELECT CHECKSUM_AGG(BINARY_CHECKSUM(genre_id, name)) FROM dbo.genres), '|', " +
+            "(SELECT CHECKSUM_AGG(BINARY_CHECKSUM(movie_id, genre_id)) FROM dbo.movie_genres))",
+            String.class
+        );
     }
 
     public int updateMoviePoster(UUID movieId, String posterUrl) throws DataAccessException {
@@ -0,0 +1,142 @@
+package demo.demo.repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import demo.demo.model.Movie;
+
+/**
+ * Maps dbo.movies rows to Movie for any column subset (full rows, list cards, ...).
+ * Column positions are looked up in the ResultSet metadata on the first row and reused for the rest of
+ * that result, so an instance must not be shared between concurrent queries: MovieRepository creates one
+ * per query. Columns missing from the SELECT are left unset. Ids and timestamps are read as UUID and
+ * LocalDateTime straight from the driver, without going through strings.
+ */
+final class MovieRowMapper implements RowMapper<Movie> {
+
+    private ResultSet resolvedFor;
+
+    private int movieId;
+    private int title;
+    private int aliasTitle;
+    private int description;
+    private int releaseYear;
+    private int ageRating;
+    private int imdbRating;
+    private int isSeries;
+    private int posterUrl;
+    private int bannerUrl;
+    private int createdBy;
+    private int videoId;
+    private int hlsUrl;
+    private int videoStatus;
+    private int slug;
+    private int createdAt;
+    private int updatedAt;
+
+    @Override
+    public Movie mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resolvedFor) {
+            resolve(rs);
+        }
+
+        Movie movie = new Movie();
+        movie.setMovieId(rs.getObject(movieId, UUID.class));
+        if (title > 0) {
+            movie.setTitle(rs.getString(title));
+        }
+        if (aliasTitle > 0) {
+            movie.setAliasTitle(rs.getString(aliasTitle));
+        }
+        if (description > 0) {
+            movie.setDescription(rs.getString(description));
+        }
+        if (releaseYear > 0) {
+            short year = rs.getShort(releaseYear);
+            movie.setReleaseYear(rs.wasNull() ? null : year);
+        }
+        if (ageRating > 0) {
+            movie.setAgeRating(rs.getString(ageRating));
+        }
+        if (imdbRating > 0) {
+            movie.setImdbRating(rs.getBigDecimal(imdbRating));
+        }
+        if (isSeries > 0) {
+            movie.setSeries(rs.getBoolean(isSeries));
+        }
+        if (posterUrl > 0) {
+            movie.setPosterUrl(rs.getString(posterUrl));
+        }
+        if (bannerUrl > 0) {
+            movie.setBannerUrl(rs.getString(bannerUrl));
+        }
+        if (createdBy > 0) {
+            movie.setCreatedBy(rs.getObject(createdBy, UUID.class));
+        }
+        if (videoId > 0) {
+            movie.setVideoId(rs.getString(videoId));
+        }
+        if (hlsUrl > 0) {
+            movie.setHlsUrl(rs.getString(hlsUrl));
+        }
+        if (videoStatus > 0) {
+            movie.setVideoStatus(rs.getString(videoStatus));
+        }
+        if (slug > 0) {
+            movie.setSlug(rs.getString(slug));
+        }
+        if (createdAt > 0) {
+            movie.setCreatedAt(utc(rs.getObject(createdAt, LocalDateTime.class)));
+        }
+        if (updatedAt > 0) {
+            movie.setUpdatedAt(utc(rs.getObject(updatedAt, LocalDateTime.class)));
+        }
+        return movie;
+    }
+
+    private void resolve(ResultSet rs) throws SQLException {
+        movieId = title = aliasTitle = description = releaseYear = ageRating = imdbRating = isSeries = 0;
+        posterUrl = bannerUrl = createdBy = videoId = hlsUrl = videoStatus = slug = createdAt = updatedAt = 0;
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            switch (metaData.getColumnLabel(i).toLowerCase(Locale.ROOT)) {
+                case "movie_id" -> movieId = i;
+                case "title" -> title = i;
+                case "alias_title" -> aliasTitle = i;
+                case "description" -> description = i;
+                case "release_year" -> releaseYear = i;
+                case "age_rating" -> ageRating = i;
+                case "imdb_rating" -> imdbRating = i;
+                case "is_series" -> isSeries = i;
+                case "poster_url" -> posterUrl = i;
+                case "banner_url" -> bannerUrl = i;
+                case "created_by" -> createdBy = i;
+                case "video_id" -> videoId = i;
+                case "hls_url" -> hlsUrl = i;
+                case "video_status" -> videoStatus = i;
+                case "slug" -> slug = i;
+                case "created_at" -> createdAt = i;
+                case "updated_at" -> updatedAt = i;
+                default -> { }
+            }
+        }
+        if (movieId == 0) {
+            throw new SQLException("movie_id is not in the result set");
+        }
+        resolvedFor = rs;
+    }
+
+    // created_at / updated_at are DATETIME2 written with SYSUTCDATETIME()
+    private static OffsetDateTime utc(LocalDateTime value) {
+        return value != null ? value.atOffset(ZoneOffset.UTC) : null;
+    }
+}
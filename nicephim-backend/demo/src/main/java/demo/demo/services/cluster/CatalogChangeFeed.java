@@ -0,0 +1,240 @@
+package demo.demo.services.cluster;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Movie;
+import demo.demo.repository.CatalogChangeRepository;
+import demo.demo.repository.CatalogChangeRepository.CatalogChange;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.genre.GenreChangedEvent;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+import demo.demo.services.movie.MovieChangedEvent;
+import demo.demo.services.movie.MovieResponseCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps the in-process catalog caches of several backend nodes in step without sticky sessions or a broker.
+ * Every local MovieChangedEvent, MovieGenresChangedEvent and GenreChangedEvent is appended to
+ * dbo.catalog_changes with this node's id; each node polls the rows written by the others and replays them
+ * here as the same events (after invalidating MovieResponseCache), so every listener that keeps a read model
+ * up to date for local writes does the same for remote ones.
+ *
+ * The feed is read in row_version order up to MIN_ACTIVE_ROWVERSION(), so a change committed late is never
+ * skipped. Several changes to one movie in a poll are replayed once, from a single re-read of the rows.
+ */
+@Component
+public class CatalogChangeFeed {
+
+    public static final String MOVIE = "MOVIE";
+    public static final String GENRE = "GENRE";
+    public static final String MOVIE_GENRES = "MOVIE_GENRES";
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final MovieRepository movieRepository;
+    private final MovieResponseCache movieResponseCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int batchSize;
+    private final int retentionHours;
+    private final Counter appended;
+    private final Counter replayed;
+
+    // Set while replaying remote changes, so they are not appended to the feed again
+    private final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> false);
+    // Only touched by the polling thread; -1 until the first poll
+    private long lastVersion = -1;
+    // Movies found deleted while replaying an earlier change, whose DELETED row is still to come
+    private final Set<UUID> deletedAhead = new HashSet<>();
+
+    public CatalogChangeFeed(CatalogChangeRepository catalogChangeRepository, MovieRepository movieRepository,
+                             MovieResponseCache movieResponseCache, ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${cluster.changes.enabled:true}") boolean enabled,
+                             @Value("${cluster.node-id:}") String nodeId,
+                             @Value("${cluster.changes.batch-size:500}") int batchSize,
+                             @Value("${cluster.changes.retention-hours:24}") int retentionHours) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.movieRepository = movieRepository;
+        this.movieResponseCache = movieResponseCache;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId.trim();
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        this.appended = Counter.builder("cluster.changes.appended").register(meterRegistry);
+        this.replayed = Counter.builder("cluster.changes.replayed").register(meterRegistry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        append(MOVIE, event.movieId(), event.type().name());
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        append(MOVIE_GENRES, event.movieId(), "UPDATED");
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        append(GENRE, event.genreId(), event.type().name());
+    }
+
+    private void append(String entityType, UUID entityId, String changeType) {
+        if (!enabled || replaying.get()) {
+            return;
+        }
+        try {
+            catalogChangeRepository.append(entityType, entityId, changeType, nodeId);
+            appended.increment();
+        } catch (Exception e) {
+            // The write itself succeeded; other nodes catch up on their next periodic rebuild / fingerprint check
+            System.err.println("❌ Could not record catalog change " + entityType + " " + entityId + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.changes.poll-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (lastVersion < 0) {
+                // Local indexes are built from the tables at startup, so only later changes matter
+                lastVersion = catalogChangeRepository.currentVersion();
+                System.out.println("🛰️ Catalog change feed started for node " + nodeId + " at version " + lastVersion);
+                return;
+            }
+            List<CatalogChange> changes;
+            do {
+                changes = catalogChangeRepository.findChangesAfter(lastVersion, batchSize);
+                if (!changes.isEmpty()) {
+                    replay(changes);
+                    lastVersion = changes.get(changes.size() - 1).version();
+                }
+            } while (changes.size() == batchSize);
+        } catch (Exception e) {
+            // Retried from the same version on the next poll
+            System.err.println("❌ Could not poll catalog changes: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.changes.prune-ms:3600000}", initialDelayString = "${cluster.changes.prune-ms:3600000}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int removed = catalogChangeRepository.deleteChangesOlderThan(retentionHours);
+            if (removed > 0) {
+                System.out.println("🧹 Pruned " + removed + " catalog changes older than " + retentionHours + " h");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Could not prune catalog changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publish the remote changes of one batch as local events. Movies are coalesced (last change wins,
+     * re-read in one query); genre changes are replayed in order.
+     */
+    private void replay(List<CatalogChange> changes) {
+        Map<UUID, String> movieChanges = new LinkedHashMap<>();
+        Set<UUID> genreAssignments = new LinkedHashSet<>();
+        List<CatalogChange> genreChanges = new ArrayList<>();
+        int remote = 0;
+        for (CatalogChange change : changes) {
+            if (nodeId.equals(change.origin())) {
+                continue;
+            }
+            remote++;
+            switch (change.entityType()) {
+                case MOVIE -> {
+                    String previous = movieChanges.get(change.entityId());
+                    if (!"CREATED".equals(previous)) {
+                        movieChanges.put(change.entityId(), change.changeType());
+                    } else if ("DELETED".equals(change.changeType())) {
+                        // Created and deleted within the batch: this node never saw it
+                        movieChanges.remove(change.entityId());
+                        genreAssignments.remove(change.entityId());
+                    }
+                    // Created then updated stays CREATED
+                }
+                case MOVIE_GENRES -> genreAssignments.add(change.entityId());
+                case GENRE -> genreChanges.add(change);
+                default -> System.err.println("❌ Unknown catalog change type: " + change.entityType());
+            }
+        }
+        if (movieChanges.isEmpty() && genreAssignments.isEmpty() && genreChanges.isEmpty()) {
+            return;
+        }
+
+        List<UUID> toLoad = movieChanges.entrySet().stream()
+                .filter(entry -> !"DELETED".equals(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Map<UUID, Movie> movies = movieRepository.findMoviesByIds(toLoad).stream()
+                .collect(Collectors.toMap(Movie::getMovieId, Function.identity()));
+
+        replaying.set(true);
+        try {
+            for (CatalogChange change : genreChanges) {
+                // Genre names are embedded in every cached movie
+                movieResponseCache.invalidateAll();
+                eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.valueOf(change.changeType()), change.entityId()));
+            }
+            for (Map.Entry<UUID, String> entry : movieChanges.entrySet()) {
+                UUID movieId = entry.getKey();
+                movieResponseCache.invalidate(movieId);
+                Movie movie = movies.get(movieId);
+                if (movie == null && !"DELETED".equals(entry.getValue())) {
+                    // Deleted since: announce it now (a movie this node never saw needs nothing)
+                    // and skip the DELETED row that follows in a later batch
+                    if (!"CREATED".equals(entry.getValue())) {
+                        eventPublisher.publishEvent(MovieChangedEvent.deleted(movieId));
+                    }
+                    deletedAhead.add(movieId);
+                } else if (movie == null) {
+                    if (!deletedAhead.remove(movieId)) {
+                        eventPublisher.publishEvent(MovieChangedEvent.deleted(movieId));
+                    }
+                } else if ("CREATED".equals(entry.getValue())) {
+                    eventPublisher.publishEvent(MovieChangedEvent.created(movie));
+                } else {
+                    eventPublisher.publishEvent(MovieChangedEvent.updated(movie));
+                }
+            }
+            for (UUID movieId : genreAssignments) {
+                if (movieChanges.containsKey(movieId) && !movies.containsKey(movieId)) {
+                    continue;
+                }
+                movieResponseCache.invalidate(movieId);
+                eventPublisher.publishEvent(new MovieGenresChangedEvent(movieId));
+            }
+            replayed.increment(remote);
+        } finally {
+            replaying.set(false);
+        }
+    }
+}
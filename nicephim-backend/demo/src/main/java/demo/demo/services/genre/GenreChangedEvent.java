@@ -0,0 +1,11 @@
+package demo.demo.services.genre;
+
+import java.util.UUID;
+
+/**
+ * Published by GenreService after a genre was created, renamed or deleted
+ */
+public record GenreChangedEvent(Type type, UUID genreId) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
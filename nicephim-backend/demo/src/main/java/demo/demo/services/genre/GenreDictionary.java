@@ -0,0 +1,192 @@
+package demo.demo.services.genre;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Genre;
+import demo.demo.repository.GenreRepository;
+import demo.demo.repository.GenreRepository.GenreMovieCount;
+import demo.demo.services.movie.MovieChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The genres table as an immutable in-memory snapshot: lookup by id and by name, the list ordered by name
+ * and the number of live movies in each genre, so existence and name checks never touch the database.
+ * Every reload builds a new Snapshot and swaps it in. A genre write (local, or replayed from another node)
+ * reloads it before the event returns; movie and assignment changes only move the counts, so they are
+ * recounted once after a short debounce. A periodic reload picks up anything missed.
+ */
+@Component
+public class GenreDictionary {
+
+    public record Entry(UUID genreId, String name, int movieCount) {
+
+        public Genre toGenre() {
+            return new Genre(genreId, name);
+        }
+    }
+
+    private record Snapshot(Map<UUID, Entry> byId, Map<String, Entry> byName, List<Entry> ordered) { }
+
+    private final GenreRepository genreRepository;
+    private final long debounceMillis;
+
+    private volatile Snapshot current;
+    // Bumped whenever a reload swaps in different genres or counts (part of the genres ETag)
+    private volatile long generation;
+    private final AtomicBoolean recountQueued = new AtomicBoolean();
+
+    public GenreDictionary(GenreRepository genreRepository, MeterRegistry meterRegistry,
+                           @Value("${genre.dictionary.debounce-ms:1000}") long debounceMillis) {
+        this.genreRepository = genreRepository;
+        this.debounceMillis = debounceMillis;
+        Gauge.builder("genre.dictionary.genres", this, dictionary -> dictionary.current == null ? 0 : dictionary.current.ordered().size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Changes whenever the served genres, names or movie counts change
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Every genre ordered by name
+     */
+    public List<Entry> all() {
+        return snapshot().ordered();
+    }
+
+    public Optional<Entry> findById(UUID genreId) {
+        return genreId == null ? Optional.empty() : Optional.ofNullable(snapshot().byId().get(genreId));
+    }
+
+    /**
+     * Lookup ignoring case and surrounding spaces, like the case-insensitive collation of dbo.genres.name
+     */
+    public Optional<Entry> findByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(snapshot().byName().get(keyOf(name)));
+    }
+
+    public boolean contains(UUID genreId) {
+        return genreId != null && snapshot().byId().containsKey(genreId);
+    }
+
+    /**
+     * Genre id -> name for every genre
+     */
+    public Map<UUID, String> names() {
+        Map<UUID, String> names = new HashMap<>();
+        for (Entry entry : snapshot().ordered()) {
+            names.put(entry.genreId(), entry.name());
+        }
+        return names;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${genre.dictionary.refresh-ms:300000}", initialDelayString = "${genre.dictionary.refresh-ms:300000}")
+    public void refresh() {
+        reloadQuietly();
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        // Synchronous: the request that wrote the genre reads the new snapshot right after publishing
+        reloadQuietly();
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        queueRecount();
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        queueRecount();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : firstLoad();
+    }
+
+    private synchronized Snapshot firstLoad() {
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Reload once after the debounce delay; changes arriving meanwhile are folded into that reload
+     */
+    private void queueRecount() {
+        if (!recountQueued.compareAndSet(false, true)) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                Thread.sleep(debounceMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Cleared before reading the database so a change during the reload queues another one
+            recountQueued.set(false);
+            reloadQuietly();
+        }, "genre-dictionary-recount").start();
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            System.err.println("❌ Could not reload genre dictionary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the table and swap in a new snapshot. Synchronized so a reload that started earlier can never
+     * replace a newer one.
+     */
+    private synchronized Snapshot reload() {
+        List<GenreMovieCount> rows = genreRepository.findAllGenresWithMovieCounts();
+        Map<UUID, Entry> byId = new HashMap<>();
+        Map<String, Entry> byName = new HashMap<>();
+        List<Entry> ordered = new ArrayList<>(rows.size());
+        for (GenreMovieCount row : rows) {
+            Entry entry = new Entry(row.genreId(), row.name(), row.movieCount());
+            byId.put(entry.genreId(), entry);
+            byName.put(keyOf(entry.name()), entry);
+            ordered.add(entry);
+        }
+        Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byName),
+                Collections.unmodifiableList(ordered));
+        Snapshot previous = current;
+        current = snapshot;
+        if (previous == null || !previous.ordered().equals(snapshot.ordered())) {
+            generation++;
+        }
+        return snapshot;
+    }
+
+    private static String keyOf(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,11 +5,18 @@ import demo.demo.dto.genre.GenreResponse;
 import demo.demo.dto.genre.UpdateGenreRequest;
 import demo.demo.model.Genre;
 import demo.demo.repository.GenreRepository;
+import demo.demo.services.movie.MovieResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -19,13 +26,24 @@ public class GenreService {
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private GenreDictionary genreDictionary;
+
+    @Autowired
+    private MovieResponseCache movieResponseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * Create a new genre
      */
     public GenreResponse createGenre(CreateGenreRequest request) {
         // Validate that genre name doesn't already exist
-        Optional<Genre> existingGenre = genreRepository.findGenreByName(request.getName());
-        if (existingGenre.isPresent()) {
+        if (genreDictionary.findByName(request.getName()).isPresent()) {
             throw new IllegalArgumentException("Thể loại '" + request.getName() + "' đã tồn tại");
         }
 
@@ -36,19 +54,21 @@ public class GenreService {
         try {
             UUID genreId = genreRepository.insertGenre(genre);
             genre.setGenreId(genreId);
-            return convertToResponse(genre);
+            eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.CREATED, genreId));
+            return genreDictionary.findById(genreId)
+                    .map(this::convertToResponse)
+                    .orElseGet(() -> convertToResponse(genre));
         } catch (Exception e) {
             throw new RuntimeException("Không thể tạo thể loại mới: " + e.getMessage());
         }
     }
 
     /**
-     * Get all genres
+     * Get all genres, ordered by name, with their live movie counts
      */
     public List<GenreResponse> getAllGenres() {
         try {
-            List<Genre> genres = genreRepository.findAllGenres();
-            return genres.stream()
+            return genreDictionary.all().stream()
                     .map(this::convertToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -60,7 +80,7 @@ public class GenreService {
      * Get genre by ID
      */
     public GenreResponse getGenreById(UUID genreId) {
-        Optional<Genre> genre = genreRepository.findGenreById(genreId);
+        Optional<GenreDictionary.Entry> genre = genreDictionary.findById(genreId);
         if (genre.isEmpty()) {
             throw new IllegalArgumentException("Không tìm thấy thể loại với ID: " + genreId);
         }
@@ -72,13 +92,14 @@ public class GenreService {
      */
     public GenreResponse updateGenre(UUID genreId, UpdateGenreRequest request) {
         // Check if genre exists
-        Optional<Genre> existingGenre = genreRepository.findGenreById(genreId);
-        if (existingGenre.isEmpty()) {
+        if (!genreDictionary.contains(genreId)) {
             throw new IllegalArgumentException("Không tìm thấy thể loại với ID: " + genreId);
         }
 
         // Check if new name already exists (excluding current genre)
-        boolean nameExists = genreRepository.existsByNameExcludingId(request.getName().trim(), genreId);
+        boolean nameExists = genreDictionary.findByName(request.getName())
+                .filter(other -> !other.genreId().equals(genreId))
+                .isPresent();
         if (nameExists) {
             throw new IllegalArgumentException("Thể loại '" + request.getName() + "' đã tồn tại");
         }
@@ -88,9 +109,12 @@ public class GenreService {
             if (!updated) {
                 throw new RuntimeException("Không thể cập nhật thể loại");
             }
+            // Genre names are embedded in every cached movie
+            movieResponseCache.invalidateAll();
+            eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.UPDATED, genreId));
 
-            // Get updated genre
-            Optional<Genre> updatedGenre = genreRepository.findGenreById(genreId);
+            // Get updated genre (the snapshot was reloaded by the event)
+            Optional<GenreDictionary.Entry> updatedGenre = genreDictionary.findById(genreId);
             if (updatedGenre.isEmpty()) {
                 throw new RuntimeException("Không tìm thấy thể loại sau khi cập nhật");
             }
@@ -108,8 +132,7 @@ public class GenreService {
      */
     public void deleteGenre(UUID genreId) {
         // Check if genre exists
-        Optional<Genre> genre = genreRepository.findGenreById(genreId);
-        if (genre.isEmpty()) {
+        if (!genreDictionary.contains(genreId)) {
             throw new IllegalArgumentException("Không tìm thấy thể loại với ID: " + genreId);
         }
 
@@ -118,6 +141,8 @@ public class GenreService {
             if (!deleted) {
                 throw new RuntimeException("Không thể xóa thể loại");
             }
+            movieResponseCache.invalidateAll();
+            eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.DELETED, genreId));
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
@@ -144,13 +169,14 @@ public class GenreService {
      */
     public void addGenreToMovie(UUID movieId, UUID genreId) {
         // Check if genre exists
-        Optional<Genre> genre = genreRepository.findGenreById(genreId);
-        if (genre.isEmpty()) {
+        if (!genreDictionary.contains(genreId)) {
             throw new IllegalArgumentException("Không tìm thấy thể loại với ID: " + genreId);
         }
 
         try {
             boolean added = genreRepository.addGenreToMovie(movieId, genreId);
+            movieResponseCache.invalidate(movieId);
+            eventPublisher.publishEvent(new MovieGenresChangedEvent(movieId));
             if (!added) {
                 throw new RuntimeException("Không thể thêm thể loại vào phim (có thể đã tồn tại)");
             }
@@ -161,12 +187,64 @@ public class GenreService {
         }
     }
 
+    /**
+     * Replace a movie's genres with the given set: only the difference with the current assignments is written,
+     * in one transaction (one DELETE, one batched INSERT), and the movie's cache entry and listeners are
+     * notified once. Returns the movie's genres, ordered by name.
+     */
+    public List<GenreResponse> setGenresForMovie(UUID movieId, List<UUID> genreIds) {
+        Set<UUID> desired = new LinkedHashSet<>(genreIds);
+        List<UUID> unknown = desired.stream()
+                .filter(genreId -> !genreDictionary.contains(genreId))
+                .collect(Collectors.toList());
+        if (desired.contains(null) || !unknown.isEmpty()) {
+            throw new IllegalArgumentException("Không tìm thấy thể loại với ID: " + unknown);
+        }
+
+        boolean changed;
+        try {
+            changed = new TransactionTemplate(transactionManager).execute(status -> {
+                Set<UUID> current = genreRepository.lockGenreIdsOfMovie(movieId);
+                if (current == null) {
+                    throw new IllegalArgumentException("Phim không tồn tại");
+                }
+                Set<UUID> toRemove = new HashSet<>(current);
+                toRemove.removeAll(desired);
+                List<UUID[]> toAdd = desired.stream()
+                        .filter(genreId -> !current.contains(genreId))
+                        .map(genreId -> new UUID[] { movieId, genreId })
+                        .collect(Collectors.toList());
+
+                genreRepository.removeGenresFromMovie(movieId, toRemove);
+                if (!toAdd.isEmpty()) {
+                    genreRepository.batchAddGenresToMovies(toAdd, toAdd.size());
+                }
+                return !toRemove.isEmpty() || !toAdd.isEmpty();
+            });
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Không thể cập nhật thể loại của phim: " + e.getMessage());
+        }
+
+        if (changed) {
+            movieResponseCache.invalidate(movieId);
+            eventPublisher.publishEvent(new MovieGenresChangedEvent(movieId, Set.copyOf(desired)));
+        }
+        return genreDictionary.all().stream()
+                .filter(entry -> desired.contains(entry.genreId()))
+                .map(entry -> new GenreResponse(entry.genreId(), entry.name()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Remove genre from movie
      */
     public void removeGenreFromMovie(UUID movieId, UUID genreId) {
         try {
             boolean removed = genreRepository.removeGenreFromMovie(movieId, genreId);
+            movieResponseCache.invalidate(movieId);
+            eventPublisher.publishEvent(new MovieGenresChangedEvent(movieId));
             if (!removed) {
                 throw new RuntimeException("Không thể xóa thể loại khỏi phim (có thể không tồn tại)");
             }
@@ -181,6 +259,8 @@ public class GenreService {
     public void removeAllGenresFromMovie(UUID movieId) {
         try {
             genreRepository.removeAllGenresFromMovie(movieId);
+            movieResponseCache.invalidate(movieId);
+            eventPublisher.publishEvent(new MovieGenresChangedEvent(movieId));
         } catch (Exception e) {
             throw new RuntimeException("Không thể xóa tất cả thể loại khỏi phim: " + e.getMessage());
         }
@@ -192,4 +272,8 @@ public class GenreService {
     private GenreResponse convertToResponse(Genre genre) {
         return new GenreResponse(genre.getGenreId(), genre.getName());
     }
+
+    private GenreResponse convertToResponse(GenreDictionary.Entry entry) {
+        return new GenreResponse(entry.genreId(), entry.name(), entry.movieCount());
+    }
 }
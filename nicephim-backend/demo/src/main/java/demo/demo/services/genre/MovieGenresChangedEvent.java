@@ -0,0 +1,16 @@
+package demo.demo.services.genre;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published after genres were added to or removed from a movie.
+ * genreIds is the movie's full genre set when the publisher already knows it (e.g. bulk import);
+ * when null, listeners re-read that movie's genres.
+ */
+public record MovieGenresChangedEvent(UUID movieId, Set<UUID> genreIds) {
+
+    public MovieGenresChangedEvent(UUID movieId) {
+        this(movieId, null);
+    }
+}
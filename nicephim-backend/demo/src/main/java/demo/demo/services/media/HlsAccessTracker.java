@@ -0,0 +1,99 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Thống kê truy cập HLS theo video, lấy từ luồng phục vụ playlist/segment.
+ * Lần truy cập cuối được ghi ra file đánh dấu .last-access trong thư mục HLS (tối đa mỗi giờ một lần)
+ * để vẫn còn sau khi khởi động lại; job phân tầng dựa vào đây để chọn video "lạnh".
+ */
+@Component
+public class HlsAccessTracker {
+
+	static final String MARKER = ".last-access";
+
+	private static final long PERSIST_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+	// videoId -> thống kê trong bộ nhớ
+	private final Map<String, Stats> statsById = new ConcurrentHashMap<>();
+
+	private static final class Stats {
+		final AtomicLong hits = new AtomicLong();
+		volatile long lastAccess;
+		volatile long lastPersisted;
+	}
+
+	// Ghi nhận một lần phục vụ file HLS của video (gọi từ HlsFileLocator)
+	public void record(String videoId, Path videoDir) {
+		long now = System.currentTimeMillis();
+		Stats stats = statsById.computeIfAbsent(videoId, id -> new Stats());
+		stats.hits.incrementAndGet();
+		stats.lastAccess = now;
+
+		if (now - stats.lastPersisted >= PERSIST_INTERVAL_MS) {
+			stats.lastPersisted = now;
+			persist(videoDir, now);
+		}
+	}
+
+	// Lần truy cập cuối: bộ nhớ, file đánh dấu, hoặc thời điểm mã hóa (master.m3u8) nếu chưa từng được xem
+	public long getLastAccess(String videoId, Path videoDir) {
+		Stats stats = statsById.get(videoId);
+		if (stats != null && stats.lastAccess > 0) {
+			return stats.lastAccess;
+		}
+		long persisted = lastModified(videoDir.resolve(MARKER));
+		if (persisted > 0) {
+			return persisted;
+		}
+		return lastModified(videoDir.resolve("master.m3u8"));
+	}
+
+	public long getHits(String videoId) {
+		Stats stats = statsById.get(videoId);
+		return stats == null ? 0 : stats.hits.get();
+	}
+
+	public int getTrackedVideos() {
+		return statsById.size();
+	}
+
+	// Ghi lại thời điểm truy cập ngay (ví dụ sau khi vừa khôi phục từ tầng lạnh)
+	public void markAccessed(String videoId) {
+		Stats stats = statsById.computeIfAbsent(videoId, id -> new Stats());
+		stats.lastAccess = System.currentTimeMillis();
+		stats.lastPersisted = 0;
+	}
+
+	private void persist(Path videoDir, long now) {
+		Path marker = videoDir.resolve(MARKER);
+		try {
+			if (!Files.isDirectory(videoDir)) {
+				return;
+			}
+			if (!Files.exists(marker)) {
+				Files.createFile(marker);
+			}
+			Files.setLastModifiedTime(marker, FileTime.fromMillis(now));
+		} catch (IOException e) {
+			// Không quan trọng: lần sau sẽ thử lại
+		}
+	}
+
+	private long lastModified(Path file) {
+		try {
+			return Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tầng lưu trữ "lạnh" cho cây HLS (ổ đĩa rẻ hơn, cấu hình bằng media.tiering.cold-dir).
+ * Cấu trúc giống tầng nóng: <cold>/ab/cd/<videoId>/<rung>/ hoặc cả cây <cold>/ab/cd/<videoId>/;
+ * khi bật media.tiering.pack mỗi phần được đóng gói thành một file .zip (STORED, segment đã nén sẵn).
+ *
+ * Hạ tầng: sao chép sang tầng lạnh trước, đổi tên bản nóng đi rồi mới xóa, nên luôn có ít nhất một bản đọc được.
+ * Khôi phục: giải nén/sao chép vào thư mục tạm cạnh đích rồi đổi tên nguyên tử; các request đồng thời
+ * cho cùng phần chỉ chờ một lần khôi phục.
+ */
+@Component
+public class HlsColdStore {
+
+	private static final String ZIP = ".zip";
+
+	private final MediaLayout mediaLayout;
+	private final HlsAccessTracker accessTracker;
+
+	// Thư mục tầng lạnh, rỗng = tắt phân tầng
+	private final String coldDir;
+
+	// Đóng gói mỗi phần thành một file .zip thay vì cây thư mục
+	private final boolean pack;
+
+	// Các lần khôi phục đang chạy: "videoId/rung" -> kết quả
+	private final Map<String, CompletableFuture<Boolean>> inflight = new ConcurrentHashMap<>();
+
+	private final AtomicLong coldBytes = new AtomicLong(-1);
+	private final Counter bytesFreed;
+	private final Counter bytesRehydrated;
+	private final Timer rehydrationTimer;
+
+	public HlsColdStore(MediaLayout mediaLayout, HlsAccessTracker accessTracker, MeterRegistry meterRegistry,
+			@Value("${media.tiering.cold-dir:}") String coldDir,
+			@Value("${media.tiering.pack:false}") boolean pack) {
+		this.mediaLayout = mediaLayout;
+		this.accessTracker = accessTracker;
+		this.coldDir = coldDir;
+		this.pack = pack;
+
+		this.bytesFreed = Counter.builder("media.tiering.hot.bytes.freed")
+			.description("Bytes moved off the hot HLS tier")
+			.baseUnit("bytes")
+			.register(meterRegistry);
+		this.bytesRehydrated = Counter.builder("media.tiering.rehydrated.bytes")
+			.description("Bytes copied back to the hot HLS tier on access")
+			.baseUnit("bytes")
+			.register(meterRegistry);
+		this.rehydrationTimer = Timer.builder("media.tiering.rehydration")
+			.description("Time to bring a cold rendition or tree back to the hot tier")
+			.publishPercentiles(0.5, 0.95, 0.99)
+			.register(meterRegistry);
+		Gauge.builder("media.tiering.cold.bytes", this, HlsColdStore::getColdBytes)
+			.description("Bytes currently stored on the cold HLS tier")
+			.baseUnit("bytes")
+			.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return coldDir != null && !coldDir.isBlank();
+	}
+
+	public Path getColdRoot() {
+		return Paths.get(coldDir);
+	}
+
+	// Thư mục lạnh của video (cùng tiền tố phân mảnh với tầng nóng)
+	public Path coldVideoDir(String videoId) {
+		return getColdRoot().resolve(MediaLayout.shardPrefix(videoId)).resolve(videoId);
+	}
+
+	// Hạ một biến thể (thư mục con rung, ví dụ "v0") xuống tầng lạnh, trả về số byte giải phóng ở tầng nóng
+	public long demoteRung(String videoId, Path hotVideoDir, String rung) throws IOException {
+		Path hotRung = hotVideoDir.resolve(rung);
+		if (!Files.isDirectory(hotRung)) {
+			return 0;
+		}
+		return demote(hotRung, coldVideoDir(videoId).resolve(rung));
+	}
+
+	// Hạ cả cây HLS của video xuống tầng lạnh (bỏ qua nếu đã có biến thể lạnh riêng lẻ)
+	public long demoteTree(String videoId, Path hotVideoDir) throws IOException {
+		Path coldTree = coldVideoDir(videoId);
+		if (!Files.isDirectory(hotVideoDir) || (Files.isDirectory(coldTree) && !isTreeCold(coldTree))) {
+			return 0;
+		}
+		return demote(hotVideoDir, coldTree);
+	}
+
+	// Khôi phục phần chứa relativePath nếu nó đang ở tầng lạnh. Trả về true nếu đã có bản nóng sau lời gọi
+	public boolean rehydrate(String videoId, String relativePath) throws IOException {
+		if (!isEnabled()) {
+			return false;
+		}
+
+		// Cả cây đang lạnh
+		Path coldTree = coldVideoDir(videoId);
+		if (isTreeCold(coldTree) && !Files.isDirectory(mediaLayout.resolveHlsDir(videoId))) {
+			return rehydrateOnce(videoId, "", coldTree, mediaLayout.hlsDirFor(videoId));
+		}
+
+		int slash = relativePath.indexOf('/');
+		if (slash <= 0) {
+			return false;
+		}
+		String rung = relativePath.substring(0, slash);
+		Path coldRung = coldTree.resolve(rung);
+		if (!hasColdCopy(coldRung)) {
+			return false;
+		}
+		return rehydrateOnce(videoId, rung, coldRung, mediaLayout.resolveHlsDir(videoId).resolve(rung));
+	}
+
+	// Xóa mọi phần lạnh của video (khi phim bị xóa), trả về số byte giải phóng
+	public long deleteVideo(String videoId) throws IOException {
+		if (!isEnabled()) {
+			return 0;
+		}
+		Path coldTree = coldVideoDir(videoId);
+		Path coldZip = zipOf(coldTree);
+		long freed = sizeOf(coldTree) + sizeOf(coldZip);
+		deleteRecursively(coldTree);
+		Files.deleteIfExists(coldZip);
+		addColdBytes(-freed);
+		return freed;
+	}
+
+	// Video có phần nào đang ở tầng lạnh không
+	public boolean hasColdData(String videoId) {
+		return isEnabled() && (Files.exists(coldVideoDir(videoId)) || Files.exists(zipOf(coldVideoDir(videoId))));
+	}
+
+	public long getColdBytes() {
+		if (!isEnabled()) {
+			return 0;
+		}
+		if (coldBytes.get() < 0) {
+			coldBytes.set(sizeOf(getColdRoot()));
+		}
+		return coldBytes.get();
+	}
+
+	public double getBytesFreed() {
+		return bytesFreed.count();
+	}
+
+	public long getRehydrations() {
+		return rehydrationTimer.count();
+	}
+
+	public double getMeanRehydrationMillis() {
+		return rehydrationTimer.mean(TimeUnit.MILLISECONDS);
+	}
+
+	private long demote(Path hot, Path cold) throws IOException {
+		if (hasColdCopy(cold)) {
+			// Đã có bản lạnh (lần hạ trước bị gián đoạn), chỉ cần bỏ bản nóng
+			return discardHot(hot);
+		}
+
+		Files.createDirectories(cold.getParent());
+		Path target = pack ? zipOf(cold) : cold;
+		Path staging = target.resolveSibling(target.getFileName() + ".tiering");
+		deleteRecursively(staging);
+		if (pack) {
+			zipTree(hot, staging);
+		} else {
+			copyTree(hot, staging);
+		}
+		Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+		addColdBytes(sizeOf(target));
+
+		long freed = discardHot(hot);
+		bytesFreed.increment(freed);
+		return freed;
+	}
+
+	// Đổi tên bản nóng đi (nguyên tử) rồi mới xóa, để request chỉ thấy "có" hoặc "không"
+	private long discardHot(Path hot) throws IOException {
+		long size = sizeOf(hot);
+		Path trash = hot.resolveSibling("." + hot.getFileName() + ".demoted-" + System.nanoTime());
+		Files.move(hot, trash, StandardCopyOption.ATOMIC_MOVE);
+		deleteRecursively(trash);
+		return size;
+	}
+
+	private boolean rehydrateOnce(String videoId, String part, Path cold, Path hot) throws IOException {
+		String key = videoId + "/" + part;
+		CompletableFuture<Boolean> mine = new CompletableFuture<>();
+		CompletableFuture<Boolean> existing = inflight.putIfAbsent(key, mine);
+		if (existing != null) {
+			return await(existing);
+		}
+
+		try {
+			boolean restored = rehydrationTimer.recordCallable(() -> restore(cold, hot));
+			if (restored) {
+				accessTracker.markAccessed(videoId);
+				System.out.println("🔥 Rehydrated HLS " + key + " from cold tier");
+			}
+			mine.complete(restored);
+			return restored;
+		} catch (IOException | RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} catch (Exception e) {
+			mine.completeExceptionally(e);
+			throw new IOException(e);
+		} finally {
+			inflight.remove(key, mine);
+		}
+	}
+
+	private boolean restore(Path cold, Path hot) throws IOException {
+		if (Files.isDirectory(hot)) {
+			return true;
+		}
+		Path zip = zipOf(cold);
+		boolean packed = Files.isRegularFile(zip);
+		if (!packed && !Files.isDirectory(cold)) {
+			return false;
+		}
+
+		Files.createDirectories(hot.getParent());
+		Path staging = hot.resolveSibling("." + hot.getFileName() + ".rehydrating-" + System.nanoTime());
+		try {
+			if (packed) {
+				unzipTree(zip, staging);
+			} else {
+				copyTree(cold, staging);
+			}
+			long size = sizeOf(staging);
+			Files.move(staging, hot, StandardCopyOption.ATOMIC_MOVE);
+			bytesRehydrated.increment(size);
+		} finally {
+			deleteRecursively(staging);
+		}
+
+		// Bản nóng đã sẵn sàng, bỏ bản lạnh
+		Path coldCopy = packed ? zip : cold;
+		long coldSize = sizeOf(coldCopy);
+		deleteRecursively(coldCopy);
+		addColdBytes(-coldSize);
+		return true;
+	}
+
+	private boolean await(CompletableFuture<Boolean> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException io) {
+				throw io;
+			}
+			throw e;
+		}
+	}
+
+	// Cả cây đã ở tầng lạnh (khác với thư mục chỉ chứa vài biến thể lạnh)
+	private boolean isTreeCold(Path coldTree) {
+		return Files.isRegularFile(coldTree.resolve("master.m3u8")) || Files.isRegularFile(zipOf(coldTree));
+	}
+
+	private boolean hasColdCopy(Path cold) {
+		return Files.isDirectory(cold) || Files.isRegularFile(zipOf(cold));
+	}
+
+	private Path zipOf(Path cold) {
+		return cold.resolveSibling(cold.getFileName() + ZIP);
+	}
+
+	private void addColdBytes(long delta) {
+		if (coldBytes.get() >= 0) {
+			coldBytes.addAndGet(delta);
+		}
+	}
+
+	private void copyTree(Path source, Path target) throws IOException {
+		try (Stream<Path> walk = Files.walk(source)) {
+			for (Path p : (Iterable<Path>) walk::iterator) {
+				Path dest = target.resolve(source.relativize(p).toString());
+				if (Files.isDirectory(p)) {
+					Files.createDirectories(dest);
+				} else {
+					Files.copy(p, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+				}
+			}
+		}
+	}
+
+	// Segment .ts đã nén sẵn nên dùng STORED (không nén lại), chỉ gom thành một file.
+	// Entry STORED phải ghi sẵn kích thước và CRC vào header, nên mỗi file được đọc một lần để tính CRC trước
+	private void zipTree(Path source, Path zipFile) throws IOException {
+		try (OutputStream out = Files.newOutputStream(zipFile);
+				ZipOutputStream zip = new ZipOutputStream(out);
+				Stream<Path> walk = Files.walk(source)) {
+			for (Path p : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+				ZipEntry entry = new ZipEntry(source.relativize(p).toString().replace('\\', '/'));
+				long size = Files.size(p);
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(size);
+				entry.setCompressedSize(size);
+				entry.setCrc(crcOf(p));
+				entry.setTime(Files.getLastModifiedTime(p).toMillis());
+				zip.putNextEntry(entry);
+				Files.copy(p, zip);
+				zip.closeEntry();
+			}
+		}
+	}
+
+	private static long crcOf(Path file) throws IOException {
+		CRC32 crc = new CRC32();
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private void unzipTree(Path zipFile, Path target) throws IOException {
+		Path root = target.toAbsolutePath().normalize();
+		try (InputStream in = Files.newInputStream(zipFile); ZipInputStream zip = new ZipInputStream(in)) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				Path dest = root.resolve(entry.getName()).normalize();
+				if (!dest.startsWith(root)) {
+					throw new IOException("Invalid entry in cold archive: " + entry.getName());
+				}
+				if (entry.isDirectory()) {
+					Files.createDirectories(dest);
+					continue;
+				}
+				Files.createDirectories(dest.getParent());
+				Files.copy(zip, dest, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+
+	private long sizeOf(Path path) {
+		if (!Files.exists(path)) {
+			return 0;
+		}
+		try (Stream<Path> walk = Files.walk(path)) {
+			return walk.filter(Files::isRegularFile).mapToLong(p -> {
+				try {
+					return Files.size(p);
+				} catch (IOException e) {
+					return 0;
+				}
+			}).sum();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private void deleteRecursively(Path root) throws IOException {
+		if (!Files.exists(root)) {
+			return;
+		}
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+}
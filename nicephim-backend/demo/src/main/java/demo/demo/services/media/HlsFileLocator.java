@@ -0,0 +1,87 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Tìm file trong cây HLS của một video (master.m3u8, v0/prog.m3u8, v0/seg_000.ts...).
+ * Lưu trữ cục bộ: đọc trực tiếp theo MediaLayout. Object storage: đi qua MediaReadCache.
+ */
+@Component
+public class HlsFileLocator {
+
+	private final MediaLayout mediaLayout;
+	private final MediaStorage mediaStorage;
+	private final MediaReadCache mediaReadCache;
+	private final HlsColdStore coldStore;
+	private final HlsAccessTracker accessTracker;
+
+	public HlsFileLocator(MediaLayout mediaLayout, MediaStorage mediaStorage, MediaReadCache mediaReadCache,
+			HlsColdStore coldStore, HlsAccessTracker accessTracker) {
+		this.mediaLayout = mediaLayout;
+		this.mediaStorage = mediaStorage;
+		this.mediaReadCache = mediaReadCache;
+		this.coldStore = coldStore;
+		this.accessTracker = accessTracker;
+	}
+
+	// File cục bộ để phục vụ, null nếu không tồn tại
+	public Path locate(String videoId, String relativePath) throws IOException {
+		if (!MediaLayout.isValidId(videoId) || !isSafe(relativePath)) {
+			return null;
+		}
+
+		if (mediaStorage.isLocal()) {
+			Path file = locateLocal(videoId, relativePath);
+			if (file == null) {
+				// Cây thư mục có thể vừa được migrator chuyển đi giữa hai lần kiểm tra
+				file = locateLocal(videoId, relativePath);
+			}
+			if (file == null && coldStore.isEnabled() && coldStore.rehydrate(videoId, relativePath)) {
+				// Biến thể/cây đã bị hạ xuống tầng lạnh: vừa được khôi phục
+				file = locateLocal(videoId, relativePath);
+			}
+			if (file != null && isPlaybackFile(relativePath)) {
+				accessTracker.record(videoId, mediaLayout.resolveHlsDir(videoId));
+			}
+			return file;
+		}
+
+		Path file = mediaReadCache.fetch(MediaArea.HLS, mediaLayout.shardedHlsKey(videoId) + "/" + relativePath);
+		if (file == null && !(mediaStorage instanceof OriginMediaStorage)) {
+			// Object storage có thể còn cây theo bố cục phẳng cũ; origin thì tự tìm cả hai
+			file = mediaReadCache.fetch(MediaArea.HLS, mediaLayout.legacyHlsKey(videoId) + "/" + relativePath);
+		}
+		return file;
+	}
+
+	private Path locateLocal(String videoId, String relativePath) {
+		Path videoDir = mediaLayout.resolveHlsDir(videoId);
+		Path file = videoDir.resolve(relativePath).normalize();
+		if (!file.startsWith(videoDir) || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+			return null;
+		}
+		return file;
+	}
+
+	// Playlist biến thể và segment: dấu hiệu video thực sự được xem
+	private boolean isPlaybackFile(String relativePath) {
+		return relativePath.endsWith(".ts") || relativePath.endsWith(".m4s") || relativePath.endsWith("prog.m3u8");
+	}
+
+	private boolean isSafe(String relativePath) {
+		if (relativePath == null || relativePath.isEmpty() || relativePath.startsWith("/") || relativePath.contains("\\")) {
+			return false;
+		}
+		for (String part : relativePath.split("/")) {
+			// Chặn cả file ẩn (.last-access, thư mục tạm .xxx.rehydrating-...)
+			if (part.isEmpty() || part.startsWith(".")) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,173 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+
+import demo.demo.services.video.VideoService;
+
+/**
+ * Chuyển dữ liệu từ bố cục phẳng (<root>/<videoId>) sang bố cục phân mảnh (<root>/ab/cd/<videoId>)
+ * trong khi hệ thống vẫn chạy. Mỗi cây thư mục được đổi tên nguyên tử (rename) nên luôn chỉ tồn tại
+ * ở đúng một vị trí; HlsResourceResolver đọc được cả hai vị trí nên không có downtime.
+ */
+@Service
+public class HlsLayoutMigrator {
+
+	private final MediaLayout mediaLayout;
+	private final VideoService videoService;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicLong moved = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private volatile long startedAt;
+	private volatile long finishedAt;
+	private volatile String lastError;
+
+	public HlsLayoutMigrator(MediaLayout mediaLayout, VideoService videoService) {
+		this.mediaLayout = mediaLayout;
+		this.videoService = videoService;
+	}
+
+	// Bắt đầu migration ở luồng nền, trả về false nếu đang chạy
+	public boolean start() {
+		if (!running.compareAndSet(false, true)) {
+			return false;
+		}
+		moved.set(0);
+		skipped.set(0);
+		failed.set(0);
+		lastError = null;
+		startedAt = System.currentTimeMillis();
+		finishedAt = 0;
+
+		new Thread(() -> {
+			try {
+				migrateHlsTrees();
+				migrateUploads();
+				System.out.println("📦 Layout migration finished: moved=" + moved.get() + ", skipped=" + skipped.get() + ", failed=" + failed.get());
+			} catch (Exception e) {
+				lastError = String.valueOf(e);
+				System.err.println("❌ Layout migration aborted: " + e.getMessage());
+			} finally {
+				finishedAt = System.currentTimeMillis();
+				running.set(false);
+			}
+		}, "hls-layout-migrator").start();
+		return true;
+	}
+
+	public Map<String, Object> getStatus() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("running", running.get());
+		status.put("sharded", mediaLayout.isSharded());
+		status.put("moved", moved.get());
+		status.put("skipped", skipped.get());
+		status.put("failed", failed.get());
+		status.put("startedAt", startedAt);
+		status.put("finishedAt", finishedAt);
+		status.put("lastError", lastError);
+		return status;
+	}
+
+	// Chuyển từng thư mục <hls>/<videoId> sang <hls>/ab/cd/<videoId>
+	private void migrateHlsTrees() throws IOException {
+		Path root = mediaLayout.getHlsRoot();
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, Files::isDirectory)) {
+			for (Path dir : entries) {
+				String videoId = dir.getFileName().toString();
+				// Bỏ qua thư mục phân mảnh (2 ký tự) và tên không hợp lệ
+				if (!MediaLayout.isValidId(videoId)) {
+					continue;
+				}
+				// Không di chuyển video đang được FFmpeg ghi
+				if (videoService.getStatus(videoId) == VideoService.Status.PROCESSING) {
+					skipped.incrementAndGet();
+					continue;
+				}
+				move(dir, mediaLayout.shardedHlsDir(videoId));
+			}
+		}
+	}
+
+	// Chuyển file gốc <upload>/<videoId>.<ext> sang <upload>/ab/cd/<videoId>.<ext>
+	private void migrateUploads() throws IOException {
+		Path root = mediaLayout.getUploadRoot();
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, Files::isRegularFile)) {
+			for (Path file : entries) {
+				String filename = file.getFileName().toString();
+				String stem = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
+				if (!MediaLayout.isValidId(stem)) {
+					continue;
+				}
+				move(file, root.resolve(MediaLayout.shardPrefix(stem)).resolve(filename));
+			}
+		}
+	}
+
+	private void move(Path source, Path target) {
+		try {
+			if (Files.exists(target)) {
+				System.err.println("⚠️ Layout migration: target already exists, skipping " + source);
+				skipped.incrementAndGet();
+				return;
+			}
+			Files.createDirectories(target.getParent());
+			try {
+				Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				copyThenSwap(source, target);
+			}
+			moved.incrementAndGet();
+		} catch (Exception e) {
+			failed.incrementAndGet();
+			lastError = source + ": " + e.getMessage();
+			System.err.println("❌ Layout migration failed for " + source + ": " + e.getMessage());
+		}
+	}
+
+	// Khác ổ đĩa: sao chép sang thư mục tạm, đổi tên vào vị trí đích rồi mới xóa bản cũ
+	private void copyThenSwap(Path source, Path target) throws IOException {
+		Path staging = target.resolveSibling(target.getFileName() + ".migrating");
+		try (Stream<Path> walk = Files.walk(source)) {
+			for (Path p : (Iterable<Path>) walk::iterator) {
+				Path dest = staging.resolve(source.relativize(p).toString());
+				if (Files.isDirectory(p)) {
+					Files.createDirectories(dest);
+				} else {
+					Files.copy(p, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+				}
+			}
+		}
+		Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+		deleteTree(source);
+	}
+
+	private void deleteTree(Path root) throws IOException {
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache bộ nhớ (LRU theo byte) cho playlist/segment HLS nóng, đặt trước cache đĩa.
+ * Chủ yếu dùng trên node edge (media.hls.memory-cache-bytes > 0); mặc định tắt vì node origin
+ * đã có page cache của hệ điều hành.
+ */
+@Component
+public class HlsMemoryCache {
+
+	private final long maxBytes;
+	private final long maxEntryBytes;
+
+	// requestPath "videoId/v0/seg_000.ts" -> nội dung, thứ tự truy cập để loại LRU
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+	private long currentBytes;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private record Entry(byte[] data, String filename, long lastModified) {}
+
+	public HlsMemoryCache(MeterRegistry meterRegistry,
+			@Value("${media.hls.memory-cache-bytes:0}") long maxBytes,
+			@Value("${media.hls.memory-cache-max-entry:4194304}") long maxEntryBytes) {
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = maxEntryBytes;
+
+		Gauge.builder("media.hls.memory.cache.bytes", this, HlsMemoryCache::getCurrentBytes)
+			.baseUnit("bytes")
+			.register(meterRegistry);
+		Gauge.builder("media.hls.memory.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+		Gauge.builder("media.hls.memory.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	// Trả về bản trong bộ nhớ của file (nạp từ đĩa nếu chưa có); file quá lớn thì phục vụ thẳng từ đĩa
+	public Resource get(String key, Path file, Resource fallback) throws IOException {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		if (entry != null) {
+			hits.incrementAndGet();
+			return toResource(entry);
+		}
+
+		misses.incrementAndGet();
+		long size = Files.size(file);
+		if (size > maxEntryBytes || size > maxBytes) {
+			return fallback;
+		}
+		entry = new Entry(Files.readAllBytes(file), file.getFileName().toString(), Files.getLastModifiedTime(file).toMillis());
+		put(key, entry);
+		return toResource(entry);
+	}
+
+	public synchronized void evictVideo(String videoId) {
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Entry> e = it.next();
+			if (e.getKey().startsWith(videoId + "/")) {
+				currentBytes -= e.getValue().data().length;
+				it.remove();
+			}
+		}
+	}
+
+	public synchronized long getCurrentBytes() {
+		return currentBytes;
+	}
+
+	private synchronized void put(String key, Entry entry) {
+		Entry previous = entries.put(key, entry);
+		if (previous != null) {
+			currentBytes -= previous.data().length;
+		}
+		currentBytes += entry.data().length;
+
+		// Loại các mục ít dùng nhất cho tới khi vừa ngân sách
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (currentBytes > maxBytes && it.hasNext()) {
+			Map.Entry<String, Entry> eldest = it.next();
+			currentBytes -= eldest.getValue().data().length;
+			it.remove();
+		}
+	}
+
+	// Resource có tên file và thời gian sửa đổi để ResourceHttpRequestHandler suy ra Content-Type/Last-Modified
+	private Resource toResource(Entry entry) {
+		return new ByteArrayResource(entry.data()) {
+			@Override
+			public String getFilename() {
+				return entry.filename();
+			}
+
+			@Override
+			public long lastModified() {
+				return entry.lastModified();
+			}
+		};
+	}
+}
@@ -0,0 +1,217 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import demo.demo.services.video.HlsPlaylistService;
+import demo.demo.services.video.VideoService;
+
+/**
+ * Job phân tầng nóng/lạnh cho HLS. Video không được xem trong media.tiering.cold-after-days ngày
+ * (theo HlsAccessTracker) bị hạ xuống tầng lạnh:
+ *  - mode=rungs: hạ các biến thể cao, giữ master.m3u8 và biến thể thấp nhất để phát được ngay;
+ *  - mode=tree: hạ cả cây.
+ * Phần bị hạ được HlsFileLocator khôi phục trong suốt ở lần truy cập đầu tiên.
+ * Chỉ áp dụng cho lưu trữ cục bộ; object storage dùng lifecycle/storage class của nhà cung cấp.
+ */
+@Service
+public class HlsTieringService {
+
+	public enum Mode { RUNGS, TREE }
+
+	private final MediaLayout mediaLayout;
+	private final MediaStorage mediaStorage;
+	private final HlsColdStore coldStore;
+	private final HlsAccessTracker accessTracker;
+	private final HlsPlaylistService hlsPlaylistService;
+	private final VideoService videoService;
+
+	// Bật job định kỳ (chạy tay qua API vẫn được khi có cold-dir)
+	@Value("${media.tiering.enabled:false}")
+	private boolean enabled;
+
+	// Số ngày không có lượt xem để coi là "lạnh"
+	@Value("${media.tiering.cold-after-days:30}")
+	private int coldAfterDays;
+
+	@Value("${media.tiering.mode:rungs}")
+	private String mode;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicLong scanned = new AtomicLong();
+	private final AtomicLong demoted = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong lastRunBytesFreed = new AtomicLong();
+	private volatile long startedAt;
+	private volatile long finishedAt;
+	private volatile String lastError;
+
+	public HlsTieringService(MediaLayout mediaLayout, MediaStorage mediaStorage, HlsColdStore coldStore,
+			HlsAccessTracker accessTracker, HlsPlaylistService hlsPlaylistService, VideoService videoService) {
+		this.mediaLayout = mediaLayout;
+		this.mediaStorage = mediaStorage;
+		this.coldStore = coldStore;
+		this.accessTracker = accessTracker;
+		this.hlsPlaylistService = hlsPlaylistService;
+		this.videoService = videoService;
+	}
+
+	@Scheduled(cron = "${media.tiering.cron:0 30 3 * * *}")
+	public void scheduledRun() {
+		if (enabled) {
+			start();
+		}
+	}
+
+	// Bắt đầu một lượt phân tầng ở luồng nền, trả về false nếu đang chạy hoặc không áp dụng được
+	public boolean start() {
+		if (!coldStore.isEnabled() || !mediaStorage.isLocal()) {
+			return false;
+		}
+		if (!running.compareAndSet(false, true)) {
+			return false;
+		}
+		scanned.set(0);
+		demoted.set(0);
+		failed.set(0);
+		lastRunBytesFreed.set(0);
+		lastError = null;
+		startedAt = System.currentTimeMillis();
+		finishedAt = 0;
+
+		new Thread(() -> {
+			try {
+				runOnce();
+				System.out.println("🧊 HLS tiering finished: scanned=" + scanned.get() + ", demoted=" + demoted.get()
+					+ ", freed=" + lastRunBytesFreed.get() + " bytes, failed=" + failed.get());
+			} catch (Exception e) {
+				lastError = String.valueOf(e);
+				System.err.println("❌ HLS tiering aborted: " + e.getMessage());
+			} finally {
+				finishedAt = System.currentTimeMillis();
+				running.set(false);
+			}
+		}, "hls-tiering").start();
+		return true;
+	}
+
+	public Map<String, Object> getStatus() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", enabled);
+		status.put("available", coldStore.isEnabled() && mediaStorage.isLocal());
+		status.put("mode", getMode().name().toLowerCase());
+		status.put("coldAfterDays", coldAfterDays);
+		status.put("running", running.get());
+		status.put("scanned", scanned.get());
+		status.put("demoted", demoted.get());
+		status.put("failed", failed.get());
+		status.put("lastRunBytesFreed", lastRunBytesFreed.get());
+		status.put("totalBytesFreed", (long) coldStore.getBytesFreed());
+		status.put("coldBytes", coldStore.getColdBytes());
+		status.put("rehydrations", coldStore.getRehydrations());
+		status.put("meanRehydrationMillis", coldStore.getMeanRehydrationMillis());
+		status.put("startedAt", startedAt);
+		status.put("finishedAt", finishedAt);
+		status.put("lastError", lastError);
+		return status;
+	}
+
+	// Khôi phục toàn bộ video về tầng nóng (ví dụ trước khi phim được đưa lên trang chủ)
+	public boolean rehydrateAll(String videoId) throws IOException {
+		if (!MediaLayout.isValidId(videoId) || !coldStore.hasColdData(videoId)) {
+			return false;
+		}
+		boolean restored = coldStore.rehydrate(videoId, "master.m3u8");
+		for (HlsPlaylistService.Rendition r : hlsPlaylistService.getRenditions(videoId)) {
+			String rung = rungOf(r.uri());
+			if (rung != null) {
+				restored |= coldStore.rehydrate(videoId, rung + "/prog.m3u8");
+			}
+		}
+		return restored;
+	}
+
+	private void runOnce() throws IOException {
+		long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(coldAfterDays);
+		for (Path videoDir : listVideoDirs()) {
+			String videoId = videoDir.getFileName().toString();
+			scanned.incrementAndGet();
+			// Không đụng tới video đang được FFmpeg ghi
+			if (videoService.getStatus(videoId) == VideoService.Status.PROCESSING) {
+				continue;
+			}
+			if (accessTracker.getLastAccess(videoId, videoDir) >= cutoff) {
+				continue;
+			}
+			try {
+				long freed = getMode() == Mode.TREE ? coldStore.demoteTree(videoId, videoDir) : demoteHighRungs(videoId, videoDir);
+				if (freed > 0) {
+					demoted.incrementAndGet();
+					lastRunBytesFreed.addAndGet(freed);
+				}
+			} catch (Exception e) {
+				failed.incrementAndGet();
+				lastError = videoId + ": " + e.getMessage();
+				System.err.println("❌ HLS tiering failed for " + videoId + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// Hạ mọi biến thể trừ biến thể thấp nhất (renditions đã sắp theo chiều cao giảm dần)
+	private long demoteHighRungs(String videoId, Path videoDir) throws IOException {
+		List<HlsPlaylistService.Rendition> renditions = hlsPlaylistService.getRenditions(videoId);
+		long freed = 0;
+		for (int i = 0; i < renditions.size() - 1; i++) {
+			String rung = rungOf(renditions.get(i).uri());
+			if (rung != null) {
+				freed += coldStore.demoteRung(videoId, videoDir, rung);
+			}
+		}
+		return freed;
+	}
+
+	// "v0/prog.m3u8" -> "v0"
+	private String rungOf(String uri) {
+		int slash = uri.indexOf('/');
+		if (slash <= 0 || uri.startsWith("http")) {
+			return null;
+		}
+		String rung = uri.substring(0, slash);
+		return rung.equals("..") || rung.equals(".") ? null : rung;
+	}
+
+	// Thư mục HLS có master.m3u8, ở cả bố cục phẳng (<root>/<id>) và phân mảnh (<root>/ab/cd/<id>)
+	private List<Path> listVideoDirs() throws IOException {
+		Path root = mediaLayout.getHlsRoot();
+		List<Path> dirs = new ArrayList<>();
+		if (!Files.isDirectory(root)) {
+			return dirs;
+		}
+		try (Stream<Path> walk = Files.walk(root, 4)) {
+			walk.filter(p -> p.getFileName().toString().equals("master.m3u8"))
+				.map(Path::getParent)
+				.filter(dir -> MediaLayout.isValidId(dir.getFileName().toString()))
+				.sorted(Comparator.naturalOrder())
+				.forEach(dirs::add);
+		}
+		return dirs;
+	}
+
+	private Mode getMode() {
+		return "tree".equalsIgnoreCase(mode) ? Mode.TREE : Mode.RUNGS;
+	}
+}
@@ -0,0 +1,144 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lưu trữ trên đĩa cục bộ: mỗi vùng là một thư mục media.*.dir như trước đây.
+ */
+@Component
+@Profile("!edge")
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalMediaStorage implements MediaStorage {
+
+	@Value("${media.upload.dir}")
+	private String uploadDir;
+
+	@Value("${media.hls.dir}")
+	private String hlsDir;
+
+	@Value("${media.poster.dir}")
+	private String posterDir;
+
+	@Value("${media.banner.dir}")
+	private String bannerDir;
+
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
+
+	@Override
+	public Path localPath(MediaArea area, String key) {
+		Path root = rootOf(area);
+		Path path = root.resolve(key).normalize();
+		if (!path.startsWith(root)) {
+			throw new IllegalArgumentException("Invalid media key: " + key);
+		}
+		return path;
+	}
+
+	@Override
+	public boolean exists(MediaArea area, String key) {
+		return Files.exists(localPath(area, key));
+	}
+
+	@Override
+	public long size(MediaArea area, String key) throws IOException {
+		Path path = localPath(area, key);
+		return Files.isRegularFile(path) ? Files.size(path) : -1;
+	}
+
+	@Override
+	public InputStream open(MediaArea area, String key) throws IOException {
+		Path path = localPath(area, key);
+		if (!Files.isRegularFile(path)) {
+			throw new NoSuchFileException(path.toString());
+		}
+		return Files.newInputStream(path);
+	}
+
+	@Override
+	public void put(MediaArea area, String key, InputStream in, long length, String contentType) throws IOException {
+		Path target = localPath(area, key);
+		Files.createDirectories(target.getParent());
+		Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void putFile(MediaArea area, String key, Path file) throws IOException {
+		Path target = localPath(area, key);
+		if (target.equals(file.toAbsolutePath().normalize())) {
+			return;
+		}
+		Files.createDirectories(target.getParent());
+		Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void putTree(MediaArea area, String keyPrefix, Path localDir) throws IOException {
+		Path target = localPath(area, keyPrefix);
+		if (target.equals(localDir.toAbsolutePath().normalize())) {
+			// FFmpeg đã ghi thẳng vào vị trí đích
+			return;
+		}
+		try (Stream<Path> walk = Files.walk(localDir)) {
+			for (Path p : (Iterable<Path>) walk::iterator) {
+				Path dest = target.resolve(localDir.relativize(p).toString());
+				if (Files.isDirectory(p)) {
+					Files.createDirectories(dest);
+				} else {
+					Files.copy(p, dest, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean delete(MediaArea area, String key) throws IOException {
+		return Files.deleteIfExists(localPath(area, key));
+	}
+
+	@Override
+	public long deleteTree(MediaArea area, String keyPrefix) throws IOException {
+		Path root = localPath(area, keyPrefix);
+		if (!Files.exists(root)) {
+			return 0;
+		}
+		long freed = 0;
+		List<Path> paths;
+		try (Stream<Path> walk = Files.walk(root)) {
+			paths = walk.sorted(Comparator.reverseOrder()).toList();
+		}
+		for (Path p : paths) {
+			if (Files.isRegularFile(p)) {
+				freed += Files.size(p);
+			}
+			Files.deleteIfExists(p);
+		}
+		return freed;
+	}
+
+	private Path rootOf(MediaArea area) {
+		String dir = switch (area) {
+			case UPLOAD -> uploadDir;
+			case HLS -> hlsDir;
+			case POSTER -> posterDir;
+			case BANNER -> bannerDir;
+		};
+		return Paths.get(dir).toAbsolutePath().normalize();
+	}
+}
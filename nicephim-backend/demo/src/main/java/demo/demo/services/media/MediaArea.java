@@ -0,0 +1,22 @@
+package demo.demo.services.media;
+
+/**
+ * Vùng lưu trữ media. Với lưu trữ cục bộ mỗi vùng là một thư mục cấu hình sẵn,
+ * với object storage mỗi vùng là một tiền tố key trong bucket.
+ */
+public enum MediaArea {
+	UPLOAD("uploads"),
+	HLS("hls"),
+	POSTER("posters"),
+	BANNER("banners");
+
+	private final String prefix;
+
+	MediaArea(String prefix) {
+		this.prefix = prefix;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+}
@@ -0,0 +1,131 @@
+package demo.demo.services.media;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bố cục thư mục media dạng phân mảnh (fan-out): <root>/ab/cd/<videoId>/ thay vì <root>/<videoId>/.
+ * Hai ký tự hex đầu và tiếp theo của id làm thư mục cấp 1 và 2 để mỗi thư mục chỉ chứa vài trăm mục.
+ * Đường dẫn cũ (phẳng) vẫn được đọc cho tới khi HlsLayoutMigrator chuyển xong.
+ */
+@Component
+public class MediaLayout {
+
+	private static final Pattern MEDIA_ID = Pattern.compile("[A-Za-z0-9-]{4,64}");
+
+	// Số ký tự dùng cho hai cấp thư mục phân mảnh
+	private static final int SHARD_CHARS = 4;
+
+	// Thư mục lưu file video gốc
+	@Value("${media.upload.dir}")
+	private String uploadDir;
+
+	// Thư mục đầu ra HLS
+	@Value("${media.hls.dir}")
+	private String hlsDir;
+
+	// Bật bố cục phân mảnh cho dữ liệu ghi mới
+	@Value("${media.layout.sharded:true}")
+	private boolean sharded;
+
+	public Path getUploadRoot() {
+		return Paths.get(uploadDir);
+	}
+
+	public Path getHlsRoot() {
+		return Paths.get(hlsDir);
+	}
+
+	public boolean isSharded() {
+		return sharded;
+	}
+
+	// id hợp lệ (UUID hoặc tương tự), dùng để chặn path traversal.
+	// Cần ít nhất 4 ký tự chữ/số sau khi bỏ dấu "-" để tạo được tiền tố phân mảnh
+	public static boolean isValidId(String id) {
+		return id != null && MEDIA_ID.matcher(id).matches() && id.replace("-", "").length() >= SHARD_CHARS;
+	}
+
+	// "02b00758-77b0-..." -> "02/b0"; id quá ngắn được đệm "0" thay vì ném lỗi
+	public static String shardPrefix(String id) {
+		StringBuilder hex = new StringBuilder(id.replace("-", "").toLowerCase(Locale.ROOT));
+		while (hex.length() < SHARD_CHARS) {
+			hex.append('0');
+		}
+		return hex.substring(0, 2) + "/" + hex.substring(2, SHARD_CHARS);
+	}
+
+	// Thư mục HLS để ghi mới theo bố cục hiện hành
+	public Path hlsDirFor(String videoId) {
+		return sharded ? shardedHlsDir(videoId) : legacyHlsDir(videoId);
+	}
+
+	// Thư mục HLS để đọc: ưu tiên bản phân mảnh, rồi bản phẳng cũ
+	public Path resolveHlsDir(String videoId) {
+		Path shardedDir = shardedHlsDir(videoId);
+		if (Files.isDirectory(shardedDir)) {
+			return shardedDir;
+		}
+		Path legacyDir = legacyHlsDir(videoId);
+		if (Files.isDirectory(legacyDir)) {
+			return legacyDir;
+		}
+		// Có thể vừa được migrator chuyển đi giữa hai lần kiểm tra
+		return Files.isDirectory(shardedDir) ? shardedDir : hlsDirFor(videoId);
+	}
+
+	public Path shardedHlsDir(String videoId) {
+		return getHlsRoot().resolve(shardPrefix(videoId)).resolve(videoId);
+	}
+
+	public Path legacyHlsDir(String videoId) {
+		return getHlsRoot().resolve(videoId);
+	}
+
+	// Key trong vùng HLS (dùng cho MediaStorage), cùng cấu trúc với đường dẫn cục bộ
+	public String hlsKeyFor(String videoId) {
+		return sharded ? shardedHlsKey(videoId) : legacyHlsKey(videoId);
+	}
+
+	public String shardedHlsKey(String videoId) {
+		return shardPrefix(videoId) + "/" + videoId;
+	}
+
+	public String legacyHlsKey(String videoId) {
+		return videoId;
+	}
+
+	// Key trong vùng UPLOAD cho file gốc <videoId><ext>
+	public String uploadKeyFor(String filename) {
+		String stem = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
+		return sharded && isValidId(stem) ? shardPrefix(stem) + "/" + filename : filename;
+	}
+
+	// File video gốc để ghi mới: <upload>/ab/cd/<videoId><ext>
+	public Path uploadPathFor(String videoId, String extension) {
+		String filename = videoId + extension;
+		return sharded ? getUploadRoot().resolve(shardPrefix(videoId)).resolve(filename) : getUploadRoot().resolve(filename);
+	}
+
+	// File video gốc để đọc theo tên file (bản phẳng hoặc phân mảnh)
+	public Path resolveUpload(String filename) {
+		Path legacy = getUploadRoot().resolve(filename);
+		if (Files.exists(legacy)) {
+			return legacy;
+		}
+		String stem = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
+		if (isValidId(stem)) {
+			Path shardedPath = getUploadRoot().resolve(shardPrefix(stem)).resolve(filename);
+			if (Files.exists(shardedPath)) {
+				return shardedPath;
+			}
+		}
+		return legacy;
+	}
+}
@@ -0,0 +1,233 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache đọc xuyên (read-through) trên đĩa cục bộ cho media nằm trên object storage.
+ * Lần đầu đọc một key sẽ tải dạng luồng về file tạm rồi đổi tên nguyên tử vào cache;
+ * nhiều request đồng thời cho cùng key chỉ tạo một lần tải. Vượt dung lượng thì xóa file ít dùng nhất.
+ */
+@Component
+public class MediaReadCache {
+
+	private final MediaStorage mediaStorage;
+	private final Path cacheRoot;
+	private final long maxBytes;
+
+	// Các lần tải đang chạy: "area/key" -> kết quả (null nếu không tồn tại)
+	private final Map<String, CompletableFuture<Path>> inflight = new ConcurrentHashMap<>();
+
+	// Key vừa không tồn tại: "area/key" -> hết hạn lúc (ms), tránh dội request lặp lại xuống storage/origin
+	private final Map<String, Long> recentMisses = new ConcurrentHashMap<>();
+	private final long negativeTtlMs;
+
+	// Lần truy cập gần nhất của mỗi file (ms), giữ trong bộ nhớ để không ghi đè mtime của file đang phục vụ.
+	// File có từ trước khi khởi động lại chưa có mục ở đây thì dùng mtime lúc tải về
+	private final Map<Path, Long> lastAccess = new ConcurrentHashMap<>();
+
+	private final AtomicLong cachedBytes = new AtomicLong(-1);
+	private final AtomicBoolean evicting = new AtomicBoolean(false);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public MediaReadCache(MediaStorage mediaStorage,
+			@Value("${media.cache.dir:${java.io.tmpdir}/nicephim-media-cache}") String cacheDir,
+			@Value("${media.cache.max-bytes:10737418240}") long maxBytes,
+			@Value("${media.cache.negative-ttl-ms:5000}") long negativeTtlMs) {
+		this.mediaStorage = mediaStorage;
+		this.cacheRoot = Paths.get(cacheDir).toAbsolutePath().normalize();
+		this.maxBytes = maxBytes;
+		this.negativeTtlMs = negativeTtlMs;
+	}
+
+	// Trả về file cục bộ của key (tải về nếu chưa có), null nếu key không tồn tại trên storage
+	public Path fetch(MediaArea area, String key) throws IOException {
+		Path target = cacheRoot.resolve(area.getPrefix()).resolve(key).normalize();
+		if (!target.startsWith(cacheRoot.resolve(area.getPrefix()))) {
+			return null;
+		}
+
+		if (Files.isRegularFile(target)) {
+			hits.incrementAndGet();
+			touch(target);
+			return target;
+		}
+
+		String cacheKey = area.getPrefix() + "/" + key;
+		Long missUntil = recentMisses.get(cacheKey);
+		if (missUntil != null) {
+			if (missUntil > System.currentTimeMillis()) {
+				return null;
+			}
+			recentMisses.remove(cacheKey, missUntil);
+		}
+
+		CompletableFuture<Path> mine = new CompletableFuture<>();
+		CompletableFuture<Path> existing = inflight.putIfAbsent(cacheKey, mine);
+		if (existing != null) {
+			return await(existing);
+		}
+
+		try {
+			misses.incrementAndGet();
+			Path downloaded = download(area, key, target);
+			if (downloaded == null && negativeTtlMs > 0) {
+				rememberMiss(cacheKey);
+			}
+			mine.complete(downloaded);
+			return downloaded;
+		} catch (IOException | RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inflight.remove(cacheKey, mine);
+		}
+	}
+
+	// Xóa bản cache của một cây (khi media bị xóa hoặc thay thế)
+	public void evictTree(MediaArea area, String keyPrefix) throws IOException {
+		Path root = cacheRoot.resolve(area.getPrefix()).resolve(keyPrefix).normalize();
+		if (!root.startsWith(cacheRoot) || !Files.exists(root)) {
+			return;
+		}
+		List<Path> paths;
+		try (Stream<Path> walk = Files.walk(root)) {
+			paths = walk.sorted(Comparator.reverseOrder()).toList();
+		}
+		for (Path p : paths) {
+			Files.deleteIfExists(p);
+			lastAccess.remove(p);
+		}
+		cachedBytes.set(-1);
+	}
+
+	private void rememberMiss(String cacheKey) {
+		// Giới hạn kích thước khi bị quét nhiều key không tồn tại
+		if (recentMisses.size() > 100_000) {
+			recentMisses.clear();
+		}
+		recentMisses.put(cacheKey, System.currentTimeMillis() + negativeTtlMs);
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private Path download(MediaArea area, String key, Path target) throws IOException {
+		Files.createDirectories(target.getParent());
+		Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+		try (InputStream in = mediaStorage.open(area, key)) {
+			long bytes = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			touch(target);
+			addBytes(bytes);
+			return target;
+		} catch (NoSuchFileException e) {
+			return null;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private Path await(CompletableFuture<Path> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException io) {
+				throw io;
+			}
+			throw e;
+		}
+	}
+
+	// Cập nhật thời gian truy cập để eviction theo LRU
+	private void touch(Path file) {
+		lastAccess.put(file, System.currentTimeMillis());
+	}
+
+	private void addBytes(long bytes) {
+		if (cachedBytes.get() < 0) {
+			cachedBytes.set(scanSize());
+		} else {
+			cachedBytes.addAndGet(bytes);
+		}
+		if (cachedBytes.get() > maxBytes && evicting.compareAndSet(false, true)) {
+			CompletableFuture.runAsync(this::evict).whenComplete((r, e) -> evicting.set(false));
+		}
+	}
+
+	// Xóa file ít được dùng nhất cho tới khi còn 90% dung lượng cho phép
+	private void evict() {
+		try (Stream<Path> walk = Files.walk(cacheRoot)) {
+			List<Path> files = walk.filter(Files::isRegularFile)
+				.filter(p -> !p.getFileName().toString().endsWith(".part"))
+				.sorted(Comparator.comparingLong(this::lastUsed))
+				.toList();
+			long total = cachedBytes.get();
+			long target = (long) (maxBytes * 0.9);
+			for (Path file : files) {
+				if (total <= target) break;
+				long size = Files.size(file);
+				Files.deleteIfExists(file);
+				lastAccess.remove(file);
+				total -= size;
+			}
+			cachedBytes.set(total);
+		} catch (IOException | UncheckedIOException e) {
+			System.err.println("⚠️ Media cache eviction failed: " + e.getMessage());
+			cachedBytes.set(-1);
+		}
+	}
+
+	private long scanSize() {
+		if (!Files.isDirectory(cacheRoot)) {
+			return 0;
+		}
+		try (Stream<Path> walk = Files.walk(cacheRoot)) {
+			return walk.filter(Files::isRegularFile).mapToLong(p -> {
+				try {
+					return Files.size(p);
+				} catch (IOException e) {
+					return 0;
+				}
+			}).sum();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private long lastUsed(Path file) {
+		Long accessed = lastAccess.get(file);
+		if (accessed != null) {
+			return accessed;
+		}
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Lưu trữ media (video gốc, cây HLS, poster, banner) độc lập với nơi lưu thực tế.
+ * Key là đường dẫn tương đối dùng dấu '/' (ví dụ "02/b0/<videoId>/v0/seg_000.ts").
+ */
+public interface MediaStorage {
+
+	// true nếu dữ liệu nằm trên đĩa cục bộ và có thể phục vụ trực tiếp
+	boolean isLocal();
+
+	// true nếu node không được ghi/xóa media (node edge đọc qua origin)
+	default boolean isReadOnly() {
+		return false;
+	}
+
+	// Đường dẫn cục bộ của key (chỉ với lưu trữ cục bộ, ngược lại trả về null)
+	Path localPath(MediaArea area, String key);
+
+	boolean exists(MediaArea area, String key) throws IOException;
+
+	// Kích thước (byte), -1 nếu không tồn tại
+	long size(MediaArea area, String key) throws IOException;
+
+	// Đọc dạng luồng, không đệm toàn bộ file. Ném NoSuchFileException nếu không tồn tại
+	InputStream open(MediaArea area, String key) throws IOException;
+
+	void put(MediaArea area, String key, InputStream in, long length, String contentType) throws IOException;
+
+	void putFile(MediaArea area, String key, Path file) throws IOException;
+
+	// Đưa cả cây thư mục lên dưới keyPrefix (song song nếu backend hỗ trợ)
+	void putTree(MediaArea area, String keyPrefix, Path localDir) throws IOException;
+
+	boolean delete(MediaArea area, String key) throws IOException;
+
+	// Xóa mọi key dưới keyPrefix, trả về số byte đã giải phóng
+	long deleteTree(MediaArea area, String keyPrefix) throws IOException;
+
+	// Content-Type theo phần mở rộng của key
+	static String contentTypeOf(String key) {
+		String lower = key.toLowerCase();
+		if (lower.endsWith(".m3u8")) return "application/vnd.apple.mpegurl";
+		if (lower.endsWith(".ts")) return "video/mp2t";
+		if (lower.endsWith(".m4s")) return "video/iso.segment";
+		if (lower.endsWith(".mp4")) return "video/mp4";
+		if (lower.endsWith(".png")) return "image/png";
+		if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+		if (lower.endsWith(".webp")) return "image/webp";
+		if (lower.endsWith(".gif")) return "image/gif";
+		return "application/octet-stream";
+	}
+}
@@ -0,0 +1,154 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lưu trữ chỉ-đọc cho node edge (profile "edge"): mọi media được lấy qua HTTP từ node origin
+ * (một instance khác của ứng dụng này). Kết hợp với MediaReadCache/HlsMemoryCache để mỗi segment
+ * chỉ được kéo về từ origin một lần, nhờ đó lưu lượng phát video mở rộng theo số node edge.
+ *
+ * Key HLS "ab/cd/<videoId>/v0/seg_000.ts" -> <origin>/videos/<videoId>/v0/seg_000.ts,
+ * poster/banner "<file>" -> <origin>/<file> (origin phục vụ qua static-locations).
+ */
+@Component
+@Profile("edge")
+public class OriginMediaStorage implements MediaStorage {
+
+	private final URI origin;
+	private final Duration timeout;
+	private final HttpClient http;
+
+	public OriginMediaStorage(
+			@Value("${media.edge.origin-url}") String originUrl,
+			@Value("${media.edge.timeout-ms:10000}") long timeoutMs) {
+		this.origin = URI.create(originUrl.endsWith("/") ? originUrl.substring(0, originUrl.length() - 1) : originUrl);
+		this.timeout = Duration.ofMillis(timeoutMs);
+		this.http = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.build();
+		System.out.println("🌐 Edge mode: media is proxied from origin " + this.origin);
+	}
+
+	@Override
+	public boolean isLocal() {
+		return false;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public Path localPath(MediaArea area, String key) {
+		return null;
+	}
+
+	@Override
+	public boolean exists(MediaArea area, String key) throws IOException {
+		return size(area, key) >= 0;
+	}
+
+	@Override
+	public long size(MediaArea area, String key) throws IOException {
+		HttpResponse<Void> response = send(request(area, key).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+			HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() == 404) {
+			return -1;
+		}
+		ensureSuccess(response.statusCode(), key);
+		return response.headers().firstValueAsLong("Content-Length").orElse(0);
+	}
+
+	@Override
+	public InputStream open(MediaArea area, String key) throws IOException {
+		HttpResponse<InputStream> response = send(request(area, key).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+		if (response.statusCode() == 404) {
+			response.body().close();
+			throw new NoSuchFileException(key);
+		}
+		if (response.statusCode() / 100 != 2) {
+			response.body().close();
+			ensureSuccess(response.statusCode(), key);
+		}
+		return response.body();
+	}
+
+	@Override
+	public void put(MediaArea area, String key, InputStream in, long length, String contentType) {
+		throw readOnly();
+	}
+
+	@Override
+	public void putFile(MediaArea area, String key, Path file) {
+		throw readOnly();
+	}
+
+	@Override
+	public void putTree(MediaArea area, String keyPrefix, Path localDir) {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean delete(MediaArea area, String key) {
+		throw readOnly();
+	}
+
+	@Override
+	public long deleteTree(MediaArea area, String keyPrefix) {
+		throw readOnly();
+	}
+
+	private HttpRequest.Builder request(MediaArea area, String key) {
+		return HttpRequest.newBuilder(URI.create(origin + pathFor(area, key)))
+			.timeout(timeout)
+			.header("X-NicePhim-Edge", "1");
+	}
+
+	// Đường dẫn công khai trên origin của một key
+	private String pathFor(MediaArea area, String key) {
+		switch (area) {
+			case HLS:
+				// Key luôn theo bố cục phân mảnh "ab/cd/<videoId>/...": origin tự tìm theo bố cục của nó
+				String[] parts = key.split("/", 3);
+				return "/videos/" + (parts.length == 3 ? parts[2] : key);
+			case POSTER:
+			case BANNER:
+				return "/" + key;
+			default:
+				throw new UnsupportedOperationException("Node edge không phục vụ vùng " + area);
+		}
+	}
+
+	private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+		try {
+			return http.send(request, handler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while calling origin", e);
+		}
+	}
+
+	private void ensureSuccess(int status, String key) throws IOException {
+		if (status / 100 != 2) {
+			throw new IOException("Origin returned HTTP " + status + " for " + key);
+		}
+	}
+
+	private UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("Node edge chỉ đọc, hãy ghi media trên node origin");
+	}
+}
@@ -0,0 +1,489 @@
+package demo.demo.services.media;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.video.HlsPlaylistService;
+import demo.demo.services.video.VideoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Dọn media mồ côi (mark-and-sweep) trên đĩa cục bộ: file gốc, cây HLS, bản lạnh, poster, banner
+ * đặt tên theo UUID mà không dòng nào trong dbo.movies (kể cả phim đã xóa mềm) còn tham chiếu.
+ *  - mark: nạp mọi video_id / poster_url / banner_url thành tập UUID gọn;
+ *  - sweep: duyệt thư mục bằng Files.walk với giới hạn số mục/giây, chỉ giữ ứng viên cũ hơn thời gian ân hạn;
+ *  - trước khi xóa nạp lại tập tham chiếu, bỏ qua ứng viên vừa được phim mới dùng tới.
+ * Chế độ dry-run chỉ liệt kê ứng viên. File không đặt tên theo UUID không bao giờ bị xóa.
+ */
+@Service
+public class OrphanMediaCollector {
+
+	// Số ứng viên giữ lại trong trạng thái để xem (dry-run)
+	private static final int SAMPLE_SIZE = 200;
+
+	private enum Kind { UPLOAD, HLS, COLD, POSTER, BANNER }
+
+	private record Orphan(Kind kind, Path path, UUID id, long bytes, long modifiedAt) { }
+
+	private final MovieRepository movieRepository;
+	private final MediaLayout mediaLayout;
+	private final MediaStorage mediaStorage;
+	private final HlsColdStore coldStore;
+	private final HlsMemoryCache hlsMemoryCache;
+	private final HlsPlaylistService hlsPlaylistService;
+	private final VideoService videoService;
+	private final Counter deletedCounter;
+	private final Counter reclaimedCounter;
+
+	// Bật job định kỳ (chạy tay qua API vẫn được)
+	@Value("${media.gc.enabled:false}")
+	private boolean enabled;
+
+	// Job định kỳ chỉ liệt kê, không xóa
+	@Value("${media.gc.dry-run:true}")
+	private boolean defaultDryRun;
+
+	// Chỉ xóa file không đổi trong ít nhất chừng này giờ (upload chưa kịp gắn vào phim)
+	@Value("${media.gc.grace-hours:72}")
+	private int graceHours;
+
+	// Số mục thư mục tối đa mỗi giây khi duyệt (0 = không giới hạn)
+	@Value("${media.gc.max-entries-per-second:5000}")
+	private int maxEntriesPerSecond;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicLong visited = new AtomicLong();
+	private final AtomicLong orphans = new AtomicLong();
+	private final AtomicLong orphanBytes = new AtomicLong();
+	private final AtomicLong deleted = new AtomicLong();
+	private final AtomicLong lastRunBytesReclaimed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private volatile int referencedIds;
+	private volatile List<Map<String, Object>> sample = List.of();
+	private volatile boolean dryRun;
+	private volatile long startedAt;
+	private volatile long finishedAt;
+	private volatile String lastError;
+
+	public OrphanMediaCollector(MovieRepository movieRepository, MediaLayout mediaLayout, MediaStorage mediaStorage,
+			HlsColdStore coldStore, HlsMemoryCache hlsMemoryCache, HlsPlaylistService hlsPlaylistService,
+			VideoService videoService, MeterRegistry meterRegistry) {
+		this.movieRepository = movieRepository;
+		this.mediaLayout = mediaLayout;
+		this.mediaStorage = mediaStorage;
+		this.coldStore = coldStore;
+		this.hlsMemoryCache = hlsMemoryCache;
+		this.hlsPlaylistService = hlsPlaylistService;
+		this.videoService = videoService;
+		this.deletedCounter = Counter.builder("media.gc.deleted").register(meterRegistry);
+		this.reclaimedCounter = Counter.builder("media.gc.reclaimed").baseUnit("bytes").register(meterRegistry);
+	}
+
+	@Scheduled(cron = "${media.gc.cron:0 0 4 * * *}")
+	public void scheduledRun() {
+		if (enabled) {
+			start(defaultDryRun);
+		}
+	}
+
+	public boolean isDefaultDryRun() {
+		return defaultDryRun;
+	}
+
+	// Bắt đầu một lượt dọn ở luồng nền, trả về false nếu đang chạy
+	public boolean start(boolean dryRun) {
+		if (!running.compareAndSet(false, true)) {
+			return false;
+		}
+		this.dryRun = dryRun;
+		visited.set(0);
+		orphans.set(0);
+		orphanBytes.set(0);
+		deleted.set(0);
+		lastRunBytesReclaimed.set(0);
+		failed.set(0);
+		sample = List.of();
+		lastError = null;
+		startedAt = System.currentTimeMillis();
+		finishedAt = 0;
+
+		new Thread(() -> {
+			try {
+				runOnce(dryRun);
+				System.out.println("🧹 Orphaned media " + (dryRun ? "dry run" : "sweep") + " finished: visited=" + visited.get()
+					+ ", orphans=" + orphans.get() + " (" + orphanBytes.get() + " bytes), deleted=" + deleted.get()
+					+ ", reclaimed=" + lastRunBytesReclaimed.get() + " bytes, failed=" + failed.get());
+			} catch (Exception e) {
+				lastError = String.valueOf(e);
+				System.err.println("❌ Orphaned media sweep aborted: " + e.getMessage());
+			} finally {
+				finishedAt = System.currentTimeMillis();
+				running.set(false);
+			}
+		}, "media-gc").start();
+		return true;
+	}
+
+	public Map<String, Object> getStatus() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", enabled);
+		status.put("running", running.get());
+		status.put("dryRun", dryRun);
+		status.put("graceHours", graceHours);
+		status.put("maxEntriesPerSecond", maxEntriesPerSecond);
+		status.put("referencedIds", referencedIds);
+		status.put("visited", visited.get());
+		status.put("orphans", orphans.get());
+		status.put("orphanBytes", orphanBytes.get());
+		status.put("deleted", deleted.get());
+		status.put("failed", failed.get());
+		status.put("lastRunBytesReclaimed", lastRunBytesReclaimed.get());
+		status.put("totalBytesReclaimed", (long) reclaimedCounter.count());
+		status.put("startedAt", startedAt);
+		status.put("finishedAt", finishedAt);
+		status.put("lastError", lastError);
+		status.put("sample", sample);
+		return status;
+	}
+
+	private void runOnce(boolean dryRun) throws IOException, InterruptedException {
+		UuidSet referenced = loadReferences();
+		referencedIds = referenced.size();
+		long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(graceHours);
+
+		List<Orphan> found = new ArrayList<>();
+		sweepFiles(Kind.UPLOAD, mediaLayout.getUploadRoot(), referenced, cutoff, found);
+		sweepVideoDirs(Kind.HLS, mediaLayout.getHlsRoot(), referenced, cutoff, found);
+		if (coldStore.isEnabled()) {
+			sweepVideoDirs(Kind.COLD, coldStore.getColdRoot(), referenced, cutoff, found);
+		}
+		// Với object storage poster/banner không nằm trên đĩa cục bộ
+		if (mediaStorage.isLocal()) {
+			sweepFiles(Kind.POSTER, mediaStorage.localPath(MediaArea.POSTER, ""), referenced, cutoff, found);
+			sweepFiles(Kind.BANNER, mediaStorage.localPath(MediaArea.BANNER, ""), referenced, cutoff, found);
+		}
+
+		List<Map<String, Object>> entries = new ArrayList<>();
+		for (Orphan orphan : found.subList(0, Math.min(SAMPLE_SIZE, found.size()))) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("kind", orphan.kind().name().toLowerCase());
+			entry.put("path", orphan.path().toString());
+			entry.put("bytes", orphan.bytes());
+			entry.put("modifiedAt", orphan.modifiedAt());
+			entries.add(entry);
+		}
+		sample = entries;
+		if (dryRun || found.isEmpty()) {
+			return;
+		}
+
+		// Phim có thể được tạo (gắn video/ảnh cũ) trong lúc duyệt
+		UuidSet stillReferenced = loadReferences();
+		for (Orphan orphan : found) {
+			if (stillReferenced.contains(orphan.id())) {
+				continue;
+			}
+			try {
+				long freed = delete(orphan);
+				deleted.incrementAndGet();
+				lastRunBytesReclaimed.addAndGet(freed);
+				deletedCounter.increment();
+				reclaimedCounter.increment(freed);
+			} catch (Exception e) {
+				failed.incrementAndGet();
+				lastError = orphan.path() + ": " + e.getMessage();
+				System.err.println("❌ Could not delete orphaned media " + orphan.path() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// Mọi UUID được dbo.movies tham chiếu (video_id, tên file của poster_url / banner_url)
+	private UuidSet loadReferences() {
+		UuidSet referenced = new UuidSet();
+		movieRepository.forEachMediaReference(value -> {
+			UUID id = parseId(value);
+			if (id == null) {
+				id = parseId(stemOf(filenameOf(value)));
+			}
+			if (id != null) {
+				referenced.add(id);
+			}
+		});
+		return referenced;
+	}
+
+	// File <uuid><ext> ở gốc (bố cục phẳng) và trong thư mục phân mảnh ab/cd
+	private void sweepFiles(Kind kind, Path root, UuidSet referenced, long cutoff, List<Orphan> found)
+			throws IOException, InterruptedException {
+		if (root == null || !Files.isDirectory(root)) {
+			return;
+		}
+		try (Stream<Path> walk = Files.walk(root, 3)) {
+			for (Path p : (Iterable<Path>) walk::iterator) {
+				throttle();
+				if (!Files.isRegularFile(p)) {
+					continue;
+				}
+				UUID id = parseId(stemOf(p.getFileName().toString()));
+				if (id == null || referenced.contains(id) || isProcessing(id)) {
+					continue;
+				}
+				try {
+					long modifiedAt = Files.getLastModifiedTime(p).toMillis();
+					if (modifiedAt < cutoff) {
+						addOrphan(found, new Orphan(kind, p, id, Files.size(p), modifiedAt));
+					}
+				} catch (IOException e) {
+					// Vừa bị xóa hoặc di chuyển trong lúc duyệt
+				}
+			}
+		}
+	}
+
+	// Cây video <root>/<uuid> (phẳng) hoặc <root>/ab/cd/<uuid>, kèm <uuid>.zip ở tầng lạnh
+	private void sweepVideoDirs(Kind kind, Path root, UuidSet referenced, long cutoff, List<Orphan> found)
+			throws IOException, InterruptedException {
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+		try (Stream<Path> walk = Files.walk(root, 3)) {
+			for (Path p : (Iterable<Path>) walk::iterator) {
+				throttle();
+				int depth = root.relativize(p).getNameCount();
+				if (depth != 1 && depth != 3) {
+					continue;
+				}
+				String name = p.getFileName().toString();
+				boolean dir = Files.isDirectory(p);
+				UUID id = dir ? parseId(name) : (kind == Kind.COLD && name.endsWith(".zip") ? parseId(stemOf(name)) : null);
+				if (id == null || referenced.contains(id) || isProcessing(id)) {
+					continue;
+				}
+				try {
+					long modifiedAt = dir ? newestModified(p) : Files.getLastModifiedTime(p).toMillis();
+					if (modifiedAt < cutoff) {
+						addOrphan(found, new Orphan(kind, p, id, sizeOf(p), modifiedAt));
+					}
+				} catch (IOException | UncheckedIOException e) {
+					// Vừa bị xóa, hạ tầng hoặc khôi phục trong lúc duyệt
+				}
+			}
+		}
+	}
+
+	private void addOrphan(List<Orphan> found, Orphan orphan) {
+		found.add(orphan);
+		orphans.incrementAndGet();
+		orphanBytes.addAndGet(orphan.bytes());
+	}
+
+	private long delete(Orphan orphan) throws IOException {
+		switch (orphan.kind()) {
+			case HLS -> {
+				long freed = sizeOf(orphan.path());
+				deleteRecursively(orphan.path());
+				String videoId = orphan.path().getFileName().toString();
+				hlsMemoryCache.evictVideo(videoId);
+				hlsPlaylistService.invalidate(videoId);
+				return freed;
+			}
+			case COLD -> {
+				return coldStore.deleteVideo(stemOf(orphan.path().getFileName().toString()));
+			}
+			default -> {
+				long freed = orphan.bytes();
+				return Files.deleteIfExists(orphan.path()) ? freed : 0;
+			}
+		}
+	}
+
+	// Không đụng tới video đang được FFmpeg ghi
+	private boolean isProcessing(UUID id) {
+		return videoService.getStatus(id.toString()) == VideoService.Status.PROCESSING;
+	}
+
+	// Giới hạn số mục duyệt mỗi giây để không tranh IO với việc phát video
+	private void throttle() throws InterruptedException {
+		long count = visited.incrementAndGet();
+		if (maxEntriesPerSecond <= 0) {
+			return;
+		}
+		long dueMillis = count * 1000 / maxEntriesPerSecond;
+		long elapsedMillis = System.currentTimeMillis() - startedAt;
+		if (dueMillis > elapsedMillis) {
+			Thread.sleep(dueMillis - elapsedMillis);
+		}
+	}
+
+	// Thời điểm sửa gần nhất của thư mục video và các thư mục biến thể ngay bên dưới (segment mới làm đổi chúng)
+	private long newestModified(Path dir) throws IOException {
+		long newest = Files.getLastModifiedTime(dir).toMillis();
+		try (Stream<Path> children = Files.list(dir)) {
+			for (Path child : (Iterable<Path>) children::iterator) {
+				newest = Math.max(newest, Files.getLastModifiedTime(child).toMillis());
+			}
+		}
+		return newest;
+	}
+
+	private long sizeOf(Path path) throws IOException {
+		try (Stream<Path> walk = Files.walk(path)) {
+			return walk.filter(Files::isRegularFile).mapToLong(p -> {
+				try {
+					return Files.size(p);
+				} catch (IOException e) {
+					return 0;
+				}
+			}).sum();
+		}
+	}
+
+	private void deleteRecursively(Path root) throws IOException {
+		if (!Files.exists(root)) {
+			return;
+		}
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+
+	// "http://localhost:8080/<uuid>.jpg" -> "<uuid>.jpg"
+	private static String filenameOf(String url) {
+		String path;
+		try {
+			path = URI.create(url.trim()).getPath();
+		} catch (IllegalArgumentException e) {
+			path = url;
+		}
+		if (path == null) {
+			return null;
+		}
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	private static String stemOf(String filename) {
+		if (filename == null) {
+			return null;
+		}
+		int dot = filename.lastIndexOf('.');
+		return dot > 0 ? filename.substring(0, dot) : filename;
+	}
+
+	// Chỉ nhận UUID dạng chuẩn 36 ký tự (UUID.fromString chấp nhận cả dạng rút gọn)
+	private static UUID parseId(String value) {
+		if (value == null || value.length() != 36) {
+			return null;
+		}
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Tập UUID gọn: bảng băm địa chỉ mở trên mảng long (2 long mỗi UUID), không tạo đối tượng cho từng phần tử.
+	 * Dùng riêng trong một lượt dọn, không an toàn đa luồng.
+	 */
+	static final class UuidSet {
+
+		private long[] slots = new long[2 * 1024];
+		private int size;
+		// UUID toàn 0 trùng với ô trống nên được ghi nhận riêng
+		private boolean containsNil;
+
+		void add(UUID id) {
+			long hi = id.getMostSignificantBits();
+			long lo = id.getLeastSignificantBits();
+			if (hi == 0 && lo == 0) {
+				containsNil = true;
+				return;
+			}
+			if ((size + 1) * 4 > capacity() * 3) {
+				grow();
+			}
+			if (insert(slots, hi, lo)) {
+				size++;
+			}
+		}
+
+		boolean contains(UUID id) {
+			long hi = id.getMostSignificantBits();
+			long lo = id.getLeastSignificantBits();
+			if (hi == 0 && lo == 0) {
+				return containsNil;
+			}
+			int mask = capacity() - 1;
+			for (int i = indexOf(hi, lo, mask); ; i = (i + 1) & mask) {
+				long h = slots[2 * i];
+				long l = slots[2 * i + 1];
+				if (h == 0 && l == 0) {
+					return false;
+				}
+				if (h == hi && l == lo) {
+					return true;
+				}
+			}
+		}
+
+		int size() {
+			return size + (containsNil ? 1 : 0);
+		}
+
+		private int capacity() {
+			return slots.length / 2;
+		}
+
+		private void grow() {
+			long[] old = slots;
+			slots = new long[old.length * 2];
+			for (int i = 0; i < old.length; i += 2) {
+				if (old[i] != 0 || old[i + 1] != 0) {
+					insert(slots, old[i], old[i + 1]);
+				}
+			}
+		}
+
+		private static boolean insert(long[] table, long hi, long lo) {
+			int mask = table.length / 2 - 1;
+			for (int i = indexOf(hi, lo, mask); ; i = (i + 1) & mask) {
+				long h = table[2 * i];
+				long l = table[2 * i + 1];
+				if (h == 0 && l == 0) {
+					table[2 * i] = hi;
+					table[2 * i + 1] = lo;
+					return true;
+				}
+				if (h == hi && l == lo) {
+					return false;
+				}
+			}
+		}
+
+		private static int indexOf(long hi, long lo, int mask) {
+			long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+}
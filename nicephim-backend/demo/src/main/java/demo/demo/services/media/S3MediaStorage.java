@@ -0,0 +1,471 @@
+package demo.demo.services.media;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Lưu trữ trên object storage tương thích S3 API (AWS S3, MinIO...), ký request bằng SigV4.
+ * Dùng path-style URL (<endpoint>/<bucket>/<key>) để chạy được với MinIO cục bộ trong docker-compose.
+ * File lớn hơn part-size được upload multipart, các part và các file trong cây HLS được gửi song song.
+ */
+@Component
+@Profile("!edge")
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "s3")
+public class S3MediaStorage implements MediaStorage {
+
+	private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+	private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+	private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+	private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>(.*?)</UploadId>");
+	private static final Pattern CONTENTS = Pattern.compile("<Contents>(.*?)</Contents>", Pattern.DOTALL);
+	private static final Pattern KEY = Pattern.compile("<Key>(.*?)</Key>");
+	private static final Pattern SIZE = Pattern.compile("<Size>(\\d+)</Size>");
+	private static final Pattern NEXT_TOKEN = Pattern.compile("<NextContinuationToken>(.*?)</NextContinuationToken>");
+
+	private final URI endpoint;
+	private final String region;
+	private final String bucket;
+	private final String accessKey;
+	private final String secretKey;
+	private final long partSize;
+
+	private final HttpClient http;
+	// Upload song song: file trong cây HLS và part của file lớn dùng hai pool riêng để không chờ lẫn nhau
+	private final ExecutorService fileExecutor;
+	private final ExecutorService partExecutor;
+
+	public S3MediaStorage(
+			@Value("${media.storage.s3.endpoint}") String endpoint,
+			@Value("${media.storage.s3.region:us-east-1}") String region,
+			@Value("${media.storage.s3.bucket}") String bucket,
+			@Value("${media.storage.s3.access-key}") String accessKey,
+			@Value("${media.storage.s3.secret-key}") String secretKey,
+			@Value("${media.storage.s3.part-size:8388608}") long partSize,
+			@Value("${media.storage.s3.upload-threads:8}") int uploadThreads) {
+		this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+		this.region = region;
+		this.bucket = bucket;
+		this.accessKey = accessKey;
+		this.secretKey = secretKey;
+		// S3 yêu cầu part tối thiểu 5MB (trừ part cuối)
+		this.partSize = Math.max(partSize, 5L * 1024 * 1024);
+		this.http = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+		this.fileExecutor = Executors.newFixedThreadPool(uploadThreads);
+		this.partExecutor = Executors.newFixedThreadPool(uploadThreads);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		fileExecutor.shutdown();
+		partExecutor.shutdown();
+	}
+
+	@Override
+	public boolean isLocal() {
+		return false;
+	}
+
+	@Override
+	public Path localPath(MediaArea area, String key) {
+		return null;
+	}
+
+	@Override
+	public boolean exists(MediaArea area, String key) throws IOException {
+		return size(area, key) >= 0;
+	}
+
+	@Override
+	public long size(MediaArea area, String key) throws IOException {
+		HttpResponse<Void> response = send("HEAD", objectKey(area, key), Map.of(),
+			HttpRequest.BodyPublishers.noBody(), EMPTY_SHA256, null, HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() == 404) {
+			return -1;
+		}
+		ensureSuccess(response.statusCode(), "HEAD", key, null);
+		return response.headers().firstValueAsLong("Content-Length").orElse(0);
+	}
+
+	@Override
+	public InputStream open(MediaArea area, String key) throws IOException {
+		HttpResponse<InputStream> response = send("GET", objectKey(area, key), Map.of(),
+			HttpRequest.BodyPublishers.noBody(), EMPTY_SHA256, null, HttpResponse.BodyHandlers.ofInputStream());
+		if (response.statusCode() == 404) {
+			response.body().close();
+			throw new NoSuchFileException(key);
+		}
+		if (response.statusCode() / 100 != 2) {
+			String error;
+			try (InputStream body = response.body()) {
+				error = new String(body.readNBytes(512), StandardCharsets.UTF_8);
+			}
+			ensureSuccess(response.statusCode(), "GET", key, error);
+		}
+		return response.body();
+	}
+
+	@Override
+	public void put(MediaArea area, String key, InputStream in, long length, String contentType) throws IOException {
+		HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+			HttpRequest.BodyPublishers.ofInputStream(() -> in), length);
+		HttpResponse<String> response = send("PUT", objectKey(area, key), Map.of(), body, UNSIGNED_PAYLOAD,
+			contentType, HttpResponse.BodyHandlers.ofString());
+		ensureSuccess(response.statusCode(), "PUT", key, response.body());
+	}
+
+	@Override
+	public void putFile(MediaArea area, String key, Path file) throws IOException {
+		long size = Files.size(file);
+		String contentType = MediaStorage.contentTypeOf(key);
+		if (size <= partSize) {
+			HttpResponse<String> response = send("PUT", objectKey(area, key), Map.of(),
+				HttpRequest.BodyPublishers.ofFile(file), UNSIGNED_PAYLOAD, contentType, HttpResponse.BodyHandlers.ofString());
+			ensureSuccess(response.statusCode(), "PUT", key, response.body());
+			return;
+		}
+		putMultipart(objectKey(area, key), file, size, contentType);
+	}
+
+	@Override
+	public void putTree(MediaArea area, String keyPrefix, Path localDir) throws IOException {
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(localDir)) {
+			files = walk.filter(Files::isRegularFile).toList();
+		}
+
+		// Segment trước, playlist sau: người xem không thấy playlist trỏ tới segment chưa có
+		List<Path> segments = files.stream().filter(p -> !p.toString().endsWith(".m3u8")).toList();
+		List<Path> playlists = files.stream().filter(p -> p.toString().endsWith(".m3u8")).toList();
+		uploadAll(area, keyPrefix, localDir, segments);
+		uploadAll(area, keyPrefix, localDir, playlists);
+	}
+
+	@Override
+	public boolean delete(MediaArea area, String key) throws IOException {
+		HttpResponse<String> response = send("DELETE", objectKey(area, key), Map.of(),
+			HttpRequest.BodyPublishers.noBody(), EMPTY_SHA256, null, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() == 404) {
+			return false;
+		}
+		ensureSuccess(response.statusCode(), "DELETE", key, response.body());
+		return true;
+	}
+
+	@Override
+	public long deleteTree(MediaArea area, String keyPrefix) throws IOException {
+		String prefix = objectKey(area, keyPrefix.endsWith("/") ? keyPrefix : keyPrefix + "/");
+		AtomicLong freed = new AtomicLong();
+		String continuationToken = null;
+		do {
+			Map<String, String> query = new TreeMap<>();
+			query.put("list-type", "2");
+			query.put("prefix", prefix);
+			if (continuationToken != null) {
+				query.put("continuation-token", continuationToken);
+			}
+			HttpResponse<String> response = send("GET", "", query, HttpRequest.BodyPublishers.noBody(),
+				EMPTY_SHA256, null, HttpResponse.BodyHandlers.ofString());
+			ensureSuccess(response.statusCode(), "LIST", prefix, response.body());
+
+			List<CompletableFuture<Void>> deletes = new ArrayList<>();
+			Matcher contents = CONTENTS.matcher(response.body());
+			while (contents.find()) {
+				String entry = contents.group(1);
+				Matcher key = KEY.matcher(entry);
+				Matcher size = SIZE.matcher(entry);
+				if (!key.find()) continue;
+				String objectKey = unescapeXml(key.group(1));
+				long bytes = size.find() ? Long.parseLong(size.group(1)) : 0;
+				deletes.add(CompletableFuture.runAsync(() -> {
+					try {
+						HttpResponse<String> deleted = send("DELETE", objectKey, Map.of(), HttpRequest.BodyPublishers.noBody(),
+							EMPTY_SHA256, null, HttpResponse.BodyHandlers.ofString());
+						ensureSuccess(deleted.statusCode(), "DELETE", objectKey, deleted.body());
+						freed.addAndGet(bytes);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, fileExecutor));
+			}
+			joinAll(deletes);
+
+			Matcher next = NEXT_TOKEN.matcher(response.body());
+			continuationToken = response.body().contains("<IsTruncated>true</IsTruncated>") && next.find()
+				? unescapeXml(next.group(1)) : null;
+		} while (continuationToken != null);
+		return freed.get();
+	}
+
+	private void uploadAll(MediaArea area, String keyPrefix, Path localDir, List<Path> files) throws IOException {
+		List<CompletableFuture<Void>> uploads = new ArrayList<>();
+		for (Path file : files) {
+			String key = keyPrefix + "/" + localDir.relativize(file).toString().replace('\\', '/');
+			uploads.add(CompletableFuture.runAsync(() -> {
+				try {
+					putFile(area, key, file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, fileExecutor));
+		}
+		joinAll(uploads);
+	}
+
+	private void putMultipart(String objectKey, Path file, long size, String contentType) throws IOException {
+		HttpResponse<String> created = send("POST", objectKey, Map.of("uploads", ""),
+			HttpRequest.BodyPublishers.noBody(), EMPTY_SHA256, contentType, HttpResponse.BodyHandlers.ofString());
+		ensureSuccess(created.statusCode(), "CreateMultipartUpload", objectKey, created.body());
+		Matcher idMatcher = UPLOAD_ID.matcher(created.body());
+		if (!idMatcher.find()) {
+			throw new IOException("S3 CreateMultipartUpload returned no UploadId for " + objectKey);
+		}
+		String uploadId = idMatcher.group(1);
+
+		try {
+			int partCount = (int) ((size + partSize - 1) / partSize);
+			List<CompletableFuture<String>> parts = new ArrayList<>(partCount);
+			for (int i = 0; i < partCount; i++) {
+				int partNumber = i + 1;
+				long offset = i * partSize;
+				long length = Math.min(partSize, size - offset);
+				parts.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						return uploadPart(objectKey, uploadId, partNumber, file, offset, length);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, partExecutor));
+			}
+			joinAll(parts);
+
+			StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+			for (int i = 0; i < partCount; i++) {
+				xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+					.append(parts.get(i).join()).append("</ETag></Part>");
+			}
+			xml.append("</CompleteMultipartUpload>");
+			byte[] body = xml.toString().getBytes(StandardCharsets.UTF_8);
+
+			HttpResponse<String> completed = send("POST", objectKey, Map.of("uploadId", uploadId),
+				HttpRequest.BodyPublishers.ofByteArray(body), sha256Hex(body), "application/xml", HttpResponse.BodyHandlers.ofString());
+			ensureSuccess(completed.statusCode(), "CompleteMultipartUpload", objectKey, completed.body());
+			// S3 có thể trả 200 kèm lỗi trong body
+			if (completed.body().contains("<Error>")) {
+				throw new IOException("S3 CompleteMultipartUpload failed for " + objectKey + ": " + completed.body());
+			}
+		} catch (IOException | RuntimeException e) {
+			try {
+				send("DELETE", objectKey, Map.of("uploadId", uploadId), HttpRequest.BodyPublishers.noBody(),
+					EMPTY_SHA256, null, HttpResponse.BodyHandlers.discarding());
+			} catch (IOException abortError) {
+				System.err.println("⚠️ Failed to abort multipart upload " + uploadId + ": " + abortError.getMessage());
+			}
+			throw e;
+		}
+	}
+
+	private String uploadPart(String objectKey, String uploadId, int partNumber, Path file, long offset, long length) throws IOException {
+		HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+			HttpRequest.BodyPublishers.ofInputStream(() -> slice(file, offset, length)), length);
+		Map<String, String> query = new TreeMap<>();
+		query.put("partNumber", String.valueOf(partNumber));
+		query.put("uploadId", uploadId);
+		HttpResponse<String> response = send("PUT", objectKey, query, body, UNSIGNED_PAYLOAD, null, HttpResponse.BodyHandlers.ofString());
+		ensureSuccess(response.statusCode(), "UploadPart " + partNumber, objectKey, response.body());
+		return response.headers().firstValue("ETag")
+			.orElseThrow(() -> new IOException("S3 UploadPart returned no ETag for " + objectKey));
+	}
+
+	// Đọc một đoạn [offset, offset+length) của file mà không nạp vào bộ nhớ
+	private InputStream slice(Path file, long offset, long length) {
+		try {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(offset);
+			return new FilterInputStream(Channels.newInputStream(channel)) {
+				private long remaining = length;
+
+				@Override
+				public int read() throws IOException {
+					if (remaining <= 0) return -1;
+					int b = super.read();
+					if (b >= 0) remaining--;
+					return b;
+				}
+
+				@Override
+				public int read(byte[] buf, int off, int len) throws IOException {
+					if (remaining <= 0) return -1;
+					int n = super.read(buf, off, (int) Math.min(len, remaining));
+					if (n > 0) remaining -= n;
+					return n;
+				}
+			};
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private <T> HttpResponse<T> send(String method, String objectKey, Map<String, String> query,
+			HttpRequest.BodyPublisher body, String payloadHash, String contentType,
+			HttpResponse.BodyHandler<T> handler) throws IOException {
+		String canonicalUri = "/" + uriEncode(bucket, false) + (objectKey.isEmpty() ? "" : "/" + uriEncode(objectKey, true));
+		String canonicalQuery = canonicalQuery(query);
+		URI uri = URI.create(endpoint + canonicalUri + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery));
+
+		String amzDate = AMZ_DATE.format(Instant.now());
+		String date = amzDate.substring(0, 8);
+		String host = hostHeader(uri);
+		String canonicalHeaders = "host:" + host + "\n"
+			+ "x-amz-content-sha256:" + payloadHash + "\n"
+			+ "x-amz-date:" + amzDate + "\n";
+		String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+		String canonicalRequest = method + "\n" + canonicalUri + "\n" + canonicalQuery + "\n"
+			+ canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+
+		String scope = date + "/" + region + "/s3/aws4_request";
+		String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+			+ sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+		byte[] signingKey = hmac(hmac(hmac(hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date), region), "s3"), "aws4_request");
+		String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+		HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+			.timeout(Duration.ofMinutes(5))
+			.method(method, body)
+			.header("x-amz-date", amzDate)
+			.header("x-amz-content-sha256", payloadHash)
+			.header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+				+ ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+		if (contentType != null) {
+			request.header("Content-Type", contentType);
+		}
+
+		try {
+			return http.send(request.build(), handler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("S3 request interrupted: " + method + " " + objectKey, e);
+		}
+	}
+
+	private String objectKey(MediaArea area, String key) {
+		String normalized = key.replace('\\', '/');
+		if (normalized.startsWith("/") || normalized.contains("../") || normalized.equals("..")) {
+			throw new IllegalArgumentException("Invalid media key: " + key);
+		}
+		return area.getPrefix() + "/" + normalized;
+	}
+
+	// HttpClient tự đặt header Host: chỉ kèm cổng khi không phải cổng mặc định
+	private static String hostHeader(URI uri) {
+		int port = uri.getPort();
+		boolean defaultPort = port == -1
+			|| ("http".equalsIgnoreCase(uri.getScheme()) && port == 80)
+			|| ("https".equalsIgnoreCase(uri.getScheme()) && port == 443);
+		return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+	}
+
+	private static String canonicalQuery(Map<String, String> query) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, String> e : new TreeMap<>(query).entrySet()) {
+			if (sb.length() > 0) sb.append('&');
+			sb.append(uriEncode(e.getKey(), false)).append('=').append(uriEncode(e.getValue(), false));
+		}
+		return sb.toString();
+	}
+
+	// Mã hóa URI theo SigV4: giữ A-Z a-z 0-9 - _ . ~ (và '/' với path)
+	private static String uriEncode(String value, boolean keepSlash) {
+		String encoded = URLEncoder.encode(value, StandardCharsets.UTF_8)
+			.replace("+", "%20")
+			.replace("*", "%2A")
+			.replace("%7E", "~");
+		return keepSlash ? encoded.replace("%2F", "/") : encoded;
+	}
+
+	private static String unescapeXml(String value) {
+		return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+			.replace("&apos;", "'").replace("&amp;", "&");
+	}
+
+	private static void ensureSuccess(int status, String operation, String key, String body) throws IOException {
+		if (status / 100 != 2) {
+			throw new IOException("S3 " + operation + " " + key + " failed with HTTP " + status
+				+ (body == null || body.isEmpty() ? "" : ": " + body));
+		}
+	}
+
+	private static void joinAll(List<? extends CompletableFuture<?>> futures) throws IOException {
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof UncheckedIOException unchecked) {
+				throw unchecked.getCause();
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private static String sha256Hex(byte[] data) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] hmac(byte[] key, String data) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package demo.demo.services.movie;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.dto.movie.MovieResponse;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.genre.GenreChangedEvent;
+import demo.demo.services.genre.GenreDictionary;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+
+/**
+ * Version numbers for the catalog, used as weak ETags so controllers can answer If-None-Match with 304
+ * before touching the database. Bumped from change events; a periodic fingerprint query of the tables
+ * catches writes made by other instances. Tags carry this instance's start time, so they never collide
+ * across restarts (other instances simply produce different tags and clients get a 200).
+ */
+@Component
+public class CatalogVersion {
+
+    private final MovieRepository movieRepository;
+    private final RelatedMoviesIndex relatedMoviesIndex;
+    private final GenreDictionary genreDictionary;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Anything a movie listing shows: movie rows, genre names and assignments
+    private final AtomicLong movies = new AtomicLong();
+    // Genre rows and assignments
+    private final AtomicLong genres = new AtomicLong();
+    private volatile String lastFingerprint;
+
+    public CatalogVersion(MovieRepository movieRepository, RelatedMoviesIndex relatedMoviesIndex,
+                          GenreDictionary genreDictionary) {
+        this.movieRepository = movieRepository;
+        this.relatedMoviesIndex = relatedMoviesIndex;
+        this.genreDictionary = genreDictionary;
+    }
+
+    /**
+     * ETag for movie lists (listing pages, search, filter)
+     */
+    public String moviesEtag() {
+        return "W/\"" + epoch + "." + movies.get() + "\"";
+    }
+
+    /**
+     * ETag for related-movie lists: the movies themselves plus the lists, which are recomputed in the background
+     */
+    public String relatedEtag() {
+        return "W/\"" + epoch + "." + movies.get() + ".r" + relatedMoviesIndex.version() + "\"";
+    }
+
+    /**
+     * ETag for genre lists, a single genre and the genres of a movie. Genre responses carry movie counts,
+     * which the dictionary recounts after a debounce, so its snapshot generation is part of the tag.
+     */
+    public String genresEtag() {
+        return "W/\"" + epoch + ".g" + genres.get() + ".d" + genreDictionary.generation() + "\"";
+    }
+
+    /**
+     * ETag for one movie: its own row version (updated_at, or created_at if never updated)
+     * plus the genre version, since the response embeds genre names
+     */
+    public String movieEtag(MovieResponse movie) {
+        OffsetDateTime version = movie.updatedAt != null ? movie.updatedAt : movie.createdAt;
+        long millis = version != null ? version.toInstant().toEpochMilli() : 0;
+        return "W/\"" + epoch + "." + Long.toString(millis, 36) + ".g" + genres.get() + "\"";
+    }
+
+    /**
+     * Row version of one movie for Last-Modified, or -1 if unknown
+     */
+    public long movieLastModified(MovieResponse movie) {
+        OffsetDateTime version = movie.updatedAt != null ? movie.updatedAt : movie.createdAt;
+        return version != null ? version.toInstant().toEpochMilli() : -1;
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        movies.incrementAndGet();
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        movies.incrementAndGet();
+        genres.incrementAndGet();
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        movies.incrementAndGet();
+        genres.incrementAndGet();
+    }
+
+    // First run at startup records the baseline
+    @Scheduled(fixedDelayString = "${movie.catalog.version-check-ms:60000}")
+    public void checkFingerprint() {
+        try {
+            String fingerprint = movieRepository.catalogFingerprint();
+            String previous = lastFingerprint;
+            lastFingerprint = fingerprint;
+            if (previous != null && !Objects.equals(previous, fingerprint)) {
+                movies.incrementAndGet();
+                genres.incrementAndGet();
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Could not check catalog version: " + e.getMessage());
+        }
+    }
+}
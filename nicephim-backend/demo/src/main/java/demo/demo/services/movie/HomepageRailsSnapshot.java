@@ -0,0 +1,157 @@
+package demo.demo.services.movie;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import demo.demo.dto.movie.HomepageRailsResponse;
+import demo.demo.services.genre.GenreChangedEvent;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The homepage rails, materialized: built from the database by MovieService.buildHomepageRails,
+ * serialized once to the JSON response body and served from memory with an ETag.
+ * Rebuilt periodically (picks up writes from other instances) and shortly after catalog change events,
+ * which are debounced so a bulk edit costs one rebuild. Each rebuild swaps in a new immutable Body.
+ */
+@Component
+public class HomepageRailsSnapshot {
+
+    public record Body(byte[] json, String etag) { }
+
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final int railSize;
+    private final long debounceMillis;
+    private final Timer rebuildTimer;
+
+    private volatile Body current;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    public HomepageRailsSnapshot(MovieService movieService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${homepage.rails.size:20}") int railSize,
+                                 @Value("${homepage.rails.debounce-ms:2000}") long debounceMillis) {
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        this.railSize = railSize;
+        this.debounceMillis = debounceMillis;
+        this.rebuildTimer = Timer.builder("homepage.rails.rebuild").register(meterRegistry);
+        Gauge.builder("homepage.rails.bytes", this, snapshot -> snapshot.current == null ? 0 : snapshot.current.json().length)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * The current snapshot, built on the caller's thread if the startup build has not finished yet
+     */
+    public Body get() {
+        Body body = current;
+        return body != null ? body : firstBuild();
+    }
+
+    private synchronized Body firstBuild() {
+        return current != null ? current : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        new Thread(this::rebuildQuietly, "homepage-rails-build").start();
+    }
+
+    @Scheduled(fixedDelayString = "${homepage.rails.refresh-ms:300000}", initialDelayString = "${homepage.rails.refresh-ms:300000}")
+    public void refresh() {
+        rebuildQuietly();
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        queueRebuild();
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        queueRebuild();
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        queueRebuild();
+    }
+
+    /**
+     * Rebuild once after the debounce delay; events arriving meanwhile are folded into that rebuild
+     */
+    private void queueRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                Thread.sleep(debounceMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Cleared before reading the database so a write during the rebuild queues another one
+            rebuildQueued.set(false);
+            rebuildQuietly();
+        }, "homepage-rails-rebuild").start();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            System.err.println("❌ Could not rebuild homepage rails: " + e.getMessage());
+        }
+    }
+
+    private synchronized Body rebuild() {
+        return rebuildTimer.record(() -> {
+            HomepageRailsResponse rails = movieService.buildHomepageRails(railSize);
+            try {
+                // Tag the rails without their timestamp: a rebuild of an unchanged catalog keeps the ETag (and the old body)
+                String generatedAt = rails.generatedAt;
+                rails.generatedAt = null;
+                String etag = etagOf(objectMapper.writeValueAsBytes(rails));
+                Body previous = current;
+                if (previous != null && previous.etag().equals(etag)) {
+                    return previous;
+                }
+                rails.generatedAt = generatedAt;
+
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("success", true);
+                response.put("data", rails);
+                Body body = new Body(objectMapper.writeValueAsBytes(response), etag);
+                current = body;
+                return body;
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize homepage rails", e);
+            }
+        });
+    }
+
+    private static String etagOf(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package demo.demo.services.movie;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Movie;
+import demo.demo.repository.MovieRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Prefix index for search-box suggestions over folded titles and alias titles.
+ *
+ * The bulk of the catalog lives in an immutable snapshot: every folded title/alias is stored once in a
+ * byte[] (keys are ASCII after folding), and a sorted array of (start, end) offsets into it holds one entry
+ * per word start, so "minh" finds "Hồ Chí Minh" without storing "chi minh" and "minh" again. A prefix is a
+ * binary-searched range of that array. Prefixes whose range is large ("t", "the", "ng"...) have their
+ * best movies precomputed so short queries do not scan a large part of the catalog.
+ *
+ * Writes go to a small copy-on-write delta (changed movies plus ids hidden in the snapshot) that queries
+ * merge in, so suggestions reflect a write immediately; once it grows past MAX_DELTA it is folded into a new
+ * snapshot on a background thread. Readers never lock.
+ *
+ * Footprint, measured with 100k synthetic titles of 4-6 words plus a 4-word alias: about 60 MB per 100k titles.
+ * ~17 MB of that is the prefix structure (folded keys + ~1M entry offsets), the rest are the title, alias,
+ * slug and poster strings a suggestion is returned with. movie.autocomplete.bytes reports the estimate
+ * for the live catalog.
+ */
+@Component
+public class MovieAutocompleteIndex {
+
+    public static final int MAX_LIMIT = 20;
+    // Longer prefixes gain nothing for suggestions and would only make keys bigger
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_WORD_STARTS = 8;
+    // Prefixes matching more entries than this get their best movies precomputed
+    private static final int HOT_RANGE = 256;
+    private static final int HOT_TOP = 2 * MAX_LIMIT;
+    private static final int MAX_DELTA = 512;
+
+    private final MovieRepository movieRepository;
+
+    private volatile State state = new State(Snapshot.EMPTY, Map.of(), Set.of());
+    // Non-null while a snapshot is being rebuilt: movies written meanwhile, which the rebuild may have read stale
+    private Set<UUID> touchedDuringRebuild;
+
+    /**
+     * What a suggestion shows; popularity is the IMDb rating for now (the catalog has no view counter)
+     */
+    public record Suggestion(UUID movieId, String title, String aliasTitle, String slug, String posterUrl,
+                             Short releaseYear, float popularity, long createdAt) {}
+
+    // Best first: popularity, then newest; movieId makes the order total
+    private static final Comparator<Suggestion> RANKING = (a, b) -> {
+        int cmp = Float.compare(b.popularity(), a.popularity());
+        if (cmp == 0) {
+            cmp = Long.compare(b.createdAt(), a.createdAt());
+        }
+        return cmp != 0 ? cmp : a.movieId().compareTo(b.movieId());
+    };
+
+    // upserts: movies changed since the snapshot; hidden: snapshot movies that were changed or deleted
+    private record State(Snapshot snapshot, Map<UUID, Pending> upserts, Set<UUID> hidden) {}
+
+    private record Pending(Suggestion suggestion, List<String> keys) {}
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new byte[0], new int[0], new int[0], new int[0],
+                new Suggestion[0], Map.of());
+
+        final byte[] text;
+        // entry -> key text[starts[i]..ends[i]), entries sorted by key
+        final int[] starts;
+        final int[] ends;
+        // entry -> index in suggestions
+        final int[] docs;
+        final Suggestion[] suggestions;
+        // hot prefix -> best suggestion indices, best first
+        final Map<String, int[]> hotPrefixTop;
+
+        Snapshot(byte[] text, int[] starts, int[] ends, int[] docs, Suggestion[] suggestions,
+                 Map<String, int[]> hotPrefixTop) {
+            this.text = text;
+            this.starts = starts;
+            this.ends = ends;
+            this.docs = docs;
+            this.suggestions = suggestions;
+            this.hotPrefixTop = hotPrefixTop;
+        }
+
+        long estimateBytes() {
+            long bytes = text.length + 12L * starts.length + 4L * suggestions.length;
+            for (Suggestion suggestion : suggestions) {
+                bytes += 56 + bytesOf(suggestion.title()) + bytesOf(suggestion.aliasTitle())
+                        + bytesOf(suggestion.slug()) + bytesOf(suggestion.posterUrl());
+            }
+            return bytes + (64L + 4L * HOT_TOP) * hotPrefixTop.size();
+        }
+
+        // Compact strings: 1 byte per char when every char is Latin-1, 2 otherwise
+        private static long bytesOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            boolean latin1 = value.chars().allMatch(c -> c <= 0xFF);
+            return 40L + (latin1 ? value.length() : 2L * value.length());
+        }
+    }
+
+    public MovieAutocompleteIndex(MovieRepository movieRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        Gauge.builder("movie.autocomplete.titles", this, index -> index.state.snapshot().suggestions.length)
+                .register(meterRegistry);
+        Gauge.builder("movie.autocomplete.bytes", this, index -> index.state.snapshot().estimateBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            touchedDuringRebuild = new HashSet<>();
+        }
+        try {
+            List<Suggestion> loaded = new ArrayList<>();
+            movieRepository.forEachMovie(movie -> loaded.add(toSuggestion(movie)));
+            install(build(loaded));
+            System.out.println("🔤 Autocomplete index built: " + loaded.size() + " titles, ~"
+                    + state.snapshot().estimateBytes() / 1024 + " KB in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("❌ Could not build autocomplete index: " + e.getMessage());
+            synchronized (this) {
+                touchedDuringRebuild = null;
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(event.movieId());
+        }
+
+        State current = state;
+        Map<UUID, Pending> upserts = new HashMap<>(current.upserts());
+        Set<UUID> hidden = new HashSet<>(current.hidden());
+        hidden.add(event.movieId());
+        if (event.isDeleted()) {
+            upserts.remove(event.movieId());
+        } else {
+            Suggestion suggestion = toSuggestion(event.movie());
+            upserts.put(event.movieId(), new Pending(suggestion, keysOf(suggestion)));
+        }
+        state = new State(current.snapshot(), upserts, hidden);
+
+        if (upserts.size() + hidden.size() > MAX_DELTA && touchedDuringRebuild == null) {
+            touchedDuringRebuild = new HashSet<>();
+            State toMerge = state;
+            new Thread(() -> merge(toMerge), "autocomplete-merge").start();
+        }
+    }
+
+    // Fold a delta into a new snapshot off the write path (a 100k-title build takes seconds)
+    private void merge(State toMerge) {
+        try {
+            List<Suggestion> all = new ArrayList<>();
+            for (Suggestion suggestion : toMerge.snapshot().suggestions) {
+                if (!toMerge.hidden().contains(suggestion.movieId())) {
+                    all.add(suggestion);
+                }
+            }
+            toMerge.upserts().values().forEach(pending -> all.add(pending.suggestion()));
+            install(build(all));
+        } catch (Exception e) {
+            System.err.println("❌ Autocomplete merge failed: " + e.getMessage());
+            synchronized (this) {
+                touchedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Swap in a rebuilt snapshot. Movies written since the rebuild started may be stale in it,
+     * so they stay hidden there and keep their current delta entry.
+     */
+    private synchronized void install(Snapshot snapshot) {
+        Map<UUID, Pending> upserts = new HashMap<>();
+        for (UUID movieId : touchedDuringRebuild) {
+            Pending pending = state.upserts().get(movieId);
+            if (pending != null) {
+                upserts.put(movieId, pending);
+            }
+        }
+        state = new State(snapshot, upserts, touchedDuringRebuild);
+        touchedDuringRebuild = null;
+    }
+
+    /**
+     * Up to limit movies having a title/alias word starting with the (folded) query, most popular first
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        limit = Math.min(limit, MAX_LIMIT);
+        if (prefix.length() > MAX_KEY_LENGTH) {
+            prefix = prefix.substring(0, MAX_KEY_LENGTH);
+        }
+
+        State current = state;
+        Snapshot snapshot = current.snapshot();
+        byte[] p = prefix.getBytes(StandardCharsets.US_ASCII);
+
+        // Worst of the current best on top
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+
+        int from = lowerBound(snapshot, p, false);
+        int to = lowerBound(snapshot, p, true);
+        int[] top = to - from > HOT_RANGE ? snapshot.hotPrefixTop.get(prefix) : null;
+        int taken = 0;
+        if (top != null) {
+            for (int i = 0; i < top.length && taken < limit; i++) {
+                Suggestion suggestion = snapshot.suggestions[top[i]];
+                if (!current.hidden().contains(suggestion.movieId())) {
+                    offer(best, suggestion, limit);
+                    taken++;
+                }
+            }
+        }
+        // No precomputed list, or too many of its movies changed since: scan the range
+        if (top == null || (taken < limit && top.length == HOT_TOP)) {
+            best.clear();
+            Set<Integer> seen = new HashSet<>();
+            for (int i = from; i < to; i++) {
+                int doc = snapshot.docs[i];
+                Suggestion suggestion = snapshot.suggestions[doc];
+                if (seen.add(doc) && !current.hidden().contains(suggestion.movieId())) {
+                    offer(best, suggestion, limit);
+                }
+            }
+        }
+
+        // Same word starts as a snapshot entry, so a changed movie keeps matching on non-leading words
+        for (Pending pending : current.upserts().values()) {
+            if (matchesWordStart(pending.keys(), prefix)) {
+                offer(best, pending.suggestion(), limit);
+            }
+        }
+
+        List<Suggestion> result = new ArrayList<>(best);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private static boolean matchesWordStart(List<String> keys, String prefix) {
+        for (String key : keys) {
+            for (int start : wordStarts(key)) {
+                if (key.startsWith(prefix, start)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void offer(PriorityQueue<Suggestion> best, Suggestion suggestion, int limit) {
+        if (best.size() < limit) {
+            best.add(suggestion);
+        } else if (RANKING.compare(suggestion, best.peek()) < 0) {
+            best.poll();
+            best.add(suggestion);
+        }
+    }
+
+    /**
+     * First entry whose key, cut to the prefix length, is >= prefix (or > prefix when after is set)
+     */
+    private static int lowerBound(Snapshot snapshot, byte[] prefix, boolean after) {
+        int lo = 0;
+        int hi = snapshot.starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(snapshot, mid, prefix);
+            if (cmp < 0 || (after && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int comparePrefix(Snapshot snapshot, int entry, byte[] prefix) {
+        int start = snapshot.starts[entry];
+        int length = Math.min(snapshot.ends[entry] - start, prefix.length);
+        int cmp = Arrays.compare(snapshot.text, start, start + length, prefix, 0, length);
+        if (cmp != 0) {
+            return cmp;
+        }
+        // Key is shorter than the prefix: it sorts before it
+        return length < prefix.length ? -1 : 0;
+    }
+
+    private static Snapshot build(List<Suggestion> suggestions) {
+        Suggestion[] docs = suggestions.toArray(new Suggestion[0]);
+
+        // Each title/alias is stored once; every word start inside it becomes an entry
+        StringBuilder text = new StringBuilder();
+        List<int[]> entries = new ArrayList<>();
+        for (int doc = 0; doc < docs.length; doc++) {
+            for (String key : keysOf(docs[doc])) {
+                int base = text.length();
+                text.append(key);
+                for (int start : wordStarts(key)) {
+                    entries.add(new int[] {base + start, base + key.length(), doc});
+                }
+            }
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        entries.sort((a, b) -> {
+            int cmp = Arrays.compare(bytes, a[0], a[1], bytes, b[0], b[1]);
+            return cmp != 0 ? cmp : Integer.compare(a[2], b[2]);
+        });
+
+        int[] starts = new int[entries.size()];
+        int[] ends = new int[entries.size()];
+        int[] entryDocs = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            int[] entry = entries.get(i);
+            starts[i] = entry[0];
+            ends[i] = entry[1];
+            entryDocs[i] = entry[2];
+        }
+
+        Snapshot partial = new Snapshot(bytes, starts, ends, entryDocs, docs, Map.of());
+        Map<String, int[]> hot = new HashMap<>();
+        collectHotPrefixes(partial, 0, starts.length, 0, hot);
+        return new Snapshot(bytes, starts, ends, entryDocs, docs, hot);
+    }
+
+    /**
+     * Entries [from, to) share their first depth bytes. Split them by the next byte and precompute the
+     * best movies of every resulting prefix with more than HOT_RANGE entries, recursing into those.
+     */
+    private static void collectHotPrefixes(Snapshot snapshot, int from, int to, int depth, Map<String, int[]> hot) {
+        int i = from;
+        while (i < to) {
+            int start = snapshot.starts[i];
+            // Keys ending here sort first within the range
+            if (snapshot.ends[i] - start <= depth) {
+                i++;
+                continue;
+            }
+            byte next = snapshot.text[start + depth];
+            int j = i + 1;
+            while (j < to && snapshot.text[snapshot.starts[j] + depth] == next) {
+                j++;
+            }
+            if (j - i > HOT_RANGE) {
+                String prefix = new String(snapshot.text, start, depth + 1, StandardCharsets.US_ASCII);
+                hot.put(prefix, topOf(snapshot, i, j));
+                collectHotPrefixes(snapshot, i, j, depth + 1, hot);
+            }
+            i = j;
+        }
+    }
+
+    // Insertion into a small best-first array: most candidates lose to the current worst in one comparison
+    private static int[] topOf(Snapshot snapshot, int from, int to) {
+        int[] top = new int[HOT_TOP];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            int doc = snapshot.docs[i];
+            Suggestion candidate = snapshot.suggestions[doc];
+            if (size == HOT_TOP && RANKING.compare(candidate, snapshot.suggestions[top[size - 1]]) >= 0) {
+                continue;
+            }
+            if (contains(top, size, doc)) {
+                continue;
+            }
+            int pos = size == HOT_TOP ? size - 1 : size++;
+            while (pos > 0 && RANKING.compare(candidate, snapshot.suggestions[top[pos - 1]]) < 0) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = doc;
+        }
+        return Arrays.copyOf(top, size);
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> keysOf(Suggestion suggestion) {
+        List<String> keys = new ArrayList<>(2);
+        String title = normalize(suggestion.title());
+        if (!title.isEmpty()) {
+            keys.add(truncate(title));
+        }
+        String alias = normalize(suggestion.aliasTitle());
+        if (!alias.isEmpty() && !alias.equals(title)) {
+            keys.add(truncate(alias));
+        }
+        return keys;
+    }
+
+    // Offsets of the first MAX_WORD_STARTS words of a folded key
+    private static int[] wordStarts(String key) {
+        int[] starts = new int[MAX_WORD_STARTS];
+        int words = 0;
+        for (int i = 0; i < key.length() && words < MAX_WORD_STARTS; i++) {
+            if (i == 0 || key.charAt(i - 1) == ' ') {
+                starts[words++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, words);
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    // "Hồ Chí Minh: Đường Về" -> "ho chi minh duong ve"
+    private static String normalize(String text) {
+        return String.join(" ", MovieSearchIndex.tokenize(text));
+    }
+
+    private static Suggestion toSuggestion(Movie movie) {
+        float popularity = movie.getImdbRating() != null ? movie.getImdbRating().floatValue() : 0f;
+        long createdAt = movie.getCreatedAt() != null ? movie.getCreatedAt().toInstant().toEpochMilli() : 0;
+        return new Suggestion(movie.getMovieId(), movie.getTitle(), movie.getAliasTitle(), movie.getSlug(),
+                movie.getPosterUrl(), movie.getReleaseYear(), popularity, createdAt);
+    }
+}
@@ -0,0 +1,31 @@
+package demo.demo.services.movie;
+
+import java.util.UUID;
+
+import demo.demo.model.Movie;
+
+/**
+ * Published by MovieService after a movie row was created, updated or deleted,
+ * so in-memory read models (search index, counters, ...) can update just that movie.
+ * movie is the row as stored after the write, or null when the movie was deleted.
+ */
+public record MovieChangedEvent(Type type, UUID movieId, Movie movie) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static MovieChangedEvent created(Movie movie) {
+        return new MovieChangedEvent(Type.CREATED, movie.getMovieId(), movie);
+    }
+
+    public static MovieChangedEvent updated(Movie movie) {
+        return new MovieChangedEvent(Type.UPDATED, movie.getMovieId(), movie);
+    }
+
+    public static MovieChangedEvent deleted(UUID movieId) {
+        return new MovieChangedEvent(Type.DELETED, movieId, null);
+    }
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
@@ -0,0 +1,54 @@
+package demo.demo.services.movie;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.repository.MovieRepository;
+
+/**
+ * Number of movies in the catalog without a COUNT(*) per listing request.
+ * Loaded on first use, kept current from MovieChangedEvent, and re-read periodically
+ * to pick up writes made by other instances.
+ */
+@Component
+public class MovieCountTracker {
+
+    private final MovieRepository movieRepository;
+
+    // -1 until loaded
+    private final AtomicLong count = new AtomicLong(-1);
+
+    public MovieCountTracker(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    public long get() {
+        long current = count.get();
+        if (current < 0) {
+            current = movieRepository.countMovies();
+            count.compareAndSet(-1, current);
+        }
+        return current;
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> count.updateAndGet(n -> n < 0 ? n : n + 1);
+            case DELETED -> count.updateAndGet(n -> n < 0 ? n : Math.max(0, n - 1));
+            default -> { }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${movie.count.resync-ms:300000}", initialDelayString = "${movie.count.resync-ms:300000}")
+    public void resync() {
+        try {
+            count.set(movieRepository.countMovies());
+        } catch (Exception e) {
+            System.err.println("❌ Could not resync movie count: " + e.getMessage());
+        }
+    }
+}
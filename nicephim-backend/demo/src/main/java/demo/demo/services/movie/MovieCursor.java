@@ -0,0 +1,33 @@
+package demo.demo.services.movie;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Continuation token for the catalog listing: the (created_at, movie_id) of the last movie on a page.
+ * Clients get it as an opaque base64url string and send it back unchanged to get the next page.
+ */
+public record MovieCursor(Instant createdAt, UUID movieId) {
+
+    public static MovieCursor after(OffsetDateTime createdAt, UUID movieId) {
+        return new MovieCursor(createdAt.toInstant(), movieId);
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + movieId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MovieCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new MovieCursor(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor phân trang không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package demo.demo.services.movie;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Movie;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.media.HlsColdStore;
+import demo.demo.services.media.HlsMemoryCache;
+import demo.demo.services.media.MediaArea;
+import demo.demo.services.media.MediaLayout;
+import demo.demo.services.media.MediaReadCache;
+import demo.demo.services.media.MediaStorage;
+import demo.demo.services.video.HlsPlaylistService;
+import demo.demo.services.video.VideoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Finishes movie deletions in the background. Deleting a movie only tombstones its row (deleted_at);
+ * this worker then removes its watch rooms in bounded batches, deletes the media nobody else uses
+ * (HLS tree in both layouts and the cold tier, raw upload, poster, banner) and finally the row itself.
+ * Every step is idempotent, so a run that fails half way is simply repeated by the next one.
+ * Runs shortly after a local deletion and periodically for leftovers and deletions made on other nodes;
+ * edge nodes, whose media storage is read-only, leave the work to the origin.
+ */
+@Component
+public class MovieDeletionWorker {
+
+    // The raw upload keeps the original extension, which the row does not record
+    private static final List<String> UPLOAD_EXTENSIONS = List.of(".mp4", ".mkv", ".mov", ".ts", ".webm", ".avi", ".m4v", ".flv");
+
+    private final MovieRepository movieRepository;
+    private final MediaStorage mediaStorage;
+    private final MediaLayout mediaLayout;
+    private final MediaReadCache mediaReadCache;
+    private final HlsColdStore hlsColdStore;
+    private final HlsMemoryCache hlsMemoryCache;
+    private final HlsPlaylistService hlsPlaylistService;
+    private final VideoService videoService;
+    private final int moviesPerRun;
+    private final int roomBatchSize;
+    private final long delayMillis;
+    private final Counter purgedMovies;
+    private final Counter deletedRooms;
+    private final Counter reclaimedBytes;
+
+    private final AtomicBoolean runQueued = new AtomicBoolean();
+    private volatile long lastRunAt;
+    private volatile long lastRunBytes;
+    private volatile String lastError;
+
+    public MovieDeletionWorker(MovieRepository movieRepository, MediaStorage mediaStorage, MediaLayout mediaLayout,
+                               MediaReadCache mediaReadCache, HlsColdStore hlsColdStore, HlsMemoryCache hlsMemoryCache,
+                               HlsPlaylistService hlsPlaylistService, VideoService videoService, MeterRegistry meterRegistry,
+                               @Value("${movie.deletion.movies-per-run:50}") int moviesPerRun,
+                               @Value("${movie.deletion.room-batch-size:500}") int roomBatchSize,
+                               @Value("${movie.deletion.delay-ms:5000}") long delayMillis) {
+        this.movieRepository = movieRepository;
+        this.mediaStorage = mediaStorage;
+        this.mediaLayout = mediaLayout;
+        this.mediaReadCache = mediaReadCache;
+        this.hlsColdStore = hlsColdStore;
+        this.hlsMemoryCache = hlsMemoryCache;
+        this.hlsPlaylistService = hlsPlaylistService;
+        this.videoService = videoService;
+        this.moviesPerRun = moviesPerRun;
+        this.roomBatchSize = roomBatchSize;
+        this.delayMillis = delayMillis;
+        this.purgedMovies = Counter.builder("movie.deletion.purged").register(meterRegistry);
+        this.deletedRooms = Counter.builder("movie.deletion.rooms").register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("movie.deletion.reclaimed").baseUnit("bytes").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.isDeleted()) {
+            queueRun();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${movie.deletion.poll-ms:300000}", initialDelayString = "${movie.deletion.poll-ms:300000}")
+    public void poll() {
+        queueRun();
+    }
+
+    /**
+     * Run once after the delay; deletions arriving meanwhile are handled by that run
+     */
+    private void queueRun() {
+        // Edge nodes share the database but cannot delete media; the origin finishes their deletions
+        if (mediaStorage.isReadOnly() || !runQueued.compareAndSet(false, true)) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runQueued.set(false);
+            runQuietly();
+        }, "movie-deletion").start();
+    }
+
+    private synchronized void runQuietly() {
+        long runBytes = 0;
+        int runMovies = 0;
+        try {
+            List<Movie> batch;
+            UUID after = null;
+            do {
+                batch = movieRepository.findTombstonedMovies(moviesPerRun, after);
+                for (Movie movie : batch) {
+                    // A movie still encoding stays tombstoned and is skipped until a later run
+                    long freed = purge(movie);
+                    if (freed >= 0) {
+                        runBytes += freed;
+                        runMovies++;
+                    }
+                    after = movie.getMovieId();
+                }
+            } while (batch.size() == moviesPerRun);
+            lastError = null;
+        } catch (Exception e) {
+            // Retried by the next run
+            lastError = String.valueOf(e);
+            System.err.println("❌ Movie deletion run failed: " + e.getMessage());
+        } finally {
+            lastRunAt = System.currentTimeMillis();
+            lastRunBytes = runBytes;
+        }
+        if (runMovies > 0) {
+            System.out.println("🗑️ Purged " + runMovies + " deleted movies, reclaimed " + runBytes + " bytes");
+        }
+    }
+
+    /**
+     * Cascade one tombstoned movie; returns the bytes reclaimed, or -1 if it has to wait for a later run
+     */
+    private long purge(Movie movie) throws IOException {
+        String videoId = movie.getVideoId();
+        boolean ownsVideo = MediaLayout.isValidId(videoId)
+                && !movieRepository.isVideoUsedByOtherMovie(videoId, movie.getMovieId());
+        if (ownsVideo && videoService.getStatus(videoId) == VideoService.Status.PROCESSING) {
+            return -1;
+        }
+
+        int rooms;
+        do {
+            rooms = movieRepository.deleteWatchRoomsBatch(movie.getMovieId(), roomBatchSize);
+            deletedRooms.increment(rooms);
+        } while (rooms == roomBatchSize);
+
+        long freed = 0;
+        if (ownsVideo) {
+            freed += deleteVideo(videoId);
+        }
+        freed += deleteImage(movie.getPosterUrl(), movie);
+        if (movie.getBannerUrl() != null && !movie.getBannerUrl().equals(movie.getPosterUrl())) {
+            freed += deleteImage(movie.getBannerUrl(), movie);
+        }
+
+        movieRepository.purgeMovie(movie.getMovieId());
+        purgedMovies.increment();
+        reclaimedBytes.increment(freed);
+        return freed;
+    }
+
+    private long deleteVideo(String videoId) throws IOException {
+        String shardedKey = mediaLayout.shardedHlsKey(videoId);
+        String legacyKey = mediaLayout.legacyHlsKey(videoId);
+        long freed = mediaStorage.deleteTree(MediaArea.HLS, shardedKey)
+                + mediaStorage.deleteTree(MediaArea.HLS, legacyKey)
+                + hlsColdStore.deleteVideo(videoId);
+        hlsMemoryCache.evictVideo(videoId);
+        hlsPlaylistService.invalidate(videoId);
+        if (!mediaStorage.isLocal()) {
+            mediaReadCache.evictTree(MediaArea.HLS, shardedKey);
+            mediaReadCache.evictTree(MediaArea.HLS, legacyKey);
+        }
+        return freed + deleteUpload(videoId);
+    }
+
+    /**
+     * The raw upload <videoId><ext>: listed in its shard directory, probed by extension elsewhere
+     */
+    private long deleteUpload(String videoId) throws IOException {
+        long freed = 0;
+        Path shardDir = mediaLayout.getUploadRoot().resolve(MediaLayout.shardPrefix(videoId));
+        if (Files.isDirectory(shardDir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(shardDir, videoId + ".*")) {
+                for (Path file : files) {
+                    long size = Files.size(file);
+                    if (Files.deleteIfExists(file)) {
+                        freed += size;
+                    }
+                }
+            }
+        }
+
+        for (String extension : UPLOAD_EXTENSIONS) {
+            for (String filename : List.of(videoId + extension, videoId + extension.toUpperCase())) {
+                // Flat legacy file on local disk (not listed: the flat directory can be huge)
+                Path legacy = mediaLayout.getUploadRoot().resolve(filename);
+                if (Files.isRegularFile(legacy)) {
+                    long size = Files.size(legacy);
+                    if (Files.deleteIfExists(legacy)) {
+                        freed += size;
+                    }
+                }
+                if (!mediaStorage.isLocal()) {
+                    // Stored sharded or flat depending on the layout at upload time
+                    freed += deleteKey(MediaArea.UPLOAD, MediaLayout.shardPrefix(videoId) + "/" + filename)
+                            + deleteKey(MediaArea.UPLOAD, filename);
+                }
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Poster / banner file named by the URL, unless another movie still shows it
+     */
+    private long deleteImage(String imageUrl, Movie movie) throws IOException {
+        String filename = imageFilename(imageUrl);
+        if (filename == null || movieRepository.isImageUsedByOtherMovie(imageUrl, movie.getMovieId())) {
+            return 0;
+        }
+        // The URL does not say which upload endpoint stored it
+        return deleteKey(MediaArea.POSTER, filename) + deleteKey(MediaArea.BANNER, filename);
+    }
+
+    private long deleteKey(MediaArea area, String key) throws IOException {
+        long size = mediaStorage.size(area, key);
+        if (size < 0) {
+            return 0;
+        }
+        boolean deleted = mediaStorage.delete(area, key);
+        if (!mediaStorage.isLocal()) {
+            mediaReadCache.evictTree(area, key);
+        }
+        return deleted ? size : 0;
+    }
+
+    /**
+     * "http://localhost:8080/<uuid>.jpg" -> "<uuid>.jpg"; null for anything not uploaded through ImageController
+     */
+    private static String imageFilename(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return null;
+        }
+        String path;
+        try {
+            path = URI.create(imageUrl.trim()).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+        String filename = path.substring(path.lastIndexOf('/') + 1);
+        int dot = filename.lastIndexOf('.');
+        String stem = dot > 0 ? filename.substring(0, dot) : filename;
+        String extension = dot > 0 ? filename.substring(dot) : "";
+        if (!MediaLayout.isValidId(stem) || !extension.matches("(\\.[A-Za-z0-9]{1,10})?")) {
+            return null;
+        }
+        return filename;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", !mediaStorage.isReadOnly());
+        status.put("queued", runQueued.get());
+        status.put("pending", movieRepository.countTombstonedMovies());
+        status.put("purgedMovies", (long) purgedMovies.count());
+        status.put("deletedRooms", (long) deletedRooms.count());
+        status.put("lastRunBytesReclaimed", lastRunBytes);
+        status.put("totalBytesReclaimed", (long) reclaimedBytes.count());
+        status.put("lastRunAt", lastRunAt);
+        status.put("lastError", lastError);
+        return status;
+    }
+}
@@ -0,0 +1,452 @@
+package demo.demo.services.movie;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Genre;
+import demo.demo.model.Movie;
+import demo.demo.repository.GenreRepository;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.genre.GenreChangedEvent;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory bitmaps over the catalog for filtering by genre, release year, IMDb rating and series flag.
+ * Each movie gets an ordinal (bit position) in creation order, so walking a result bitmap from the highest
+ * bit down lists it newest first without sorting. Filters are bitmap intersections and facet counts are
+ * cardinalities of intersections, so a request never touches the database until the page is loaded.
+ *
+ * Built once the application is ready, then kept in sync through MovieChangedEvent,
+ * MovieGenresChangedEvent and GenreChangedEvent.
+ */
+@Component
+public class MovieFacetIndex {
+
+    // imdb_rating is DECIMAL(3,1): one bitmap per tenth, 0.0 .. 10.0
+    private static final int RATING_SLOTS = 101;
+
+    private final MovieRepository movieRepository;
+    private final GenreRepository genreRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Facets facets = new Facets();
+    private volatile boolean ready;
+    // Events received while the startup build runs, replayed on top of it
+    private List<Object> pendingDuringBuild;
+
+    /**
+     * Filter values; null (or empty genreIds) means "any". Movies must have every genre in genreIds.
+     */
+    public record Filter(Set<UUID> genreIds, Integer yearFrom, Integer yearTo, BigDecimal minRating, Boolean series) {}
+
+    /**
+     * One page of movie ids (newest first), the number of matches, and facet counts.
+     * Genre counts are within the current result; year, rating and series counts ignore their own filter
+     * so the client can show the alternatives.
+     */
+    public record Result(List<UUID> movieIds, int total, Map<UUID, Integer> genreCounts, Map<Integer, Integer> yearCounts,
+                         Map<Integer, Integer> ratingCounts, int seriesCount, int movieCount) {}
+
+    private static final class Facets {
+        final List<UUID> ids = new ArrayList<>();
+        final Map<UUID, Integer> ordinals = new HashMap<>();
+        final BitSet live = new BitSet();
+        final BitSet series = new BitSet();
+        final Map<UUID, BitSet> byGenre = new HashMap<>();
+        final TreeMap<Integer, BitSet> byYear = new TreeMap<>();
+        final BitSet[] byRating = new BitSet[RATING_SLOTS];
+        // Current values per ordinal, to clear the old bits on update
+        final Map<Integer, Integer> yearOf = new HashMap<>();
+        final Map<Integer, Integer> ratingOf = new HashMap<>();
+        final Map<Integer, Set<UUID>> genresOf = new HashMap<>();
+
+        Facets() {
+            for (int i = 0; i < RATING_SLOTS; i++) {
+                byRating[i] = new BitSet();
+            }
+        }
+
+        void put(Movie movie) {
+            Integer ordinal = ordinals.get(movie.getMovieId());
+            if (ordinal == null) {
+                ordinal = ids.size();
+                ids.add(movie.getMovieId());
+                ordinals.put(movie.getMovieId(), ordinal);
+            }
+            live.set(ordinal);
+            series.set(ordinal, movie.isSeries());
+
+            Integer oldYear = yearOf.remove(ordinal);
+            if (oldYear != null) {
+                byYear.get(oldYear).clear(ordinal);
+            }
+            if (movie.getReleaseYear() != null) {
+                int year = movie.getReleaseYear();
+                byYear.computeIfAbsent(year, k -> new BitSet()).set(ordinal);
+                yearOf.put(ordinal, year);
+            }
+
+            Integer oldRating = ratingOf.remove(ordinal);
+            if (oldRating != null) {
+                byRating[oldRating].clear(ordinal);
+            }
+            if (movie.getImdbRating() != null) {
+                int slot = ratingSlot(movie.getImdbRating());
+                byRating[slot].set(ordinal);
+                ratingOf.put(ordinal, slot);
+            }
+        }
+
+        void remove(UUID movieId) {
+            Integer ordinal = ordinals.remove(movieId);
+            if (ordinal == null) {
+                return;
+            }
+            live.clear(ordinal);
+            series.clear(ordinal);
+            Integer year = yearOf.remove(ordinal);
+            if (year != null) {
+                byYear.get(year).clear(ordinal);
+            }
+            Integer rating = ratingOf.remove(ordinal);
+            if (rating != null) {
+                byRating[rating].clear(ordinal);
+            }
+            setGenres(ordinal, Set.of());
+        }
+
+        void setGenres(int ordinal, Set<UUID> genreIds) {
+            Set<UUID> old = genresOf.remove(ordinal);
+            if (old != null) {
+                for (UUID genreId : old) {
+                    BitSet bits = byGenre.get(genreId);
+                    if (bits != null) {
+                        bits.clear(ordinal);
+                    }
+                }
+            }
+            if (!genreIds.isEmpty()) {
+                for (UUID genreId : genreIds) {
+                    byGenre.computeIfAbsent(genreId, k -> new BitSet()).set(ordinal);
+                }
+                genresOf.put(ordinal, new HashSet<>(genreIds));
+            }
+        }
+
+        void addGenre(UUID movieId, UUID genreId) {
+            Integer ordinal = ordinals.get(movieId);
+            if (ordinal != null) {
+                byGenre.computeIfAbsent(genreId, k -> new BitSet()).set(ordinal);
+                genresOf.computeIfAbsent(ordinal, k -> new HashSet<>()).add(genreId);
+            }
+        }
+
+        void removeGenre(UUID genreId) {
+            BitSet bits = byGenre.remove(genreId);
+            if (bits != null) {
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    Set<UUID> genres = genresOf.get(i);
+                    if (genres != null) {
+                        genres.remove(genreId);
+                    }
+                }
+            }
+        }
+    }
+
+    public MovieFacetIndex(MovieRepository movieRepository, GenreRepository genreRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        Gauge.builder("movie.facets.movies", this, MovieFacetIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Facets built = new Facets();
+            movieRepository.forEachMovie(built::put);
+            genreRepository.forEachMovieGenre(built::addGenre);
+
+            while (true) {
+                List<Object> pending;
+                lock.writeLock().lock();
+                try {
+                    pending = pendingDuringBuild;
+                    if (pending.isEmpty()) {
+                        // Swap and stop deferring at once, so later events go to the new facets after the replayed ones
+                        facets = built;
+                        pendingDuringBuild = null;
+                        break;
+                    }
+                    pendingDuringBuild = new ArrayList<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                // built is not visible yet: replay on it without the lock, oldest first; events arriving
+                // meanwhile are queued for the next round
+                for (Object event : pending) {
+                    applyTo(built, event, genresOf(event));
+                }
+            }
+            ready = true;
+            System.out.println("🧮 Facet index built: " + size() + " movies, " + built.byGenre.size() + " genres in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("❌ Could not build facet index: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (!deferDuringBuild(event)) {
+            apply(event);
+        }
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        if (!deferDuringBuild(event)) {
+            apply(event);
+        }
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        if (event.type() == GenreChangedEvent.Type.DELETED && !deferDuringBuild(event)) {
+            apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return facets.ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result query(Filter filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Facets f = facets;
+
+            BitSet genreBits = copyOf(f.live);
+            if (filter.genreIds() != null) {
+                for (UUID genreId : filter.genreIds()) {
+                    BitSet bits = f.byGenre.get(genreId);
+                    if (bits == null) {
+                        genreBits.clear();
+                        break;
+                    }
+                    genreBits.and(bits);
+                }
+            }
+            BitSet yearBits = yearRange(f, filter.yearFrom(), filter.yearTo());
+            BitSet ratingBits = null;
+            if (filter.minRating() != null) {
+                // 7.05 -> slots from 7.1 up
+                int fromSlot = filter.minRating().movePointRight(1).setScale(0, RoundingMode.CEILING).intValue();
+                ratingBits = ratingsFrom(f, Math.max(0, fromSlot));
+            }
+            BitSet seriesBits = null;
+            if (filter.series() != null) {
+                seriesBits = copyOf(f.series);
+                if (!filter.series()) {
+                    seriesBits.flip(0, f.ids.size());
+                }
+            }
+
+            BitSet result = intersect(genreBits, yearBits, ratingBits, seriesBits);
+
+            List<UUID> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int i = result.previousSetBit(result.length() - 1); i >= 0 && page.size() < limit; i = result.previousSetBit(i - 1)) {
+                if (skipped++ >= offset) {
+                    page.add(f.ids.get(i));
+                }
+            }
+
+            Map<UUID, Integer> genreCounts = new HashMap<>();
+            for (Map.Entry<UUID, BitSet> genre : f.byGenre.entrySet()) {
+                int count = intersectionSize(genre.getValue(), result);
+                if (count > 0) {
+                    genreCounts.put(genre.getKey(), count);
+                }
+            }
+
+            BitSet withoutYear = intersect(genreBits, null, ratingBits, seriesBits);
+            Map<Integer, Integer> yearCounts = new LinkedHashMap<>();
+            for (Map.Entry<Integer, BitSet> year : f.byYear.descendingMap().entrySet()) {
+                int count = intersectionSize(year.getValue(), withoutYear);
+                if (count > 0) {
+                    yearCounts.put(year.getKey(), count);
+                }
+            }
+
+            // Whole-star buckets: 7 -> 7.0 .. 7.9
+            BitSet withoutRating = intersect(genreBits, yearBits, null, seriesBits);
+            Map<Integer, Integer> ratingCounts = new LinkedHashMap<>();
+            for (int star = 10; star >= 0; star--) {
+                int count = 0;
+                for (int slot = star * 10; slot < Math.min(star * 10 + 10, RATING_SLOTS); slot++) {
+                    count += intersectionSize(f.byRating[slot], withoutRating);
+                }
+                if (count > 0) {
+                    ratingCounts.put(star, count);
+                }
+            }
+
+            BitSet withoutSeries = intersect(genreBits, yearBits, ratingBits, null);
+            int seriesCount = intersectionSize(f.series, withoutSeries);
+
+            return new Result(page, result.cardinality(), genreCounts, yearCounts, ratingCounts,
+                    seriesCount, withoutSeries.cardinality() - seriesCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean deferDuringBuild(Object event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(event);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Object event) {
+        // Read the movie's genres before taking the lock
+        Set<UUID> genreIds = genresOf(event);
+
+        lock.writeLock().lock();
+        try {
+            applyTo(facets, event, genreIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Genres of the movie for an assignment change (read back when the event does not carry them), else null
+    private Set<UUID> genresOf(Object event) {
+        if (!(event instanceof MovieGenresChangedEvent changed)) {
+            return null;
+        }
+        if (changed.genreIds() != null) {
+            return changed.genreIds();
+        }
+        Set<UUID> genreIds = new HashSet<>();
+        for (Genre genre : genreRepository.findGenresByMovieId(changed.movieId())) {
+            genreIds.add(genre.getGenreId());
+        }
+        return genreIds;
+    }
+
+    private static void applyTo(Facets target, Object event, Set<UUID> genreIds) {
+        if (event instanceof MovieChangedEvent changed) {
+            if (changed.isDeleted()) {
+                target.remove(changed.movieId());
+            } else {
+                target.put(changed.movie());
+            }
+        } else if (event instanceof MovieGenresChangedEvent changed) {
+            Integer ordinal = target.ordinals.get(changed.movieId());
+            if (ordinal != null) {
+                target.setGenres(ordinal, genreIds);
+            }
+        } else if (event instanceof GenreChangedEvent changed) {
+            target.removeGenre(changed.genreId());
+        }
+    }
+
+    private static BitSet yearRange(Facets f, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        BitSet bits = new BitSet();
+        Collection<BitSet> years = f.byYear.subMap(
+                from != null ? from : Integer.MIN_VALUE, true, to != null ? to : Integer.MAX_VALUE, true).values();
+        years.forEach(bits::or);
+        return bits;
+    }
+
+    private static BitSet ratingsFrom(Facets f, int fromSlot) {
+        BitSet bits = new BitSet();
+        for (int slot = fromSlot; slot < RATING_SLOTS; slot++) {
+            bits.or(f.byRating[slot]);
+        }
+        return bits;
+    }
+
+    // AND of the non-null sets (first is never null)
+    private static BitSet intersect(BitSet first, BitSet... others) {
+        BitSet bits = copyOf(first);
+        for (BitSet other : others) {
+            if (other != null) {
+                bits.and(other);
+            }
+        }
+        return bits;
+    }
+
+    // Walks the bits of a (a facet value, usually much sparser than b) instead of allocating an intersection
+    private static int intersectionSize(BitSet a, BitSet b) {
+        int count = 0;
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+            if (b.get(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BitSet copyOf(BitSet bits) {
+        return (BitSet) bits.clone();
+    }
+
+    private static int ratingSlot(BigDecimal rating) {
+        int slot = rating.movePointRight(1).intValue();
+        return Math.max(0, Math.min(RATING_SLOTS - 1, slot));
+    }
+}
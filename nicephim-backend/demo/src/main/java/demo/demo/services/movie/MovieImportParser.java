@@ -0,0 +1,212 @@
+package demo.demo.services.movie;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import demo.demo.dto.movie.MovieImportRow;
+
+/**
+ * Reads bulk import files into MovieImportRow. A row that cannot be read is returned with an error
+ * instead of failing the whole file.
+ *
+ * NDJSON: one CreateMovieRequest-shaped object per line (plus optional "genres": [names]).
+ * CSV (RFC 4180, header row required): columns named like the JSON fields, in any order;
+ * genreIds and genres hold several values separated by ';'.
+ */
+public final class MovieImportParser {
+
+    public record ParsedRow(int row, MovieImportRow movie, String error) { }
+
+    private static final String LIST_SEPARATOR = ";";
+
+    private MovieImportParser() {
+    }
+
+    public static List<ParsedRow> parseNdjson(Reader reader, ObjectMapper objectMapper) throws IOException {
+        List<ParsedRow> rows = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int row = 0;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                rows.add(new ParsedRow(row, objectMapper.readValue(line, MovieImportRow.class), null));
+            } catch (JsonProcessingException e) {
+                rows.add(new ParsedRow(row, null, "Dòng JSON không hợp lệ: " + e.getOriginalMessage()));
+            }
+        }
+        return rows;
+    }
+
+    public static List<ParsedRow> parseCsv(Reader reader) throws IOException {
+        List<ParsedRow> rows = new ArrayList<>();
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return rows;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Excel prefixes UTF-8 files with a byte order mark
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IllegalArgumentException("File CSV phải có cột title");
+        }
+
+        List<String> record;
+        int row = 0;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                rows.add(new ParsedRow(row, toRow(record, columns), null));
+            } catch (IllegalArgumentException e) {
+                rows.add(new ParsedRow(row, null, e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    private static MovieImportRow toRow(List<String> record, Map<String, Integer> columns) {
+        MovieImportRow movie = new MovieImportRow();
+        movie.title = value(record, columns, "title");
+        movie.aliasTitle = value(record, columns, "aliastitle");
+        movie.description = value(record, columns, "description");
+        movie.ageRating = value(record, columns, "agerating");
+        movie.posterUrl = value(record, columns, "posterurl");
+        movie.bannerUrl = value(record, columns, "bannerurl");
+        movie.videoId = value(record, columns, "videoid");
+        movie.hlsUrl = value(record, columns, "hlsurl");
+        String videoStatus = value(record, columns, "videostatus");
+        if (videoStatus != null) {
+            movie.videoStatus = videoStatus;
+        }
+
+        String releaseYear = value(record, columns, "releaseyear");
+        String imdbRating = value(record, columns, "imdbrating");
+        String genreIds = value(record, columns, "genreids");
+        try {
+            movie.releaseYear = releaseYear != null ? Short.valueOf(releaseYear) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Năm phát hành không hợp lệ: " + releaseYear);
+        }
+        try {
+            movie.imdbRating = imdbRating != null ? new BigDecimal(imdbRating) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Điểm IMDB không hợp lệ: " + imdbRating);
+        }
+        try {
+            movie.genreIds = genreIds != null ? split(genreIds).stream().map(UUID::fromString).collect(Collectors.toList()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Mã thể loại không hợp lệ: " + genreIds);
+        }
+        String series = value(record, columns, "isseries");
+        movie.isSeries = series != null && (series.equalsIgnoreCase("true") || series.equals("1"));
+        String genres = value(record, columns, "genres");
+        movie.genres = genres != null ? split(genres) : null;
+        return movie;
+    }
+
+    // Trimmed cell, or null when the column is missing or the cell is empty
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(LIST_SEPARATOR))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, newlines and "" for a quote
+     */
+    private static final class CsvReader {
+        private final Reader reader;
+        private int pending = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("File CSV có trường trong ngoặc kép chưa đóng");
+                    }
+                    if (c == '"') {
+                        int after = read();
+                        if (after == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = after;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int after = read();
+                        if (after != '\n') {
+                            pending = after;
+                        }
+                    }
+                    record.add(field.toString());
+                    return record;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package demo.demo.services.movie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import demo.demo.dto.movie.MovieImportResult;
+import demo.demo.dto.movie.MovieImportRow;
+import demo.demo.model.Genre;
+import demo.demo.model.Movie;
+import demo.demo.repository.GenreRepository;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk movie import. Rows are validated in memory (bean validation plus a genre snapshot read once),
+ * slugs are allocated against the set of slugs already in use, and valid rows are written chunk by chunk:
+ * each chunk is one transaction with one batched INSERT for movies and one for movie_genres.
+ * A chunk the database rejects (e.g. a slug taken concurrently) is retried row by row so only the bad rows fail.
+ */
+@Service
+public class MovieImportService {
+
+    private final MovieRepository movieRepository;
+    private final GenreRepository genreRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    private record PreparedRow(int row, Movie movie, Set<UUID> genreIds) { }
+
+    public MovieImportService(MovieRepository movieRepository, GenreRepository genreRepository, Validator validator,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                              @Value("${movie.import.chunk-size:500}") int chunkSize) {
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public MovieImportResult importMovies(List<MovieImportParser.ParsedRow> rows, UUID createdBy) {
+        long start = System.nanoTime();
+        MovieImportResult result = new MovieImportResult();
+        result.received = rows.size();
+
+        List<Genre> genres = genreRepository.findAllGenres();
+        Set<UUID> genreIds = genres.stream().map(Genre::getGenreId).collect(Collectors.toSet());
+        Map<String, UUID> genreIdsByName = new HashMap<>();
+        for (Genre genre : genres) {
+            genreIdsByName.put(genre.getName().trim().toLowerCase(Locale.ROOT), genre.getGenreId());
+        }
+        Set<String> takenSlugs = movieRepository.findAllSlugs();
+
+        List<PreparedRow> valid = new ArrayList<>();
+        for (MovieImportParser.ParsedRow parsed : rows) {
+            if (parsed.error() != null) {
+                result.errors.add(new MovieImportResult.RowError(parsed.row(), null, parsed.error()));
+                continue;
+            }
+            String error = validate(parsed.movie(), genreIds, genreIdsByName);
+            if (error != null) {
+                result.errors.add(new MovieImportResult.RowError(parsed.row(), parsed.movie().title, error));
+                continue;
+            }
+            valid.add(prepare(parsed, createdBy, genreIdsByName, takenSlugs));
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<PreparedRow> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            result.imported += writeChunk(chunk, result);
+        }
+
+        result.errors.sort((a, b) -> Integer.compare(a.row, b.row));
+        result.failed = result.errors.size();
+        result.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        result.rowsPerSecond = result.elapsedMs > 0 ? result.imported * 1000.0 / result.elapsedMs : result.imported;
+        System.out.println("📥 Imported " + result.imported + "/" + result.received + " movies in " + result.elapsedMs
+                + " ms (" + Math.round(result.rowsPerSecond) + " rows/s, " + result.failed + " rejected)");
+        return result;
+    }
+
+    private String validate(MovieImportRow movie, Set<UUID> genreIds, Map<String, UUID> genreIdsByName) {
+        if (movie.title == null || movie.title.trim().isEmpty()) {
+            return "Tên phim không được để trống";
+        }
+        Set<ConstraintViolation<MovieImportRow>> violations = validator.validate(movie);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (movie.genreIds != null) {
+            for (UUID genreId : movie.genreIds) {
+                if (genreId == null || !genreIds.contains(genreId)) {
+                    return "Thể loại không tồn tại: " + genreId;
+                }
+            }
+        }
+        if (movie.genres != null) {
+            for (String name : movie.genres) {
+                if (name == null || !genreIdsByName.containsKey(name.trim().toLowerCase(Locale.ROOT))) {
+                    return "Thể loại không tồn tại: " + name;
+                }
+            }
+        }
+        return null;
+    }
+
+    private PreparedRow prepare(MovieImportParser.ParsedRow parsed, UUID createdBy,
+                                Map<String, UUID> genreIdsByName, Set<String> takenSlugs) {
+        MovieImportRow row = parsed.movie();
+        Movie movie = new Movie();
+        movie.setMovieId(UUID.randomUUID());
+        movie.setTitle(row.title.trim());
+        movie.setAliasTitle(row.aliasTitle != null ? row.aliasTitle.trim() : null);
+        movie.setDescription(row.description);
+        movie.setReleaseYear(row.releaseYear);
+        movie.setAgeRating(row.ageRating);
+        movie.setImdbRating(row.imdbRating);
+        movie.setSeries(row.isSeries);
+        movie.setPosterUrl(row.posterUrl);
+        movie.setBannerUrl(row.bannerUrl);
+        movie.setCreatedBy(createdBy);
+        movie.setVideoId(row.videoId);
+        movie.setHlsUrl(row.hlsUrl);
+        movie.setVideoStatus(row.videoStatus);
+
+        // Same rule as MovieRepository.allocateSlug, but against the in-memory set
+        String base = MovieSlugs.forTitle(movie.getTitle(), movie.getMovieId());
+        String slug = base;
+        for (int n = 2; takenSlugs.contains(slug); n++) {
+            slug = MovieSlugs.withSuffix(base, n);
+        }
+        takenSlugs.add(slug);
+        movie.setSlug(slug);
+
+        Set<UUID> genreIds = new LinkedHashSet<>();
+        if (row.genreIds != null) {
+            genreIds.addAll(row.genreIds);
+        }
+        if (row.genres != null) {
+            row.genres.forEach(name -> genreIds.add(genreIdsByName.get(name.trim().toLowerCase(Locale.ROOT))));
+        }
+        return new PreparedRow(parsed.row(), movie, genreIds);
+    }
+
+    /**
+     * Write one chunk in a single transaction; on failure fall back to one transaction per row.
+     * Returns the number of movies written.
+     */
+    private int writeChunk(List<PreparedRow> chunk, MovieImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            publishCreated(chunk);
+            return chunk.size();
+        } catch (DataAccessException e) {
+            System.err.println("❌ Import chunk rejected, retrying row by row: " + e.getMostSpecificCause().getMessage());
+        }
+
+        int written = 0;
+        for (PreparedRow row : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // The slug may have been taken by a concurrent write since the snapshot
+                    Movie movie = row.movie();
+                    movie.setSlug(movieRepository.allocateSlug(MovieSlugs.forTitle(movie.getTitle(), movie.getMovieId()), movie.getMovieId()));
+                    insert(List.of(row));
+                });
+                publishCreated(List.of(row));
+                written++;
+            } catch (DataAccessException e) {
+                result.errors.add(new MovieImportResult.RowError(row.row(), row.movie().getTitle(),
+                        "Lỗi cơ sở dữ liệu: " + e.getMostSpecificCause().getMessage()));
+            }
+        }
+        return written;
+    }
+
+    private void insert(List<PreparedRow> rows) {
+        movieRepository.batchInsertMovies(rows.stream().map(PreparedRow::movie).collect(Collectors.toList()), chunkSize);
+        List<UUID[]> assignments = new ArrayList<>();
+        for (PreparedRow row : rows) {
+            for (UUID genreId : row.genreIds()) {
+                assignments.add(new UUID[] { row.movie().getMovieId(), genreId });
+            }
+        }
+        if (!assignments.isEmpty()) {
+            genreRepository.batchAddGenresToMovies(assignments, chunkSize);
+        }
+    }
+
+    /**
+     * Tell the in-memory read models about committed rows: re-read them once per chunk for created_at,
+     * and pass the genre ids along so listeners need no per-movie genre query
+     */
+    private void publishCreated(List<PreparedRow> rows) {
+        Map<UUID, Movie> stored = movieRepository.findMoviesByIds(
+                rows.stream().map(row -> row.movie().getMovieId()).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Movie::getMovieId, Function.identity()));
+        for (PreparedRow row : rows) {
+            Movie movie = stored.get(row.movie().getMovieId());
+            if (movie == null) {
+                continue;
+            }
+            eventPublisher.publishEvent(MovieChangedEvent.created(movie));
+            if (!row.genreIds().isEmpty()) {
+                eventPublisher.publishEvent(new MovieGenresChangedEvent(movie.getMovieId(), row.genreIds()));
+            }
+        }
+    }
+}
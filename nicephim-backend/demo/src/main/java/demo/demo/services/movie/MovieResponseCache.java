@@ -0,0 +1,248 @@
+package demo.demo.services.movie;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import demo.demo.dto.genre.GenreResponse;
+import demo.demo.dto.movie.MovieResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded read-through cache of MovieResponse by movieId and by slug.
+ * Entries expire after a TTL and are evicted least-recently-used once the estimated size exceeds the budget.
+ * Writers must call invalidate(movieId) (or invalidateAll for genre renames) after changing a movie.
+ * Cached responses are shared, callers must treat them as read-only.
+ */
+@Component
+public class MovieResponseCache {
+
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    // movieId -> entry, access-ordered for LRU eviction
+    private final LinkedHashMap<UUID, Entry> byId = new LinkedHashMap<>(256, 0.75f, true);
+    // lower-cased slug -> movieId
+    private final Map<String, UUID> idBySlug = new HashMap<>();
+    private long currentBytes;
+
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter idHits;
+    private final Counter idMisses;
+    private final Counter slugHits;
+    private final Counter slugMisses;
+    private final Counter evictions;
+
+    private static final class Entry {
+        final MovieResponse movie;
+        final long bytes;
+        final long expiresAt;
+        final List<String> slugs = new ArrayList<>(1);
+
+        Entry(MovieResponse movie, long bytes, long expiresAt) {
+            this.movie = movie;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public MovieResponseCache(MeterRegistry meterRegistry,
+                              @Value("${movie.cache.max-bytes:33554432}") long maxBytes,
+                              @Value("${movie.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxBytes = maxBytes;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+
+        this.idHits = Counter.builder("movie.cache.requests").tag("key", "id").tag("result", "hit").register(meterRegistry);
+        this.idMisses = Counter.builder("movie.cache.requests").tag("key", "id").tag("result", "miss").register(meterRegistry);
+        this.slugHits = Counter.builder("movie.cache.requests").tag("key", "slug").tag("result", "hit").register(meterRegistry);
+        this.slugMisses = Counter.builder("movie.cache.requests").tag("key", "slug").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("movie.cache.evictions").register(meterRegistry);
+        Gauge.builder("movie.cache.entries", this, MovieResponseCache::size).register(meterRegistry);
+        Gauge.builder("movie.cache.bytes", this, MovieResponseCache::getCurrentBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Get movie by id, loading it on a miss (loader may return null for "not found", which is not cached)
+     */
+    public MovieResponse getById(UUID movieId, Supplier<MovieResponse> loader) {
+        long gen = generation.get();
+        synchronized (this) {
+            Entry entry = liveEntry(movieId);
+            if (entry != null) {
+                idHits.increment();
+                return entry.movie;
+            }
+        }
+        idMisses.increment();
+
+        MovieResponse loaded = loader.get();
+        if (loaded != null) {
+            put(loaded, null, gen);
+        }
+        return loaded;
+    }
+
+    /**
+     * Get several movies by id: hits come from the cache, all misses are handed to the loader at once.
+     * The result maps each found id to its movie; ids the loader does not return are left out.
+     */
+    public Map<UUID, MovieResponse> getAllById(Collection<UUID> movieIds, Function<List<UUID>, List<MovieResponse>> loader) {
+        Map<UUID, MovieResponse> found = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        long gen = generation.get();
+        synchronized (this) {
+            for (UUID movieId : movieIds) {
+                Entry entry = liveEntry(movieId);
+                if (entry != null) {
+                    found.put(movieId, entry.movie);
+                } else {
+                    misses.add(movieId);
+                }
+            }
+        }
+        idHits.increment(found.size());
+        idMisses.increment(misses.size());
+
+        if (!misses.isEmpty()) {
+            for (MovieResponse loaded : loader.apply(misses)) {
+                found.put(loaded.movieId, loaded);
+                put(loaded, null, gen);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get movie by slug, loading it on a miss
+     */
+    public MovieResponse getBySlug(String slug, Supplier<MovieResponse> loader) {
+        String key = slug.toLowerCase(Locale.ROOT);
+        long gen = generation.get();
+        synchronized (this) {
+            UUID movieId = idBySlug.get(key);
+            Entry entry = movieId != null ? liveEntry(movieId) : null;
+            if (entry != null) {
+                slugHits.increment();
+                return entry.movie;
+            }
+        }
+        slugMisses.increment();
+
+        MovieResponse loaded = loader.get();
+        if (loaded != null) {
+            put(loaded, key, gen);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop one movie (after update, poster/banner change, delete or genre assignment)
+     */
+    public synchronized void invalidate(UUID movieId) {
+        generation.incrementAndGet();
+        remove(movieId);
+    }
+
+    /**
+     * Drop everything (e.g. a genre was renamed or deleted)
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        byId.clear();
+        idBySlug.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    private synchronized void put(MovieResponse movie, String slug, long loadedAtGeneration) {
+        // A write happened while loading: the loaded value may be stale
+        if (generation.get() != loadedAtGeneration || movie.movieId == null) {
+            return;
+        }
+
+        Entry entry = byId.get(movie.movieId);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            if (entry != null) {
+                remove(movie.movieId);
+            }
+            entry = new Entry(movie, estimateBytes(movie), System.currentTimeMillis() + ttlMillis);
+            byId.put(movie.movieId, entry);
+            currentBytes += entry.bytes;
+        }
+        if (slug != null && !entry.slugs.contains(slug)) {
+            entry.slugs.add(slug);
+            idBySlug.put(slug, movie.movieId);
+        }
+
+        Iterator<Map.Entry<UUID, Entry>> it = byId.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<UUID, Entry> eldest = it.next();
+            it.remove();
+            currentBytes -= eldest.getValue().bytes;
+            eldest.getValue().slugs.forEach(idBySlug::remove);
+            evictions.increment();
+        }
+    }
+
+    private Entry liveEntry(UUID movieId) {
+        Entry entry = byId.get(movieId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            remove(movieId);
+            return null;
+        }
+        return entry;
+    }
+
+    private void remove(UUID movieId) {
+        Entry entry = byId.remove(movieId);
+        if (entry != null) {
+            currentBytes -= entry.bytes;
+            entry.slugs.forEach(idBySlug::remove);
+        }
+    }
+
+    // Rough heap size: object headers/fields plus 2 bytes per char of every string
+    private long estimateBytes(MovieResponse movie) {
+        long bytes = 256;
+        bytes += chars(movie.title) + chars(movie.aliasTitle) + chars(movie.description)
+                + chars(movie.ageRating) + chars(movie.posterUrl) + chars(movie.bannerUrl)
+                + chars(movie.videoId) + chars(movie.hlsUrl) + chars(movie.videoStatus);
+        if (movie.genres != null) {
+            for (GenreResponse genre : movie.genres) {
+                bytes += 64 + chars(genre.name);
+            }
+        }
+        return bytes;
+    }
+
+    private long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
@@ -0,0 +1,375 @@
+package demo.demo.services.movie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Movie;
+import demo.demo.repository.MovieRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory inverted index over movie title, alias title and description.
+ * Text is folded with MovieSlugs.fold so "ho chi" matches "Hồ Chí"; title and alias words are also indexed
+ * by their edge n-grams so a partially typed word matches. Description words are indexed whole only,
+ * which keeps the index small (descriptions are long and rarely searched by prefix).
+ *
+ * Built once the application is ready, then kept in sync through MovieChangedEvent.
+ * Until the first build completes isReady() is false and callers should fall back to the database.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float ALIAS_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.5f;
+    // A prefix hit ("ho" in "hoa") is worth less than the whole word
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 20;
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private final MovieRepository movieRepository;
+    private final Timer queryTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (doc ordinal, weight) sorted by ordinal
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    // ordinal -> doc, null once the movie is deleted
+    private final List<Doc> docs = new ArrayList<>();
+
+    private volatile boolean ready;
+    // Movies written while the startup build runs: the build must not overwrite them with the row it read earlier
+    private Set<UUID> touchedDuringBuild;
+
+    // postings holds the lists the doc is in, so it can be unindexed without re-tokenizing
+    private record Doc(UUID movieId, String title, String alias, double rating, long createdAt, Postings[] postings) {}
+
+    private record Hit(Doc doc, float score) {}
+
+    /**
+     * One page of ranked movie ids plus the total number of matches
+     */
+    public record Page(List<UUID> movieIds, long total) {}
+
+    // Best first: score, then rating, then newest; movieId keeps the order stable between pages
+    private static final Comparator<Hit> RANKING = (a, b) -> {
+        int cmp = Float.compare(b.score(), a.score());
+        if (cmp == 0) {
+            cmp = Double.compare(b.doc().rating(), a.doc().rating());
+        }
+        if (cmp == 0) {
+            cmp = Long.compare(b.doc().createdAt(), a.doc().createdAt());
+        }
+        return cmp != 0 ? cmp : a.doc().movieId().compareTo(b.doc().movieId());
+    };
+
+    /**
+     * Growable parallel arrays, cheaper than a Map<Integer, Float> per term
+     */
+    private static final class Postings {
+        final String term;
+        int[] docs = new int[2];
+        float[] weights = new float[2];
+        int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void put(int doc, float weight) {
+            int idx = Arrays.binarySearch(docs, 0, size, doc);
+            if (idx >= 0) {
+                weights[idx] = weight;
+                return;
+            }
+            idx = -idx - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, idx, docs, idx + 1, size - idx);
+            System.arraycopy(weights, idx, weights, idx + 1, size - idx);
+            docs[idx] = doc;
+            weights[idx] = weight;
+            size++;
+        }
+
+        void remove(int doc) {
+            int idx = Arrays.binarySearch(docs, 0, size, doc);
+            if (idx < 0) {
+                return;
+            }
+            System.arraycopy(docs, idx + 1, docs, idx, size - idx - 1);
+            System.arraycopy(weights, idx + 1, weights, idx, size - idx - 1);
+            size--;
+        }
+
+        float weightOf(int doc) {
+            int idx = Arrays.binarySearch(docs, 0, size, doc);
+            return idx >= 0 ? weights[idx] : 0f;
+        }
+    }
+
+    public MovieSearchIndex(MovieRepository movieRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.queryTimer = Timer.builder("movie.search.query").register(meterRegistry);
+        Gauge.builder("movie.search.index.movies", this, MovieSearchIndex::size).register(meterRegistry);
+        Gauge.builder("movie.search.index.terms", this, MovieSearchIndex::termCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            movieRepository.forEachMovie(movie -> {
+                lock.writeLock().lock();
+                try {
+                    if (!touchedDuringBuild.contains(movie.getMovieId())) {
+                        indexLocked(movie);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            ready = true;
+            System.out.println("🔎 Movie search index built: " + size() + " movies, " + termCount() + " terms in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("❌ Could not build movie search index, search stays on the database: " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringBuild != null) {
+                touchedDuringBuild.add(event.movieId());
+            }
+            if (event.isDeleted()) {
+                Integer ordinal = ordinals.remove(event.movieId());
+                if (ordinal != null) {
+                    unindexLocked(ordinal);
+                }
+            } else {
+                indexLocked(event.movie());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked search: every query word must match a word (or word prefix) of the movie.
+     * Score is the sum of the matched term weights plus a bonus when the title/alias starts with the whole query;
+     * ties go to the higher IMDb rating, then the newer movie.
+     */
+    public Page search(String query, int offset, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return new Page(List.of(), 0);
+        }
+        String phrase = String.join(" ", words);
+
+        return queryTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                Postings[] lists = new Postings[words.size()];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = lookup(words.get(i));
+                    if (lists[i] == null) {
+                        return new Page(List.of(), 0);
+                    }
+                }
+                // Walk the rarest word's postings and probe the others
+                Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+                // Keep only the best offset + limit hits (worst on top of the heap) instead of sorting every match
+                int keep = offset + limit;
+                PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(keep, 1024) + 1, RANKING.reversed());
+                int total = 0;
+                Postings rarest = lists[0];
+                candidates:
+                for (int i = 0; i < rarest.size; i++) {
+                    int ordinal = rarest.docs[i];
+                    float score = rarest.weights[i];
+                    for (int j = 1; j < lists.length; j++) {
+                        float weight = lists[j].weightOf(ordinal);
+                        if (weight == 0f) {
+                            continue candidates;
+                        }
+                        score += weight;
+                    }
+                    Doc doc = docs.get(ordinal);
+                    total++;
+                    Hit hit = new Hit(doc, score + phraseBonus(doc, phrase));
+                    if (best.size() < keep) {
+                        best.add(hit);
+                    } else if (RANKING.compare(hit, best.peek()) < 0) {
+                        best.poll();
+                        best.add(hit);
+                    }
+                }
+
+                List<Hit> ranked = new ArrayList<>(best);
+                ranked.sort(RANKING);
+                List<UUID> page = new ArrayList<>();
+                for (int i = offset; i < ranked.size(); i++) {
+                    page.add(ranked.get(i).doc().movieId());
+                }
+                return new Page(page, total);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Postings lookup(String word) {
+        Postings list = postings.get(word);
+        // Longer words are only indexed whole, plus their first MAX_GRAM characters as a prefix
+        if (list == null && word.length() > MAX_GRAM) {
+            list = postings.get(word.substring(0, MAX_GRAM));
+        }
+        return list;
+    }
+
+    private float phraseBonus(Doc doc, String phrase) {
+        if (doc.title().equals(phrase)) {
+            return 10f;
+        }
+        if (doc.title().startsWith(phrase)) {
+            return 4f;
+        }
+        if (doc.alias().startsWith(phrase)) {
+            return 2f;
+        }
+        return 0f;
+    }
+
+    private void indexLocked(Movie movie) {
+        Integer ordinal = ordinals.get(movie.getMovieId());
+        if (ordinal != null) {
+            unindexLocked(ordinal);
+        } else {
+            ordinal = docs.size();
+            docs.add(null);
+            ordinals.put(movie.getMovieId(), ordinal);
+        }
+
+        List<String> titleWords = tokenize(movie.getTitle());
+        List<String> aliasWords = tokenize(movie.getAliasTitle());
+
+        Map<String, Float> terms = new HashMap<>();
+        addWords(terms, titleWords, TITLE_WEIGHT, true);
+        addWords(terms, aliasWords, ALIAS_WEIGHT, true);
+        addWords(terms, tokenize(movie.getDescription()), DESCRIPTION_WEIGHT, false);
+
+        Postings[] lists = new Postings[terms.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            Postings list = postings.computeIfAbsent(term.getKey(), Postings::new);
+            list.put(ordinal, term.getValue());
+            lists[i++] = list;
+        }
+
+        double rating = movie.getImdbRating() != null ? movie.getImdbRating().doubleValue() : 0;
+        long createdAt = movie.getCreatedAt() != null ? movie.getCreatedAt().toInstant().toEpochMilli() : 0;
+        docs.set(ordinal, new Doc(movie.getMovieId(), String.join(" ", titleWords), String.join(" ", aliasWords),
+                rating, createdAt, lists));
+    }
+
+    private void unindexLocked(int ordinal) {
+        Doc doc = docs.get(ordinal);
+        if (doc == null) {
+            return;
+        }
+        for (Postings list : doc.postings()) {
+            list.remove(ordinal);
+            if (list.size == 0) {
+                postings.remove(list.term);
+            }
+        }
+        docs.set(ordinal, null);
+    }
+
+    // Keep the best weight per term when a word appears in several fields
+    private void addWords(Map<String, Float> terms, List<String> words, float weight, boolean edgeGrams) {
+        for (String word : words) {
+            terms.merge(word, weight, Math::max);
+            if (edgeGrams) {
+                for (int n = MIN_GRAM; n < word.length() && n <= MAX_GRAM; n++) {
+                    terms.merge(word.substring(0, n), weight * PREFIX_FACTOR, Math::max);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : NON_ALNUM.split(MovieSlugs.fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -1,5 +1,6 @@
 package demo.demo.services.movie;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
@@ -9,22 +10,66 @@ import demo.demo.repository.MovieRepository;
 import demo.demo.repository.GenreRepository;
 import demo.demo.dto.movie.CreateMovieRequest;
 import demo.demo.dto.movie.UpdateMovieRequest;
+import demo.demo.dto.movie.HomepageRailsResponse;
+import demo.demo.dto.movie.MovieBatchResponse;
+import demo.demo.dto.movie.MovieCardResponse;
+import demo.demo.dto.movie.MovieCursorPage;
+import demo.demo.dto.movie.MovieFacetCounts;
+import demo.demo.dto.movie.MovieFilterResponse;
 import demo.demo.dto.movie.MovieResponse;
+import demo.demo.dto.movie.MovieSearchResponse;
+import demo.demo.dto.movie.MovieSuggestionResponse;
 import demo.demo.dto.genre.GenreResponse;
-
+import demo.demo.services.genre.GenreDictionary;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MovieService {
 
+    // Most ids accepted by one getMoviesByIds call
+    public static final int MAX_BATCH_IDS = 500;
+
     private final MovieRepository movieRepository;
     private final GenreRepository genreRepository;
-
-    public MovieService(MovieRepository movieRepository, GenreRepository genreRepository) {
+    private final GenreDictionary genreDictionary;
+    private final MovieResponseCache movieResponseCache;
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieAutocompleteIndex movieAutocompleteIndex;
+    private final MovieCountTracker movieCountTracker;
+    private final MovieFacetIndex movieFacetIndex;
+    private final RelatedMoviesIndex relatedMoviesIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MovieService(MovieRepository movieRepository, GenreRepository genreRepository,
+                        GenreDictionary genreDictionary, MovieResponseCache movieResponseCache, MovieSearchIndex movieSearchIndex,
+                        MovieAutocompleteIndex movieAutocompleteIndex, MovieCountTracker movieCountTracker,
+                        MovieFacetIndex movieFacetIndex, RelatedMoviesIndex relatedMoviesIndex,
+                        ApplicationEventPublisher eventPublisher) {
         this.movieRepository = movieRepository;
         this.genreRepository = genreRepository;
+        this.genreDictionary = genreDictionary;
+        this.movieResponseCache = movieResponseCache;
+        this.movieSearchIndex = movieSearchIndex;
+        this.movieAutocompleteIndex = movieAutocompleteIndex;
+        this.movieCountTracker = movieCountTracker;
+        this.movieFacetIndex = movieFacetIndex;
+        this.relatedMoviesIndex = relatedMoviesIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     public MovieResponse createMovie(CreateMovieRequest dto, UUID createdBy) {
@@ -54,18 +99,13 @@ public class MovieService {
 
             System.out.println("Movie inserted with ID: " + movieId);
             
-            // Try to find the movie immediately after insertion
-            Movie movie = movieRepository.findMovieByIdWithCreator(movieId);
+            Movie movie = movieRepository.findMovieById(movieId);
             if (movie == null) {
-                System.err.println("Movie not found after insertion, trying simple find...");
-                // Try the simpler find method as fallback
-                movie = movieRepository.findMovieById(movieId);
-                if (movie == null) {
-                    throw new RuntimeException("Không thể tạo phim - không tìm thấy phim sau khi tạo với ID: " + movieId);
-                }
+                throw new RuntimeException("Không thể tạo phim - không tìm thấy phim sau khi tạo với ID: " + movieId);
             }
             
             System.out.println("Movie found successfully: " + movie.getTitle());
+            eventPublisher.publishEvent(MovieChangedEvent.created(movie));
             
             // Assign genres to the movie if provided
             if (dto.genreIds != null && !dto.genreIds.isEmpty()) {
@@ -85,11 +125,51 @@ public class MovieService {
     }
 
     public MovieResponse getMovieById(UUID movieId) {
-        Movie movie = movieRepository.findMovieById(movieId);
-        if (movie == null) {
+        MovieResponse response = movieResponseCache.getById(movieId, () -> {
+            Movie movie = movieRepository.findMovieById(movieId);
+            return movie != null ? convertToResponse(movie) : null;
+        });
+        if (response == null) {
             throw new IllegalArgumentException("Phim không tồn tại");
         }
-        return convertToResponse(movie);
+        return response;
+    }
+
+    /**
+     * Many movies by id in one call (cards for rooms, favorites, rails): cache hits are served directly,
+     * the misses are loaded with one IN query per 1000 ids plus one batched genre query.
+     * Movies come back in request order; ids without a movie are reported in missing.
+     * The CARD view skips the cache and reads the card columns only.
+     */
+    public MovieBatchResponse getMoviesByIds(List<UUID> movieIds, MovieView view) {
+        if (movieIds == null || movieIds.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách mã phim không được để trống");
+        }
+        if (movieIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Chỉ được lấy tối đa " + MAX_BATCH_IDS + " phim mỗi lần");
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(movieIds));
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Mã phim không hợp lệ");
+        }
+        Map<UUID, ? extends MovieCardResponse> found = view == MovieView.CARD
+                ? movieRepository.findMovieCardsByIds(ids).stream()
+                        .collect(Collectors.toMap(Movie::getMovieId, this::convertToCard))
+                : movieResponseCache.getAllById(ids,
+                        misses -> convertToResponses(movieRepository.findMoviesByIds(misses)));
+
+        List<MovieCardResponse> movies = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID movieId : ids) {
+            MovieCardResponse movie = found.get(movieId);
+            if (movie != null) {
+                movies.add(movie);
+            } else {
+                missing.add(movieId);
+            }
+        }
+        return new MovieBatchResponse(movies, missing);
     }
 
     public MovieResponse getMovieBySlug(String slug) {
@@ -97,34 +177,205 @@ public class MovieService {
             throw new IllegalArgumentException("Slug không được để trống");
         }
 
-        Movie movie = movieRepository.findMovieBySlug(slug.trim());
-        if (movie == null) {
+        MovieResponse response = movieResponseCache.getBySlug(slug.trim(), () -> {
+            Movie movie = movieRepository.findMovieBySlug(slug.trim());
+            return movie != null ? convertToResponse(movie) : null;
+        });
+        if (response == null) {
             throw new IllegalArgumentException("Không tìm thấy phim với slug: " + slug);
         }
 
-        return convertToResponse(movie);
+        return response;
     }
 
-    public List<MovieResponse> getAllMovies(int page, int size) {
+    /**
+     * Catalog listing, newest first, continuing after cursor (null for the first page)
+     */
+    public MovieCursorPage getMovies(String cursor, int size, MovieView view) {
+        if (size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Tham số phân trang không hợp lệ");
+        }
+
+        MovieCursor after = cursor != null && !cursor.isEmpty() ? MovieCursor.decode(cursor) : null;
+        // One extra row tells whether there is a next page
+        Instant afterCreatedAt = after != null ? after.createdAt() : null;
+        UUID afterMovieId = after != null ? after.movieId() : null;
+        List<Movie> movies = view == MovieView.CARD
+            ? movieRepository.findMovieCardsAfter(afterCreatedAt, afterMovieId, size + 1)
+            : movieRepository.findMoviesAfter(afterCreatedAt, afterMovieId, size + 1);
+        return toCursorPage(movies, size, view);
+    }
+
+    /**
+     * Page-number listing kept for existing clients; deep pages cost more than getMovies with a cursor
+     */
+    public MovieCursorPage getMoviesByPage(int page, int size, MovieView view) {
         if (page < 0 || size <= 0 || size > 100) {
             throw new IllegalArgumentException("Tham số phân trang không hợp lệ");
         }
 
-        int offset = page * size;
-        List<Movie> movies = movieRepository.findAllMovies(size, offset);
-        return movies.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        List<Movie> movies = view == MovieView.CARD
+            ? movieRepository.findAllMovieCards(size + 1, page * size)
+            : movieRepository.findAllMovies(size + 1, page * size);
+        return toCursorPage(movies, size, view);
     }
 
-    public List<MovieResponse> searchMoviesByTitle(String title) {
-        if (title == null || title.trim().isEmpty()) {
+    private MovieCursorPage toCursorPage(List<Movie> movies, int size, MovieView view) {
+        String nextCursor = null;
+        if (movies.size() > size) {
+            movies = movies.subList(0, size);
+            Movie last = movies.get(size - 1);
+            nextCursor = MovieCursor.after(last.getCreatedAt(), last.getMovieId()).encode();
+        }
+        return new MovieCursorPage(convertToView(movies, view), nextCursor);
+    }
+
+    /**
+     * Ranked, paginated search over title, alias title and description (diacritics ignored).
+     * Served from MovieSearchIndex; falls back to a LIKE query while the index is still being built.
+     */
+    public MovieSearchResponse searchMovies(String query, int page, int size, MovieView view) {
+        if (query == null || query.trim().isEmpty()) {
             throw new IllegalArgumentException("Từ khóa tìm kiếm không được để trống");
         }
+        if (page < 0 || size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Tham số phân trang không hợp lệ");
+        }
 
-        List<Movie> movies = movieRepository.findMoviesByTitle(title.trim());
-        return movies.stream()
-                .map(this::convertToResponse)
+        if (!movieSearchIndex.isReady()) {
+            List<Movie> matches = movieRepository.findMoviesByTitle(query.trim());
+            int from = Math.min(page * size, matches.size());
+            List<Movie> movies = matches.subList(from, Math.min(from + size, matches.size()));
+            return new MovieSearchResponse(convertToView(movies, view), matches.size(), page, size);
+        }
+
+        MovieSearchIndex.Page hits = movieSearchIndex.search(query, page * size, size);
+        // Keep the index ranking
+        List<Movie> movies = findMoviesInOrder(hits.movieIds(), view);
+        return new MovieSearchResponse(convertToView(movies, view), hits.total(), page, size);
+    }
+
+    /**
+     * Catalog filtered by genres (all of them), release year range, minimum IMDb rating and series flag,
+     * newest first, with facet counts. Served from MovieFacetIndex; only the page itself is read from the database.
+     */
+    public MovieFilterResponse filterMovies(MovieFacetIndex.Filter filter, int page, int size, MovieView view) {
+        if (page < 0 || size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Tham số phân trang không hợp lệ");
+        }
+        if (filter.yearFrom() != null && filter.yearTo() != null && filter.yearFrom() > filter.yearTo()) {
+            throw new IllegalArgumentException("Khoảng năm phát hành không hợp lệ");
+        }
+        if (!movieFacetIndex.isReady()) {
+            throw new IllegalStateException("Bộ lọc phim đang được khởi tạo, vui lòng thử lại sau");
+        }
+
+        MovieFacetIndex.Result result = movieFacetIndex.query(filter, page * size, size);
+        List<Movie> movies = findMoviesInOrder(result.movieIds(), view);
+
+        Map<UUID, String> genreNames = genreDictionary.names();
+        MovieFacetCounts facets = new MovieFacetCounts();
+        facets.genres = result.genreCounts().entrySet().stream()
+                .filter(entry -> genreNames.containsKey(entry.getKey()))
+                .map(entry -> new MovieFacetCounts.GenreCount(entry.getKey(), genreNames.get(entry.getKey()), entry.getValue()))
+                .sorted((a, b) -> b.count != a.count ? Integer.compare(b.count, a.count) : a.name.compareTo(b.name))
+                .collect(Collectors.toList());
+        facets.years = result.yearCounts();
+        facets.ratings = result.ratingCounts();
+        facets.series = result.seriesCount();
+        facets.movies = result.movieCount();
+
+        MovieFilterResponse response = new MovieFilterResponse();
+        response.movies = convertToView(movies, view);
+        response.total = result.total();
+        response.page = page;
+        response.size = size;
+        response.facets = facets;
+        return response;
+    }
+
+    /**
+     * "More like this" for a movie: up to limit movies sharing its genres, most similar first.
+     * The ids come precomputed from RelatedMoviesIndex; only the movies themselves are read from the database.
+     * limit is capped at movie.related.size, the length of the precomputed lists.
+     */
+    public List<? extends MovieCardResponse> getRelatedMovies(UUID movieId, int limit, MovieView view) {
+        if (!relatedMoviesIndex.isReady()) {
+            throw new IllegalStateException("Danh sách phim liên quan đang được khởi tạo, vui lòng thử lại sau");
+        }
+
+        List<UUID> relatedIds = relatedMoviesIndex.related(movieId);
+        if (relatedIds == null) {
+            // Not indexed: unknown movie (404), or created moments ago and not picked up yet
+            getMovieById(movieId);
+            return List.of();
+        }
+        List<Movie> movies = findMoviesInOrder(relatedIds.subList(0, Math.max(0, Math.min(limit, relatedIds.size()))), view);
+        return convertToView(movies, view);
+    }
+
+    /**
+     * Every homepage rail (newest, top rated, series, newest per genre) with railSize movies each.
+     * A handful of queries in total: movies shared between rails are loaded and converted once.
+     */
+    public HomepageRailsResponse buildHomepageRails(int railSize) {
+        List<Movie> newest = movieRepository.findMoviesAfter(null, null, railSize);
+        List<Movie> topRated = movieRepository.findTopRatedMovies(railSize);
+        List<Movie> series = movieRepository.findNewestSeries(railSize);
+        Map<UUID, List<UUID>> movieIdsByGenre = genreRepository.findNewestMovieIdsPerGenre(railSize);
+
+        Map<UUID, Movie> moviesById = new LinkedHashMap<>();
+        for (List<Movie> rail : List.of(newest, topRated, series)) {
+            rail.forEach(movie -> moviesById.putIfAbsent(movie.getMovieId(), movie));
+        }
+        Set<UUID> missing = new HashSet<>();
+        movieIdsByGenre.values().forEach(ids -> ids.stream().filter(id -> !moviesById.containsKey(id)).forEach(missing::add));
+        movieRepository.findMoviesByIds(missing).forEach(movie -> moviesById.put(movie.getMovieId(), movie));
+
+        Map<UUID, MovieResponse> responsesById = convertToResponses(new ArrayList<>(moviesById.values())).stream()
+                .collect(Collectors.toMap(response -> response.movieId, Function.identity()));
+        Function<List<UUID>, List<MovieResponse>> toRail = ids -> ids.stream()
+                .map(responsesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        HomepageRailsResponse rails = new HomepageRailsResponse();
+        rails.newest = toRail.apply(newest.stream().map(Movie::getMovieId).collect(Collectors.toList()));
+        rails.topRated = toRail.apply(topRated.stream().map(Movie::getMovieId).collect(Collectors.toList()));
+        rails.series = toRail.apply(series.stream().map(Movie::getMovieId).collect(Collectors.toList()));
+        rails.genres = genreDictionary.all().stream()
+                .filter(genre -> movieIdsByGenre.containsKey(genre.genreId()))
+                .sorted(Comparator.comparing(GenreDictionary.Entry::name))
+                .map(genre -> new HomepageRailsResponse.GenreRail(genre.genreId(), genre.name(),
+                        toRail.apply(movieIdsByGenre.get(genre.genreId()))))
+                .filter(rail -> !rail.movies.isEmpty())
+                .collect(Collectors.toList());
+        rails.generatedAt = Instant.now().toString();
+        return rails;
+    }
+
+    /**
+     * Every movie with its genres, oldest first, handed to the consumer one at a time as it is read
+     * (single streaming query, no paging, no per-movie genre lookups)
+     */
+    public void exportMovies(Consumer<MovieResponse> consumer) {
+        movieRepository.forEachMovieWithGenres((movie, genres) -> consumer.accept(convertToResponse(movie, genres)));
+    }
+
+    /**
+     * Search-box suggestions: movies with a title/alias word starting with the query, most popular first.
+     * Served entirely from memory, no database access.
+     */
+    public List<MovieSuggestionResponse> autocomplete(String query, int limit) {
+        if (limit <= 0 || limit > MovieAutocompleteIndex.MAX_LIMIT) {
+            throw new IllegalArgumentException("Số lượng gợi ý phải từ 1 đến " + MovieAutocompleteIndex.MAX_LIMIT);
+        }
+        if (query == null || query.trim().isEmpty()) {
+            return List.of();
+        }
+
+        return movieAutocompleteIndex.suggest(query, limit).stream()
+                .map(this::convertToSuggestion)
                 .collect(Collectors.toList());
     }
 
@@ -153,8 +404,10 @@ public class MovieService {
             if (updatedRows == 0) {
                 throw new RuntimeException("Không thể cập nhật phim");
             }
+            movieResponseCache.invalidate(movieId);
 
             Movie updatedMovie = movieRepository.findMovieById(movieId);
+            eventPublisher.publishEvent(MovieChangedEvent.updated(updatedMovie));
             return convertToResponse(updatedMovie);
         } catch (DataAccessException e) {
             throw new RuntimeException("Lỗi khi cập nhật phim: " + e.getMessage());
@@ -168,17 +421,20 @@ public class MovieService {
         }
 
         try {
-            int deletedRows = movieRepository.deleteMovie(movieId);
+            // Rooms, media files and the row itself are removed by MovieDeletionWorker
+            int deletedRows = movieRepository.tombstoneMovie(movieId);
             if (deletedRows == 0) {
-                throw new RuntimeException("Không thể xóa phim");
+                throw new IllegalArgumentException("Phim không tồn tại");
             }
+            movieResponseCache.invalidate(movieId);
+            eventPublisher.publishEvent(MovieChangedEvent.deleted(movieId));
         } catch (DataAccessException e) {
             throw new RuntimeException("Lỗi khi xóa phim: " + e.getMessage());
         }
     }
 
     public long getTotalMovies() {
-        return movieRepository.countMovies();
+        return movieCountTracker.get();
     }
 
     public MovieResponse updateMoviePoster(UUID movieId, String posterUrl) {
@@ -192,8 +448,10 @@ public class MovieService {
             if (updatedRows == 0) {
                 throw new RuntimeException("Không thể cập nhật poster");
             }
+            movieResponseCache.invalidate(movieId);
 
             Movie updatedMovie = movieRepository.findMovieById(movieId);
+            eventPublisher.publishEvent(MovieChangedEvent.updated(updatedMovie));
             return convertToResponse(updatedMovie);
         } catch (DataAccessException e) {
             throw new RuntimeException("Lỗi khi cập nhật poster: " + e.getMessage());
@@ -211,8 +469,10 @@ public class MovieService {
             if (updatedRows == 0) {
                 throw new RuntimeException("Không thể cập nhật banner");
             }
+            movieResponseCache.invalidate(movieId);
 
             Movie updatedMovie = movieRepository.findMovieById(movieId);
+            eventPublisher.publishEvent(MovieChangedEvent.updated(updatedMovie));
             return convertToResponse(updatedMovie);
         } catch (DataAccessException e) {
             throw new RuntimeException("Lỗi khi cập nhật banner: " + e.getMessage());
@@ -220,10 +480,68 @@ public class MovieService {
     }
 
     private MovieResponse convertToResponse(Movie movie) {
+        return convertToResponse(movie, genreRepository.findGenresByMovieId(movie.getMovieId()));
+    }
+
+    /**
+     * Convert a page of movies, loading all their genres in a single query instead of one per movie
+     */
+    private List<MovieResponse> convertToResponses(List<Movie> movies) {
+        Map<UUID, List<Genre>> genresByMovie = genreRepository.findGenresByMovieIds(
+            movies.stream().map(Movie::getMovieId).collect(Collectors.toList()));
+        return movies.stream()
+                .map(movie -> convertToResponse(movie, genresByMovie.getOrDefault(movie.getMovieId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Load movies by id (card columns only for the CARD view) in the order of movieIds,
+     * skipping ids deleted since they were looked up in an index
+     */
+    private List<Movie> findMoviesInOrder(List<UUID> movieIds, MovieView view) {
+        List<Movie> loaded = view == MovieView.CARD
+                ? movieRepository.findMovieCardsByIds(movieIds)
+                : movieRepository.findMoviesByIds(movieIds);
+        Map<UUID, Movie> moviesById = loaded.stream()
+                .collect(Collectors.toMap(Movie::getMovieId, Function.identity()));
+
+        List<Movie> movies = new ArrayList<>();
+        for (UUID movieId : movieIds) {
+            Movie movie = moviesById.get(movieId);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+
+    private List<? extends MovieCardResponse> convertToView(List<Movie> movies, MovieView view) {
+        if (view == MovieView.CARD) {
+            return movies.stream().map(this::convertToCard).collect(Collectors.toList());
+        }
+        return convertToResponses(movies);
+    }
+
+    private MovieCardResponse convertToCard(Movie movie) {
+        MovieCardResponse card = new MovieCardResponse();
+        card.movieId = movie.getMovieId();
+        card.title = movie.getTitle();
+        card.aliasTitle = movie.getAliasTitle();
+        card.slug = movie.getSlug();
+        card.releaseYear = movie.getReleaseYear();
+        card.ageRating = movie.getAgeRating();
+        card.imdbRating = movie.getImdbRating();
+        card.isSeries = movie.isSeries();
+        card.posterUrl = movie.getPosterUrl();
+        return card;
+    }
+
+    private MovieResponse convertToResponse(Movie movie, List<Genre> genres) {
         MovieResponse response = new MovieResponse();
         response.movieId = movie.getMovieId();
         response.title = movie.getTitle();
         response.aliasTitle = movie.getAliasTitle();
+        response.slug = movie.getSlug();
         response.description = movie.getDescription();
         response.releaseYear = movie.getReleaseYear();
         response.ageRating = movie.getAgeRating();
@@ -241,7 +559,6 @@ public class MovieService {
         response.videoStatus = movie.getVideoStatus();
         
         // Add genre information
-        List<Genre> genres = genreRepository.findGenresByMovieId(movie.getMovieId());
         response.genres = genres.stream()
             .map(this::convertGenreToResponse)
             .collect(Collectors.toList());
@@ -250,29 +567,48 @@ public class MovieService {
     }
 
     /**
-     * Assign genres to a movie
+     * Assign genres to a newly created movie in one batched INSERT (unknown genre ids are skipped)
      */
     private void assignGenresToMovie(UUID movieId, List<UUID> genreIds) {
+        Set<UUID> valid = new LinkedHashSet<>();
         for (UUID genreId : genreIds) {
-            try {
-                // Verify genre exists
-                if (!genreRepository.existsById(genreId)) {
-                    System.err.println("Genre with ID " + genreId + " does not exist, skipping...");
-                    continue;
-                }
-                
-                // Add genre to movie
-                boolean added = genreRepository.addGenreToMovie(movieId, genreId);
-                if (added) {
-                    System.out.println("Successfully assigned genre " + genreId + " to movie " + movieId);
-                } else {
-                    System.err.println("Failed to assign genre " + genreId + " to movie " + movieId + " (may already exist)");
-                }
-            } catch (Exception e) {
-                System.err.println("Error assigning genre " + genreId + " to movie " + movieId + ": " + e.getMessage());
-                // Continue with other genres even if one fails
+            if (genreDictionary.contains(genreId)) {
+                valid.add(genreId);
+            } else {
+                System.err.println("Genre with ID " + genreId + " does not exist, skipping...");
             }
         }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        MovieGenresChangedEvent event;
+        try {
+            List<UUID[]> assignments = valid.stream()
+                    .map(genreId -> new UUID[] { movieId, genreId })
+                    .collect(Collectors.toList());
+            genreRepository.batchAddGenresToMovies(assignments, assignments.size());
+            System.out.println("Successfully assigned " + valid.size() + " genres to movie " + movieId);
+            event = new MovieGenresChangedEvent(movieId, Set.copyOf(valid));
+        } catch (Exception e) {
+            // The movie itself was created; its genres can be set again from the admin page.
+            // Part of the batch may have been written, so listeners re-read the assignments.
+            System.err.println("Error assigning genres to movie " + movieId + ": " + e.getMessage());
+            event = new MovieGenresChangedEvent(movieId);
+        }
+        movieResponseCache.invalidate(movieId);
+        eventPublisher.publishEvent(event);
+    }
+
+    private MovieSuggestionResponse convertToSuggestion(MovieAutocompleteIndex.Suggestion suggestion) {
+        MovieSuggestionResponse response = new MovieSuggestionResponse();
+        response.movieId = suggestion.movieId();
+        response.title = suggestion.title();
+        response.aliasTitle = suggestion.aliasTitle();
+        response.slug = suggestion.slug();
+        response.posterUrl = suggestion.posterUrl();
+        response.releaseYear = suggestion.releaseYear();
+        return response;
     }
 
     /**
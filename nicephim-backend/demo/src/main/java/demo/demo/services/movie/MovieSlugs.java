@@ -0,0 +1,74 @@
+package demo.demo.services.movie;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Slug generation shared by the API, the slug backfill migration and the search indexes.
+ * Mirrors generateSlug() in nicephim-frontend/src/lib/utils.ts so links built on either side match:
+ * lower-case, strip combining marks, đ -> d, drop everything but [a-z0-9], whitespace and '-', collapse to '-'.
+ */
+public final class MovieSlugs {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("[\\u0300-\\u036f]");
+    private static final Pattern SPECIAL_CHARS = Pattern.compile("[^a-z0-9\\s-]", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern EDGE_WHITESPACE = Pattern.compile("^\\s+|\\s+$", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern HYPHENS = Pattern.compile("-+");
+
+    // slug column is VARCHAR(300); leave room for a "-NN" collision suffix
+    public static final int MAX_LENGTH = 280;
+
+    private MovieSlugs() {
+    }
+
+    /**
+     * "Hồ Chí Minh: Đường Về" -> "ho-chi-minh-duong-ve"
+     */
+    public static String slugify(String text) {
+        if (text == null) {
+            return "";
+        }
+        String slug = fold(text);
+        slug = SPECIAL_CHARS.matcher(slug).replaceAll("");
+        slug = EDGE_WHITESPACE.matcher(slug).replaceAll("");
+        slug = WHITESPACE.matcher(slug).replaceAll("-");
+        slug = HYPHENS.matcher(slug).replaceAll("-");
+        if (slug.length() > MAX_LENGTH) {
+            slug = slug.substring(0, MAX_LENGTH);
+        }
+        return slug;
+    }
+
+    /**
+     * Lower-case and remove Vietnamese diacritics, keeping everything else ("Hồ Chí" -> "ho chi")
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("");
+        return folded.replace('đ', 'd').replace('Đ', 'd');
+    }
+
+    /**
+     * Slug stored for a movie: from the title, or a stable fallback when the title has no latin characters
+     */
+    public static String forTitle(String title, UUID movieId) {
+        String slug = slugify(title);
+        if (slug.isEmpty() || slug.equals("-")) {
+            return "phim-" + movieId.toString().substring(0, 8);
+        }
+        return slug;
+    }
+
+    /**
+     * "ten-phim" + 2 -> "ten-phim-2"
+     */
+    public static String withSuffix(String slug, int n) {
+        return n <= 1 ? slug : slug + "-" + n;
+    }
+}
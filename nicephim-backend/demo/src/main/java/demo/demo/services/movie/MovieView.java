@@ -0,0 +1,22 @@
+package demo.demo.services.movie;
+
+import java.util.Locale;
+
+/**
+ * How much of each movie a list endpoint returns: FULL is MovieResponse, CARD is MovieCardResponse
+ * (read from the card columns only, without genres).
+ */
+public enum MovieView {
+    FULL, CARD;
+
+    public static MovieView parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return FULL;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Kiểu hiển thị không hợp lệ: " + value);
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package demo.demo.services.movie;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import demo.demo.model.Genre;
+import demo.demo.model.Movie;
+import demo.demo.repository.GenreRepository;
+import demo.demo.repository.MovieRepository;
+import demo.demo.services.genre.GenreChangedEvent;
+import demo.demo.services.genre.MovieGenresChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * "More like this": the most similar movies of every title, computed ahead of time and served from memory.
+ * Similarity is the Jaccard index of the two genre sets, lowered by the gap between release years and
+ * scaled by the candidate's IMDb rating, so only movies sharing a genre are ever related.
+ *
+ * Movies and genres are numbered (ordinals) and each genre keeps an int array of its movies, so scoring one
+ * movie is a walk over the postings of its genres with a per-thread counter array; the full build scores
+ * all movies in parallel. Change events are queued and applied in debounced batches: a changed movie's
+ * list is recomputed, and other movies sharing a genre with it only when it enters or leaves their list.
+ * A periodic full rebuild picks up writes made by other instances.
+ */
+@Component
+public class RelatedMoviesIndex {
+
+    // Weight of the year and rating factors when a movie has no release year / rating
+    private static final float UNKNOWN_YEAR_WEIGHT = 0.75f;
+    private static final float UNKNOWN_RATING_WEIGHT = 0.75f;
+    // Release years this far apart halve the score
+    private static final float YEAR_HALF_DISTANCE = 10f;
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final float[] NO_SCORES = new float[0];
+
+    private final MovieRepository movieRepository;
+    private final GenreRepository genreRepository;
+    private final int size;
+    private final long debounceMillis;
+    private final Timer rebuildTimer;
+
+    // What readers see: movie id -> related movie ids, best first
+    private final Map<UUID, List<UUID>> related = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean ready;
+
+    private final ConcurrentLinkedQueue<Object> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    // Only used while holding this object's monitor
+    private Model model;
+
+    public RelatedMoviesIndex(MovieRepository movieRepository, GenreRepository genreRepository, MeterRegistry meterRegistry,
+                              @Value("${movie.related.size:20}") int size,
+                              @Value("${movie.related.debounce-ms:1000}") long debounceMillis) {
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        this.size = size;
+        this.debounceMillis = debounceMillis;
+        this.rebuildTimer = Timer.builder("movie.related.rebuild").register(meterRegistry);
+        Gauge.builder("movie.related.movies", related, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Related movie ids of a movie, best first (at most movie.related.size), or null if the movie is not indexed
+     */
+    public List<UUID> related(UUID movieId) {
+        return related.get(movieId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Bumped whenever any list changes, for ETags
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        new Thread(this::rebuildQuietly, "related-movies-build").start();
+    }
+
+    @Scheduled(fixedDelayString = "${movie.related.refresh-ms:3600000}", initialDelayString = "${movie.related.refresh-ms:3600000}")
+    public void refresh() {
+        rebuildQuietly();
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        queue(event);
+    }
+
+    @EventListener
+    public void onMovieGenresChanged(MovieGenresChangedEvent event) {
+        queue(event);
+    }
+
+    @EventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        if (event.type() == GenreChangedEvent.Type.DELETED) {
+            queue(event);
+        }
+    }
+
+    /**
+     * Apply queued events once after the debounce delay; events arriving meanwhile join that batch
+     */
+    private void queue(Object event) {
+        pendingEvents.add(event);
+        if (!drainQueued.compareAndSet(false, true)) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                Thread.sleep(debounceMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            drainQueued.set(false);
+            try {
+                drain();
+            } catch (Exception e) {
+                // The periodic rebuild repairs whatever this batch missed
+                System.err.println("❌ Could not update related movies: " + e.getMessage());
+            }
+        }, "related-movies-update").start();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Keep serving the previous lists
+            System.err.println("❌ Could not build related movies: " + e.getMessage());
+        }
+    }
+
+    private synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Model built = new Model();
+        rebuildTimer.record(() -> {
+            movieRepository.forEachMovie(built::put);
+            genreRepository.forEachMovieGenre(built::addGenre);
+
+            int count = built.count;
+            ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(count, size));
+            IntStream.range(0, count).parallel().forEach(ordinal -> built.computeNeighbours(ordinal, size, scratch.get()));
+        });
+
+        model = built;
+        for (int ordinal = 0; ordinal < built.count; ordinal++) {
+            publish(ordinal);
+        }
+        related.keySet().retainAll(built.ordinals.keySet());
+        version.incrementAndGet();
+        ready = true;
+        System.out.println("🔗 Related movies built: " + built.ordinals.size() + " movies, " + built.genreOrdinals.size()
+                + " genres in " + (System.currentTimeMillis() - start) + " ms");
+
+        // Events that arrived while the tables were read; applying them again is harmless
+        drain();
+    }
+
+    private synchronized void drain() {
+        if (model == null) {
+            // The startup build applies them when it finishes
+            return;
+        }
+
+        // Changed movie ordinal -> its genres before this batch
+        Map<Integer, int[]> changed = new LinkedHashMap<>();
+        Object event;
+        while ((event = pendingEvents.poll()) != null) {
+            if (event instanceof MovieChangedEvent movieChanged) {
+                Integer ordinal = model.ordinals.get(movieChanged.movieId());
+                if (movieChanged.isDeleted()) {
+                    if (ordinal != null) {
+                        changed.putIfAbsent(ordinal, model.genresOf(ordinal));
+                        model.remove(ordinal);
+                    }
+                } else {
+                    if (ordinal != null) {
+                        changed.putIfAbsent(ordinal, model.genresOf(ordinal));
+                    }
+                    changed.putIfAbsent(model.put(movieChanged.movie()), NO_ORDINALS);
+                }
+            } else if (event instanceof MovieGenresChangedEvent genresChanged) {
+                Integer ordinal = model.ordinals.get(genresChanged.movieId());
+                if (ordinal == null) {
+                    continue;
+                }
+                Collection<UUID> genreIds = genresChanged.genreIds();
+                if (genreIds == null) {
+                    genreIds = genreRepository.findGenresByMovieId(genresChanged.movieId()).stream()
+                            .map(Genre::getGenreId).toList();
+                }
+                changed.putIfAbsent(ordinal, model.genresOf(ordinal));
+                model.setGenres(ordinal, genreIds);
+            } else if (event instanceof GenreChangedEvent genreChanged) {
+                for (int ordinal : model.moviesOfGenre(genreChanged.genreId())) {
+                    changed.putIfAbsent(ordinal, model.genresOf(ordinal));
+                }
+                model.removeGenre(genreChanged.genreId());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> recompute = new HashSet<>();
+        Set<Integer> updated = new HashSet<>();
+        for (Map.Entry<Integer, int[]> entry : changed.entrySet()) {
+            int ordinal = entry.getKey();
+            if (model.live[ordinal]) {
+                recompute.add(ordinal);
+            } else {
+                related.remove(model.ids[ordinal]);
+            }
+            model.updateListsAround(ordinal, entry.getValue(), size, changed.keySet(), recompute, updated);
+        }
+        for (int ordinal : recompute) {
+            model.computeNeighbours(ordinal, size, model.scratch(size));
+            publish(ordinal);
+        }
+        for (int ordinal : updated) {
+            if (!recompute.contains(ordinal)) {
+                publish(ordinal);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    private void publish(int ordinal) {
+        if (!model.live[ordinal]) {
+            return;
+        }
+        int[] neighbours = model.neighbours[ordinal];
+        List<UUID> ids = new ArrayList<>(neighbours.length);
+        for (int neighbour : neighbours) {
+            ids.add(model.ids[neighbour]);
+        }
+        related.put(model.ids[ordinal], List.copyOf(ids));
+    }
+
+    /**
+     * Per-thread working arrays for scoring one movie: shared-genre counts by ordinal and the top-K so far
+     */
+    private static final class Scratch {
+        int[] counts;
+        int[] touched;
+        final int[] top;
+        final float[] topScores;
+
+        Scratch(int movies, int k) {
+            counts = new int[movies];
+            touched = new int[movies];
+            top = new int[k];
+            topScores = new float[k];
+        }
+
+        void ensure(int movies) {
+            if (counts.length < movies) {
+                counts = new int[movies];
+                touched = new int[movies];
+            }
+        }
+    }
+
+    /**
+     * Growable int array (a genre's movie ordinals, unordered)
+     */
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Model {
+        final Map<UUID, Integer> ordinals = new HashMap<>();
+        final Map<UUID, Integer> genreOrdinals = new HashMap<>();
+        int count;
+        UUID[] ids = new UUID[1024];
+        boolean[] live = new boolean[1024];
+        // 0 = unknown
+        short[] years = new short[1024];
+        float[] ratingWeights = new float[1024];
+        int[][] genresOf = new int[1024][];
+        // Related ordinals, best first, and their scores
+        int[][] neighbours = new int[1024][];
+        float[][] scores = new float[1024][];
+        IntList[] postings = new IntList[64];
+        int genreCount;
+        private Scratch scratch;
+
+        int put(Movie movie) {
+            Integer ordinal = ordinals.get(movie.getMovieId());
+            if (ordinal == null) {
+                ordinal = count++;
+                grow(count);
+                ids[ordinal] = movie.getMovieId();
+                genresOf[ordinal] = NO_ORDINALS;
+                neighbours[ordinal] = NO_ORDINALS;
+                scores[ordinal] = NO_SCORES;
+                ordinals.put(movie.getMovieId(), ordinal);
+            }
+            live[ordinal] = true;
+            years[ordinal] = movie.getReleaseYear() != null ? movie.getReleaseYear() : 0;
+            ratingWeights[ordinal] = ratingWeight(movie.getImdbRating());
+            return ordinal;
+        }
+
+        void remove(int ordinal) {
+            setGenres(ordinal, List.of());
+            live[ordinal] = false;
+            neighbours[ordinal] = NO_ORDINALS;
+            scores[ordinal] = NO_SCORES;
+            ordinals.remove(ids[ordinal]);
+        }
+
+        int[] genresOf(int ordinal) {
+            return genresOf[ordinal];
+        }
+
+        void addGenre(UUID movieId, UUID genreId) {
+            Integer ordinal = ordinals.get(movieId);
+            if (ordinal == null) {
+                return;
+            }
+            int genre = genreOrdinal(genreId);
+            int[] genres = genresOf[ordinal];
+            for (int existing : genres) {
+                if (existing == genre) {
+                    return;
+                }
+            }
+            genres = Arrays.copyOf(genres, genres.length + 1);
+            genres[genres.length - 1] = genre;
+            genresOf[ordinal] = genres;
+            postings[genre].add(ordinal);
+        }
+
+        void setGenres(int ordinal, Collection<UUID> genreIds) {
+            for (int genre : genresOf[ordinal]) {
+                postings[genre].remove(ordinal);
+            }
+            int[] genres = genreIds.stream().distinct().mapToInt(this::genreOrdinal).toArray();
+            for (int genre : genres) {
+                postings[genre].add(ordinal);
+            }
+            genresOf[ordinal] = genres.length > 0 ? genres : NO_ORDINALS;
+        }
+
+        int[] moviesOfGenre(UUID genreId) {
+            Integer genre = genreOrdinals.get(genreId);
+            return genre != null ? Arrays.copyOf(postings[genre].values, postings[genre].size) : NO_ORDINALS;
+        }
+
+        // The ordinal stays allocated with an empty posting list
+        void removeGenre(UUID genreId) {
+            Integer genre = genreOrdinals.remove(genreId);
+            if (genre == null) {
+                return;
+            }
+            IntList members = postings[genre];
+            for (int i = 0; i < members.size; i++) {
+                int ordinal = members.values[i];
+                genresOf[ordinal] = Arrays.stream(genresOf[ordinal]).filter(g -> g != genre).toArray();
+            }
+            members.size = 0;
+        }
+
+        /**
+         * Score every movie sharing a genre with a and keep the best k
+         */
+        void computeNeighbours(int a, int k, Scratch s) {
+            s.ensure(count);
+            int[] counts = s.counts;
+            int[] touched = s.touched;
+            int candidates = 0;
+            for (int genre : genresOf[a]) {
+                IntList members = postings[genre];
+                for (int i = 0; i < members.size; i++) {
+                    int b = members.values[i];
+                    if (b != a && counts[b]++ == 0) {
+                        touched[candidates++] = b;
+                    }
+                }
+            }
+
+            int kept = 0;
+            for (int i = 0; i < candidates; i++) {
+                int b = touched[i];
+                float score = score(a, b, counts[b]);
+                counts[b] = 0;
+                if (kept < k || better(score, b, s.topScores[kept - 1], s.top[kept - 1])) {
+                    int slot = kept < k ? kept++ : kept - 1;
+                    while (slot > 0 && better(score, b, s.topScores[slot - 1], s.top[slot - 1])) {
+                        s.top[slot] = s.top[slot - 1];
+                        s.topScores[slot] = s.topScores[slot - 1];
+                        slot--;
+                    }
+                    s.top[slot] = b;
+                    s.topScores[slot] = score;
+                }
+            }
+            neighbours[a] = kept > 0 ? Arrays.copyOf(s.top, kept) : NO_ORDINALS;
+            scores[a] = kept > 0 ? Arrays.copyOf(s.topScores, kept) : NO_SCORES;
+        }
+
+        /**
+         * After movie x changed (oldGenres: its genres before the change), fix the lists of the movies sharing
+         * a genre with it now or before: x is inserted into lists it now qualifies for, and lists that already
+         * contain x are queued for recompute (its score changed, or it is gone). Movies that changed themselves
+         * are recomputed anyway and skipped here.
+         */
+        void updateListsAround(int x, int[] oldGenres, int k, Set<Integer> changed, Set<Integer> recompute, Set<Integer> updated) {
+            Scratch s = scratch(k);
+            int[] counts = s.counts;
+            int[] touched = s.touched;
+            int candidates = 0;
+            for (int genre : genresOf[x]) {
+                IntList members = postings[genre];
+                for (int i = 0; i < members.size; i++) {
+                    int b = members.values[i];
+                    if (b != x && counts[b]++ == 0) {
+                        touched[candidates++] = b;
+                    }
+                }
+            }
+            // Movies reached only through a genre x no longer has share nothing with it (-1 = seen, no shared genre)
+            for (int genre : oldGenres) {
+                IntList members = postings[genre];
+                for (int i = 0; i < members.size; i++) {
+                    int b = members.values[i];
+                    if (b != x && counts[b] == 0) {
+                        counts[b] = -1;
+                        touched[candidates++] = b;
+                    }
+                }
+            }
+
+            for (int i = 0; i < candidates; i++) {
+                int b = touched[i];
+                int shared = Math.max(counts[b], 0);
+                counts[b] = 0;
+                if (changed.contains(b) || !live[b]) {
+                    continue;
+                }
+                if (contains(neighbours[b], x)) {
+                    recompute.add(b);
+                } else if (shared > 0 && live[x] && offer(b, x, score(b, x, shared), k)) {
+                    updated.add(b);
+                }
+            }
+        }
+
+        // Insert candidate into b's list if it scores high enough
+        private boolean offer(int b, int candidate, float score, int k) {
+            int[] list = neighbours[b];
+            float[] listScores = scores[b];
+            if (list.length >= k && !better(score, candidate, listScores[list.length - 1], list[list.length - 1])) {
+                return false;
+            }
+            int position = 0;
+            while (position < list.length && !better(score, candidate, listScores[position], list[position])) {
+                position++;
+            }
+            int length = Math.min(list.length + 1, k);
+            int[] newList = new int[length];
+            float[] newScores = new float[length];
+            System.arraycopy(list, 0, newList, 0, position);
+            System.arraycopy(listScores, 0, newScores, 0, position);
+            newList[position] = candidate;
+            newScores[position] = score;
+            System.arraycopy(list, position, newList, position + 1, length - position - 1);
+            System.arraycopy(listScores, position, newScores, position + 1, length - position - 1);
+            neighbours[b] = newList;
+            scores[b] = newScores;
+            return true;
+        }
+
+        /**
+         * How related b is to a, given the number of genres they share: Jaccard index of the genre sets,
+         * times a release year proximity factor and b's rating factor
+         */
+        float score(int a, int b, int shared) {
+            float jaccard = (float) shared / (genresOf[a].length + genresOf[b].length - shared);
+            float yearWeight = years[a] == 0 || years[b] == 0
+                    ? UNKNOWN_YEAR_WEIGHT
+                    : 1f / (1f + Math.abs(years[a] - years[b]) / YEAR_HALF_DISTANCE);
+            return jaccard * yearWeight * ratingWeights[b];
+        }
+
+        Scratch scratch(int k) {
+            if (scratch == null) {
+                scratch = new Scratch(count, k);
+            }
+            scratch.ensure(count);
+            return scratch;
+        }
+
+        private int genreOrdinal(UUID genreId) {
+            Integer genre = genreOrdinals.get(genreId);
+            if (genre == null) {
+                // Ordinals of removed genres are not reused
+                genre = genreCount++;
+                if (genre == postings.length) {
+                    postings = Arrays.copyOf(postings, postings.length * 2);
+                }
+                postings[genre] = new IntList();
+                genreOrdinals.put(genreId, genre);
+            }
+            return genre;
+        }
+
+        private void grow(int minCapacity) {
+            if (minCapacity <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(ids.length * 2, minCapacity);
+            ids = Arrays.copyOf(ids, capacity);
+            live = Arrays.copyOf(live, capacity);
+            years = Arrays.copyOf(years, capacity);
+            ratingWeights = Arrays.copyOf(ratingWeights, capacity);
+            genresOf = Arrays.copyOf(genresOf, capacity);
+            neighbours = Arrays.copyOf(neighbours, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+        }
+    }
+
+    // Higher score first; ties go to the newer movie (higher ordinal)
+    private static boolean better(float score, int ordinal, float otherScore, int otherOrdinal) {
+        return score > otherScore || (score == otherScore && ordinal > otherOrdinal);
+    }
+
+    private static boolean contains(int[] ordinals, int ordinal) {
+        for (int value : ordinals) {
+            if (value == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 0.5 for a 0.0 rating up to 1.0 for a 10.0
+    private static float ratingWeight(BigDecimal rating) {
+        return rating != null ? 0.5f + Math.max(0f, Math.min(10f, rating.floatValue())) / 20f : UNKNOWN_RATING_WEIGHT;
+    }
+}
@@ -2,6 +2,7 @@ package demo.demo.services.room;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.crypto.bcrypt.BCrypt;
@@ -26,6 +27,9 @@ public class WatchRoomService {
     private Map<String, Long> lastUpdateTime = new ConcurrentHashMap<>();
     private static final long MIN_UPDATE_INTERVAL = 1000; // 1 second minimum between updates
 
+    // Max video height (e.g. 720) chosen by the room host, applied to the room's master playlist
+    private Map<String, Integer> roomMaxQuality = new ConcurrentHashMap<>();
+
     public WatchRoomService(JdbcTemplate jdbcTemplate, MovieService movieService) {
         this.jdbcTemplate = jdbcTemplate;
         this.movieService = movieService;
@@ -247,17 +251,8 @@ public class WatchRoomService {
                 return false;
             }
 
-            // Get actual user ID from database
-            UUID userId = getUserIdByUsername(username);
-            if (userId == null) {
-                System.err.println("❌ User not found for deletion: " + username);
-                return false;
-            }
-
             // Check if user owns the room
-            UUID createdBy = (UUID) room.get("created_by");
-
-            if (!createdBy.equals(userId)) {
+            if (!isRoomHost(room, username)) {
                 System.err.println("❌ Permission denied - User " + username + " does not own room " + roomId);
                 return false; // User doesn't own the room
             }
@@ -265,6 +260,7 @@ public class WatchRoomService {
             // Delete the room
             String sql = "DELETE FROM dbo.watch_rooms WHERE room_id = ?";
             int rowsDeleted = jdbcTemplate.update(sql, UUID.fromString(roomId));
+            roomMaxQuality.remove(roomId);
             System.out.println("✅ Room deleted successfully: " + roomId + ", rows affected: " + rowsDeleted);
             return rowsDeleted > 0;
         } catch (Exception e) {
@@ -436,6 +432,84 @@ public class WatchRoomService {
         return users != null ? users.size() : 0;
     }
 
+    /**
+     * Whether the user (by username) created the room
+     */
+    public boolean isRoomHost(String roomId, String username) {
+        Map<String, Object> room = getRoom(roomId);
+        return room != null && isRoomHost(room, username);
+    }
+
+    private boolean isRoomHost(Map<String, Object> room, String username) {
+        if (username == null || username.isBlank()) {
+            return false;
+        }
+        UUID userId = getUserIdByUsername(username);
+        return userId != null && userId.equals(room.get("created_by"));
+    }
+
+    /**
+     * Set the max playback quality for a room (null or <= 0 removes the limit).
+     * Only the room host may change it; returns false if the room does not exist or the user is not its host.
+     */
+    public boolean setRoomMaxQuality(String roomId, String username, Integer maxHeight) {
+        if (!isRoomHost(roomId, username)) {
+            System.err.println("❌ Permission denied - User " + username + " cannot limit quality of room " + roomId);
+            return false;
+        }
+        if (maxHeight == null || maxHeight <= 0) {
+            roomMaxQuality.remove(roomId);
+            System.out.println("🎚️ Removed quality limit for room " + roomId);
+            return true;
+        }
+        roomMaxQuality.put(roomId, maxHeight);
+        System.out.println("🎚️ Room " + roomId + " limited to " + maxHeight + "p");
+        return true;
+    }
+
+    /**
+     * Drop quality limits of rooms that no longer exist: rooms removed with their movie by
+     * MovieDeletionWorker, or deleted through another node
+     */
+    @Scheduled(fixedDelayString = "${room.max-quality.prune-ms:600000}", initialDelayString = "${room.max-quality.prune-ms:600000}")
+    public void pruneRoomMaxQuality() {
+        List<String> roomIds = new ArrayList<>(roomMaxQuality.keySet());
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> existing = new HashSet<>();
+            // SQL Server allows at most 2100 parameters per statement
+            for (int from = 0; from < roomIds.size(); from += 1000) {
+                List<String> batch = roomIds.subList(from, Math.min(from + 1000, roomIds.size()));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                jdbcTemplate.query("SELECT room_id FROM dbo.watch_rooms WHERE room_id IN (" + placeholders + ")",
+                        rs -> {
+                            existing.add(rs.getString("room_id").toLowerCase(Locale.ROOT));
+                        }, batch.toArray());
+            }
+            int removed = 0;
+            for (String roomId : roomIds) {
+                if (!existing.contains(roomId.toLowerCase(Locale.ROOT))) {
+                    roomMaxQuality.remove(roomId);
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                System.out.println("🧹 Dropped quality limits of " + removed + " removed rooms");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Could not prune room quality limits: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the max playback quality for a room, null if unlimited
+     */
+    public Integer getRoomMaxQuality(String roomId) {
+        return roomId == null ? null : roomMaxQuality.get(roomId);
+    }
+
     /**
      * Save room state when room becomes empty
      */
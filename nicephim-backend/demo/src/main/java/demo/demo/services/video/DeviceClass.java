@@ -0,0 +1,55 @@
+package demo.demo.services.video;
+
+import java.util.Locale;
+
+/**
+ * Phân loại thiết bị để giới hạn chất lượng tối đa trong master.m3u8.
+ * Điện thoại không cần 4K/2K, máy tính bảng dừng ở 1080p.
+ */
+public enum DeviceClass {
+	MOBILE(720),
+	TABLET(1080),
+	DESKTOP(null),
+	TV(null);
+
+	// Chiều cao tối đa (null = không giới hạn)
+	private final Integer maxHeight;
+
+	DeviceClass(Integer maxHeight) {
+		this.maxHeight = maxHeight;
+	}
+
+	public Integer getMaxHeight() {
+		return maxHeight;
+	}
+
+	// Đọc tham số ?device=mobile|tablet|desktop|tv, trả về null nếu không hợp lệ
+	public static DeviceClass fromParam(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return DeviceClass.valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	// Đoán loại thiết bị từ User-Agent
+	public static DeviceClass fromUserAgent(String userAgent) {
+		if (userAgent == null || userAgent.isBlank()) {
+			return DESKTOP;
+		}
+		String ua = userAgent.toLowerCase(Locale.ROOT);
+		if (ua.contains("smart-tv") || ua.contains("smarttv") || ua.contains("appletv") || ua.contains("android tv")) {
+			return TV;
+		}
+		if (ua.contains("ipad") || ua.contains("tablet") || (ua.contains("android") && !ua.contains("mobile"))) {
+			return TABLET;
+		}
+		if (ua.contains("mobi") || ua.contains("iphone") || ua.contains("ipod") || ua.contains("android")) {
+			return MOBILE;
+		}
+		return DESKTOP;
+	}
+}
@@ -0,0 +1,183 @@
+package demo.demo.services.video;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import demo.demo.services.media.HlsFileLocator;
+
+/**
+ * Sinh master.m3u8 động từ mô hình rendition trong bộ nhớ.
+ * Bảng dbo.video_renditions đã bị xóa ở V7 nên mô hình được đọc một lần từ master.m3u8 do FFmpeg ghi ra,
+ * sau đó lọc theo từng request (thiết bị, maxHeight, cài đặt phòng) và cache bytes đã render theo tập biến thể.
+ */
+@Service
+public class HlsPlaylistService {
+
+	private static final Pattern RESOLUTION = Pattern.compile("RESOLUTION=(\\d+)x(\\d+)");
+	private static final Pattern BANDWIDTH = Pattern.compile("(?<![A-Z-])BANDWIDTH=(\\d+)");
+
+	// Số video tối đa giữ mô hình playlist trong bộ nhớ
+	@Value("${media.hls.playlist-cache-size:5000}")
+	private int maxCachedVideos;
+
+	// Mô hình playlist theo videoId (LRU, có giới hạn)
+	private final Map<String, VideoPlaylist> playlistById = Collections.synchronizedMap(
+		new LinkedHashMap<>(256, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, VideoPlaylist> eldest) {
+				return size() > maxCachedVideos;
+			}
+		});
+
+	// Tìm file HLS theo bố cục thư mục và nơi lưu trữ (đĩa cục bộ hoặc object storage)
+	private final HlsFileLocator hlsFileLocator;
+
+	public HlsPlaylistService(HlsFileLocator hlsFileLocator) {
+		this.hlsFileLocator = hlsFileLocator;
+	}
+
+	// Một biến thể trong master playlist: dòng #EXT-X-STREAM-INF gốc + URI
+	public record Rendition(String streamInf, String uri, int width, int height, long bandwidth) {}
+
+	// Mô hình playlist của một video + bytes đã render theo tập biến thể (bitmask)
+	private static final class VideoPlaylist {
+		final List<String> headerTags;
+		final List<Rendition> renditions;
+		final Map<Integer, byte[]> renderedByMask = new ConcurrentHashMap<>();
+
+		VideoPlaylist(List<String> headerTags, List<Rendition> renditions) {
+			this.headerTags = headerTags;
+			this.renditions = renditions;
+		}
+	}
+
+	// Render master.m3u8 cho video, chỉ giữ các biến thể có chiều cao <= maxHeight (null = không giới hạn).
+	// Luôn giữ ít nhất biến thể thấp nhất. Trả về null nếu chưa có master.m3u8.
+	public byte[] renderMaster(String videoId, Integer maxHeight) throws IOException {
+		VideoPlaylist playlist = loadPlaylist(videoId);
+		if (playlist == null) {
+			return null;
+		}
+
+		int mask = selectRenditions(playlist.renditions, maxHeight);
+		return playlist.renderedByMask.computeIfAbsent(mask, m -> render(playlist, m));
+	}
+
+	// Danh sách biến thể của video (phục vụ debug/quản trị)
+	public List<Rendition> getRenditions(String videoId) throws IOException {
+		VideoPlaylist playlist = loadPlaylist(videoId);
+		return playlist == null ? List.of() : playlist.renditions;
+	}
+
+	// Xóa mô hình đã cache (gọi khi mã hóa xong hoặc mã hóa lại)
+	public void invalidate(String videoId) {
+		playlistById.remove(videoId);
+	}
+
+	private VideoPlaylist loadPlaylist(String videoId) throws IOException {
+		VideoPlaylist cached = playlistById.get(videoId);
+		if (cached != null) {
+			return cached;
+		}
+
+		Path master = hlsFileLocator.locate(videoId, "master.m3u8");
+		if (master == null || !Files.isRegularFile(master)) {
+			return null;
+		}
+
+		VideoPlaylist parsed = parse(Files.readAllLines(master, StandardCharsets.UTF_8));
+		if (parsed.renditions.isEmpty()) {
+			// FFmpeg chưa ghi xong, không cache
+			return null;
+		}
+		playlistById.put(videoId, parsed);
+		return parsed;
+	}
+
+	// Phân tích master.m3u8: giữ các tag đầu, ghép từng #EXT-X-STREAM-INF với URI ở dòng sau
+	private VideoPlaylist parse(List<String> lines) {
+		List<String> headerTags = new ArrayList<>();
+		List<Rendition> renditions = new ArrayList<>();
+
+		String pendingStreamInf = null;
+		for (String raw : lines) {
+			String line = raw.trim();
+			if (line.isEmpty() || line.equals("#EXTM3U")) {
+				continue;
+			}
+			if (line.startsWith("#EXT-X-STREAM-INF:")) {
+				pendingStreamInf = line;
+			} else if (!line.startsWith("#") && pendingStreamInf != null) {
+				renditions.add(toRendition(pendingStreamInf, line));
+				pendingStreamInf = null;
+			} else if (line.startsWith("#") && renditions.isEmpty() && pendingStreamInf == null) {
+				headerTags.add(line);
+			}
+		}
+
+		// Sắp xếp từ cao xuống thấp để bitmask ổn định
+		renditions.sort((a, b) -> Integer.compare(b.height(), a.height()));
+		return new VideoPlaylist(List.copyOf(headerTags), List.copyOf(renditions));
+	}
+
+	private Rendition toRendition(String streamInf, String uri) {
+		int width = 0;
+		int height = 0;
+		Matcher resolution = RESOLUTION.matcher(streamInf);
+		if (resolution.find()) {
+			width = Integer.parseInt(resolution.group(1));
+			height = Integer.parseInt(resolution.group(2));
+		}
+
+		long bandwidth = 0;
+		Matcher bw = BANDWIDTH.matcher(streamInf);
+		if (bw.find()) {
+			bandwidth = Long.parseLong(bw.group(1));
+		}
+		return new Rendition(streamInf, uri, width, height, bandwidth);
+	}
+
+	// Chọn biến thể theo maxHeight, trả về bitmask vị trí trong danh sách
+	private int selectRenditions(List<Rendition> renditions, Integer maxHeight) {
+		int mask = 0;
+		for (int i = 0; i < renditions.size(); i++) {
+			Rendition r = renditions.get(i);
+			// Không rõ độ phân giải thì giữ lại
+			if (maxHeight == null || r.height() == 0 || r.height() <= maxHeight) {
+				mask |= 1 << i;
+			}
+		}
+		if (mask == 0 && !renditions.isEmpty()) {
+			mask = 1 << (renditions.size() - 1);
+		}
+		return mask;
+	}
+
+	private byte[] render(VideoPlaylist playlist, int mask) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("#EXTM3U\n");
+		for (String tag : playlist.headerTags) {
+			sb.append(tag).append('\n');
+		}
+		for (int i = 0; i < playlist.renditions.size(); i++) {
+			if ((mask & (1 << i)) == 0) continue;
+			Rendition r = playlist.renditions.get(i);
+			sb.append(r.streamInf()).append('\n');
+			sb.append(r.uri()).append('\n');
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -5,8 +5,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -16,6 +16,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import demo.demo.services.media.MediaArea;
+import demo.demo.services.media.MediaLayout;
+import demo.demo.services.media.MediaReadCache;
+import demo.demo.services.media.MediaStorage;
+
 /**
  * Dịch vụ upload video và chuyển đổi HLS với các chất lượng thích ứng.
  * Hỗ trợ 4K/2K/1080p/720p/360p dựa trên độ phân giải đầu vào (không phóng to).
@@ -23,14 +28,6 @@ import org.springframework.web.multipart.MultipartFile;
 @Service
 public class VideoService {
 
-	// Thư mục lưu file video gốc
-	@Value("${media.upload.dir}")
-	private String uploadDir;
-
-	// Thư mục đầu ra HLS (master.m3u8 + các biến thể)
-	@Value("${media.hls.dir}")
-	private String hlsDir;
-
 	// Đường dẫn chương trình FFmpeg
 	@Value("${media.ffmpeg.path}")
 	private String ffmpegPath;
@@ -50,11 +47,29 @@ public class VideoService {
 	// Kết quả upload: videoId, HLS URL, status
 	public record UploadResult(String videoId, String hlsUrl, Status status) {}
 
+	// Cache master playlist động (xóa khi mã hóa xong)
+	private final HlsPlaylistService hlsPlaylistService;
+
+	// Bố cục thư mục phân mảnh cho upload và HLS
+	private final MediaLayout mediaLayout;
+
+	// Nơi lưu trữ cuối cùng (đĩa cục bộ hoặc object storage)
+	private final MediaStorage mediaStorage;
+
+	// Cache cục bộ khi đọc lại file gốc từ object storage
+	private final MediaReadCache mediaReadCache;
+
+	public VideoService(HlsPlaylistService hlsPlaylistService, MediaLayout mediaLayout,
+			MediaStorage mediaStorage, MediaReadCache mediaReadCache) {
+		this.hlsPlaylistService = hlsPlaylistService;
+		this.mediaLayout = mediaLayout;
+		this.mediaStorage = mediaStorage;
+		this.mediaReadCache = mediaReadCache;
+	}
+
 	// Upload video, lưu vào đĩa, bắt đầu chuyển đổi nền (không chặn)
 	public UploadResult handleUpload(MultipartFile file) throws IOException {
 		String videoId = UUID.randomUUID().toString();
-		Path uploadDirPath = Paths.get(uploadDir);
-		Files.createDirectories(uploadDirPath);
 
 		// Giữ nguyên phần mở rộng file gốc (.mp4, .ts, .mkv, v.v.)
 		String originalFilename = file.getOriginalFilename();
@@ -63,31 +78,39 @@ public class VideoService {
 			extension = originalFilename.substring(originalFilename.lastIndexOf("."));
 		}
 		
-		Path uploadPath = uploadDirPath.resolve(videoId + extension);
-
+		// Bố cục phân mảnh: <upload>/ab/cd/<videoId><ext>
+		Path uploadPath = mediaLayout.uploadPathFor(videoId, extension);
+		Files.createDirectories(uploadPath.getParent());
 
 		file.transferTo(uploadPath.toFile());
 
-		Path outDir = Paths.get(hlsDir).resolve(videoId);
+		Path outDir = mediaLayout.hlsDirFor(videoId);
 		Files.createDirectories(outDir);
 
 		statusById.put(videoId, Status.PROCESSING);
-		spawnFfmpegPipeline(uploadPath, outDir, videoId);
+		spawnFfmpegPipeline(uploadPath, outDir, videoId, uploadPath.getFileName().toString());
 		return new UploadResult(videoId, "/videos/" + videoId + "/master.m3u8", Status.PROCESSING);
 	}
 
 	// Chuyển đổi file có sẵn trong uploadDir (cho migration/mã hóa lại)
 	public UploadResult ingestExisting(String filename) throws IOException {
-		Path source = Paths.get(uploadDir).resolve(filename);
+		Path source = mediaLayout.resolveUpload(filename);
+		if (!Files.exists(source) && !mediaStorage.isLocal()) {
+			// File gốc đã nằm trên object storage: tải về cache cục bộ để FFmpeg đọc
+			Path cached = mediaReadCache.fetch(MediaArea.UPLOAD, mediaLayout.uploadKeyFor(filename));
+			if (cached != null) {
+				source = cached;
+			}
+		}
 		if (!Files.exists(source)) {
 			throw new IOException("File not found: " + source);
 		}
 		
 		String videoId = UUID.randomUUID().toString();
-		Path outDir = Paths.get(hlsDir).resolve(videoId);
+		Path outDir = mediaLayout.hlsDirFor(videoId);
 		Files.createDirectories(outDir);
 		statusById.put(videoId, Status.PROCESSING);
-		spawnFfmpegPipeline(source, outDir, videoId);
+		spawnFfmpegPipeline(source, outDir, videoId, null);
 
 		return new UploadResult(videoId, "/videos/" + videoId + "/master.m3u8", Status.PROCESSING);
 	}
@@ -107,8 +130,9 @@ public class VideoService {
 		return progressById.get(videoId);
 	}
 
-	// Pipeline chuyển đổi chính: phát hiện độ phân giải, xây dựng lệnh FFmpeg, tạo luồng nền
-	private void spawnFfmpegPipeline(Path inputMp4, Path outDir, String videoId) throws IOException {
+	// Pipeline chuyển đổi chính: phát hiện độ phân giải, xây dựng lệnh FFmpeg, tạo luồng nền.
+	// uploadedFilename != null: file gốc vừa upload, cần đưa lên storage cùng với HLS
+	private void spawnFfmpegPipeline(Path inputMp4, Path outDir, String videoId, String uploadedFilename) throws IOException {
 		int inputHeight = getInputHeight(inputMp4);
 		double duration = getVideoDuration(inputMp4);
 		
@@ -148,6 +172,10 @@ public class VideoService {
 				
 				int exit = process.waitFor();
 				logById.put(videoId, sb.toString());
+				if (exit == 0) {
+					publish(videoId, outDir, inputMp4, uploadedFilename);
+				}
+				hlsPlaylistService.invalidate(videoId);
 				statusById.put(videoId, exit == 0 ? Status.READY : Status.FAILED);
 				
 				if (exit == 0) {
@@ -163,6 +191,31 @@ public class VideoService {
 		}).start();
 	}
 
+	// Đưa kết quả lên object storage (segment trước, playlist sau) rồi xóa bản làm việc cục bộ.
+	// Lưu trữ cục bộ: FFmpeg đã ghi thẳng vào vị trí cuối, không cần làm gì.
+	private void publish(String videoId, Path outDir, Path inputMp4, String uploadedFilename) throws IOException {
+		if (mediaStorage.isLocal()) {
+			return;
+		}
+		mediaStorage.putTree(MediaArea.HLS, mediaLayout.hlsKeyFor(videoId), outDir);
+		if (uploadedFilename != null) {
+			mediaStorage.putFile(MediaArea.UPLOAD, mediaLayout.uploadKeyFor(uploadedFilename), inputMp4);
+			Files.deleteIfExists(inputMp4);
+		}
+		deleteLocalTree(outDir);
+	}
+
+	private void deleteLocalTree(Path dir) throws IOException {
+		if (!Files.exists(dir)) {
+			return;
+		}
+		try (var walk = Files.walk(dir)) {
+			for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+
 	// Phát hiện chiều cao video bằng ffprobe (trả về 2160, 1440, 1080, 720, 360, v.v.)
 	private int getInputHeight(Path inputMp4) {
 		try {
@@ -0,0 +1,12 @@
+-- =============================================================================
+-- V10: Index for keyset pagination of the catalog
+-- =============================================================================
+-- The movie listing is ordered by (created_at DESC, movie_id DESC) and pages
+-- continue from the last row of the previous page:
+--   WHERE created_at < @c OR (created_at = @c AND movie_id < @id)
+-- Without this index every page sorted the whole table, and OFFSET made deep
+-- pages read and discard all preceding rows.
+-- =============================================================================
+
+CREATE NONCLUSTERED INDEX IX_movies_created_at
+  ON dbo.movies (created_at DESC, movie_id DESC);
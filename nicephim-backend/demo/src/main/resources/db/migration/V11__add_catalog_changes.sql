@@ -0,0 +1,28 @@
+-- =============================================================================
+-- V11: Catalog change feed for multi-node deployments
+-- =============================================================================
+-- Each node keeps in-process copies of the catalog (MovieResponseCache, search,
+-- facet and related-movie indexes, homepage rails). A node appends one row here
+-- per movie / genre / genre assignment change it makes; every node polls the
+-- rows written by the others and replays them as local change events.
+-- Rows are read by row_version below MIN_ACTIVE_ROWVERSION(), so a poll never
+-- skips past a change whose transaction has not committed yet.
+-- Old rows are pruned by the application (cluster.changes.retention-hours).
+-- =============================================================================
+
+CREATE TABLE dbo.catalog_changes (
+  change_id    BIGINT           IDENTITY(1,1) NOT NULL PRIMARY KEY,
+  entity_type  VARCHAR(20)      NOT NULL,  -- MOVIE, GENRE, MOVIE_GENRES
+  entity_id    UNIQUEIDENTIFIER NOT NULL,
+  change_type  VARCHAR(10)      NOT NULL,  -- CREATED, UPDATED, DELETED
+  origin       VARCHAR(64)      NOT NULL,  -- cluster.node-id of the writer
+  changed_at   DATETIME2(3)     NOT NULL DEFAULT SYSUTCDATETIME(),
+  row_version  ROWVERSION
+);
+
+CREATE UNIQUE NONCLUSTERED INDEX UX_catalog_changes_row_version
+  ON dbo.catalog_changes (row_version)
+  INCLUDE (entity_type, entity_id, change_type, origin);
+
+CREATE NONCLUSTERED INDEX IX_catalog_changes_changed_at
+  ON dbo.catalog_changes (changed_at);
@@ -0,0 +1,26 @@
+-- =============================================================================
+-- V12: Tombstoned movie deletion
+-- =============================================================================
+-- Deleting a movie now only sets deleted_at; MovieDeletionWorker removes the
+-- watch rooms, the media files and finally the row in the background.
+-- Every catalog read filters on deleted_at IS NULL, so the keyset index only
+-- covers live movies, and the worker finds pending deletions through a small
+-- filtered index.
+-- watch_rooms had no index on movie_id: each cleanup batch scanned the table.
+-- =============================================================================
+
+ALTER TABLE dbo.movies ADD deleted_at DATETIME2(3) NULL;
+GO
+
+DROP INDEX IX_movies_created_at ON dbo.movies;
+
+CREATE NONCLUSTERED INDEX IX_movies_created_at
+  ON dbo.movies (created_at DESC, movie_id DESC)
+  WHERE deleted_at IS NULL;
+
+CREATE NONCLUSTERED INDEX IX_movies_deleted_at
+  ON dbo.movies (deleted_at)
+  WHERE deleted_at IS NOT NULL;
+
+CREATE NONCLUSTERED INDEX IX_wr_movie
+  ON dbo.watch_rooms (movie_id);
@@ -0,0 +1,22 @@
+-- =============================================================================
+-- V8: Persisted movie slugs
+-- =============================================================================
+-- findMovieBySlug used LOWER(REPLACE(title, ...)) = ? which cannot use an index.
+-- slug is generated in Java (Vietnamese diacritics folded, same rules as the
+-- frontend generateSlug) and backfilled by V9; alias_slug keeps lookups by the
+-- alias title working.
+-- The unique index is filtered so it can exist before the backfill runs.
+-- =============================================================================
+
+ALTER TABLE dbo.movies ADD
+  slug       VARCHAR(300) NULL,
+  alias_slug VARCHAR(300) NULL;
+GO
+
+CREATE UNIQUE NONCLUSTERED INDEX UX_movies_slug
+  ON dbo.movies (slug)
+  WHERE slug IS NOT NULL;
+
+CREATE NONCLUSTERED INDEX IX_movies_alias_slug
+  ON dbo.movies (alias_slug)
+  WHERE alias_slug IS NOT NULL;
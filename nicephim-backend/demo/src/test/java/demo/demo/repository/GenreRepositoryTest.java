@@ -0,0 +1,73 @@
+package demo.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import demo.demo.model.Genre;
+import demo.demo.support.StubDataSource;
+
+/**
+ * Guards the batched genre loader against N+1 regressions by counting the statements it sends.
+ * Every statement answers with one genre row per movie id bound to it.
+ */
+class GenreRepositoryTest {
+
+    private final StubDataSource database = new StubDataSource(statement -> statement.params().stream()
+            .map(movieId -> Map.<String, Object>of(
+                    "movie_id", movieId,
+                    "genre_id", UUID.nameUUIDFromBytes(movieId.toString().getBytes()),
+                    "name", "Genre of " + movieId))
+            .toList());
+
+    private GenreRepository genreRepository;
+
+    @BeforeEach
+    void setUp() {
+        genreRepository = new GenreRepository();
+        ReflectionTestUtils.setField(genreRepository, "jdbcTemplate", database.jdbcTemplate());
+    }
+
+    @Test
+    void loadsGenresOfAPageInOneQuery() {
+        List<UUID> movieIds = randomIds(100);
+
+        Map<UUID, List<Genre>> genres = genreRepository.findGenresByMovieIds(movieIds);
+
+        assertEquals(1, database.queries());
+        assertEquals(movieIds.size(), genres.size());
+        for (UUID movieId : movieIds) {
+            assertEquals(List.of("Genre of " + movieId), genres.get(movieId).stream().map(Genre::getName).toList());
+        }
+    }
+
+    @Test
+    void sendsOneQueryPerInClauseChunk() {
+        List<UUID> movieIds = randomIds(2500);
+
+        Map<UUID, List<Genre>> genres = genreRepository.findGenresByMovieIds(movieIds);
+
+        assertEquals(3, database.queries());
+        assertEquals(movieIds.size(), genres.size());
+        // SQL Server rejects statements with more than 2100 parameters
+        assertTrue(database.executed().stream().allMatch(statement -> statement.params().size() <= 2100));
+    }
+
+    @Test
+    void skipsTheDatabaseForNoIds() {
+        assertTrue(genreRepository.findGenresByMovieIds(List.of()).isEmpty());
+        assertEquals(0, database.queries());
+    }
+
+    private static List<UUID> randomIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.randomUUID()).toList();
+    }
+}
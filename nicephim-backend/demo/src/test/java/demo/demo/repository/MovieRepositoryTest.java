@@ -0,0 +1,67 @@
+package demo.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import demo.demo.support.StubDataSource;
+import demo.demo.support.StubDataSource.Statement;
+
+class MovieRepositoryTest {
+
+    private final UUID movieId = UUID.randomUUID();
+
+    // The movie is the second "Foo": its slug got a suffix, and the first "Foo" has since been purged
+    private final StubDataSource database = new StubDataSource(statement -> {
+        if (statement.sql().contains("SELECT title, alias_title, slug, alias_slug")) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("title", "Foo");
+            row.put("alias_title", "Phim Foo");
+            row.put("slug", "foo-2");
+            row.put("alias_slug", "phim-foo");
+            return List.of(row);
+        }
+        return List.of();
+    });
+
+    private final MovieRepository movieRepository = new MovieRepository(database.jdbcTemplate());
+
+    @Test
+    void keepsPublishedSlugWhenTitleIsUnchanged() {
+        int updated = movieRepository.updateMovie(movieId, "Foo", "Phim Foo", "New description", (short) 2020,
+                "T16", new BigDecimal("8.1"), false, null, null);
+
+        assertEquals(1, updated);
+        assertFalse(database.executed().stream().anyMatch(statement -> statement.sql().contains("LIKE")),
+                "no slug allocation expected");
+        List<Object> params = update().params();
+        assertEquals("foo-2", params.get(9));
+        assertEquals("phim-foo", params.get(10));
+    }
+
+    @Test
+    void allocatesNewSlugWhenTitleChanges() {
+        movieRepository.updateMovie(movieId, "Bar", "Phim Bar", null, null, null, null, false, null, null);
+
+        assertTrue(database.executed().stream().anyMatch(statement -> statement.sql().contains("LIKE")));
+        List<Object> params = update().params();
+        assertEquals("bar", params.get(9));
+        assertEquals("phim-bar", params.get(10));
+    }
+
+    private Statement update() {
+        List<Statement> updates = database.executed().stream()
+                .filter(statement -> statement.sql().startsWith("UPDATE dbo.movies"))
+                .toList();
+        assertEquals(1, updates.size());
+        return updates.get(0);
+    }
+}
@@ -0,0 +1,80 @@
+package demo.demo.services.movie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import demo.demo.model.Movie;
+import demo.demo.repository.MovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MovieAutocompleteIndexTest {
+
+    private final Movie ironMan = movie("Iron Man", "Người Sắt");
+    private final Movie darkKnight = movie("The Dark Knight", null);
+
+    private MovieAutocompleteIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        MovieRepository movieRepository = new MovieRepository(null) {
+            @Override
+            public void forEachMovie(Consumer<Movie> consumer) {
+                consumer.accept(ironMan);
+                consumer.accept(darkKnight);
+            }
+        };
+        index = new MovieAutocompleteIndex(movieRepository, new SimpleMeterRegistry());
+        index.buildOnStartup();
+    }
+
+    @Test
+    void suggestsByNonLeadingWordFromSnapshot() {
+        assertEquals(List.of("Iron Man"), titles(index.suggest("man", 8)));
+        assertEquals(List.of("Iron Man"), titles(index.suggest("sat", 8)));
+    }
+
+    @Test
+    void suggestsUpdatedMovieByNonLeadingWord() {
+        ironMan.setTitle("Iron Man Returns");
+        index.onMovieChanged(MovieChangedEvent.updated(ironMan));
+
+        assertEquals(List.of("Iron Man Returns"), titles(index.suggest("man", 8)));
+        assertEquals(List.of("Iron Man Returns"), titles(index.suggest("ret", 8)));
+        assertEquals(List.of("Iron Man Returns"), titles(index.suggest("sat", 8)));
+    }
+
+    @Test
+    void suggestsCreatedMovieByNonLeadingWord() {
+        index.onMovieChanged(MovieChangedEvent.created(movie("Batman Begins", null)));
+
+        assertEquals(List.of("Batman Begins"), titles(index.suggest("begin", 8)));
+        assertEquals(List.of("The Dark Knight"), titles(index.suggest("knight", 8)));
+    }
+
+    @Test
+    void dropsDeletedMovie() {
+        index.onMovieChanged(MovieChangedEvent.deleted(darkKnight.getMovieId()));
+
+        assertEquals(List.of(), titles(index.suggest("knight", 8)));
+    }
+
+    private static List<String> titles(List<MovieAutocompleteIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(MovieAutocompleteIndex.Suggestion::title).toList();
+    }
+
+    private static Movie movie(String title, String aliasTitle) {
+        Movie movie = new Movie();
+        movie.setMovieId(UUID.randomUUID());
+        movie.setTitle(title);
+        movie.setAliasTitle(aliasTitle);
+        movie.setImdbRating(new BigDecimal("7.5"));
+        return movie;
+    }
+}
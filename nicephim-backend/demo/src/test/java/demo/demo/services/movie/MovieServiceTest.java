@@ -0,0 +1,101 @@
+package demo.demo.services.movie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import demo.demo.dto.movie.MovieCardResponse;
+import demo.demo.dto.movie.MovieCursorPage;
+import demo.demo.dto.movie.MovieResponse;
+import demo.demo.repository.GenreRepository;
+import demo.demo.repository.MovieRepository;
+import demo.demo.support.StubDataSource;
+import demo.demo.support.StubDataSource.Statement;
+
+/**
+ * Guards the movie list pages against N+1 regressions: a page of full movies must cost one query for the
+ * movies and one for all of their genres, however many movies it holds.
+ */
+class MovieServiceTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final List<UUID> movieIds = IntStream.range(0, PAGE_SIZE + 1).mapToObj(i -> UUID.randomUUID()).toList();
+
+    private final StubDataSource database = new StubDataSource(this::answer);
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        GenreRepository genreRepository = new GenreRepository();
+        ReflectionTestUtils.setField(genreRepository, "jdbcTemplate", database.jdbcTemplate());
+        // The list path only reads through the two repositories
+        movieService = new MovieService(new MovieRepository(database.jdbcTemplate()), genreRepository,
+                null, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    void loadsAPageOfMoviesWithTheirGenresInTwoQueries() {
+        MovieCursorPage page = movieService.getMoviesByPage(0, PAGE_SIZE, MovieView.FULL);
+
+        assertEquals(2, database.queries(), "one query for the movies and one for their genres");
+        assertEquals(PAGE_SIZE, page.movies.size());
+        assertNotNull(page.nextCursor);
+        for (MovieCardResponse card : page.movies) {
+            MovieResponse movie = (MovieResponse) card;
+            assertEquals(List.of("Genre of " + movie.movieId),
+                    movie.genres.stream().map(genre -> genre.name).toList());
+        }
+    }
+
+    private List<Map<String, Object>> answer(Statement statement) {
+        if (statement.sql().contains("FROM dbo.movies")) {
+            return movieIds.stream().map(MovieServiceTest::movieRow).toList();
+        }
+        if (statement.sql().contains("FROM dbo.movie_genres")) {
+            return statement.params().stream()
+                    .map(movieId -> Map.<String, Object>of(
+                            "movie_id", movieId,
+                            "genre_id", UUID.nameUUIDFromBytes(movieId.toString().getBytes()),
+                            "name", "Genre of " + movieId))
+                    .toList();
+        }
+        return List.of();
+    }
+
+    private static Map<String, Object> movieRow(UUID movieId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("movie_id", movieId);
+        row.put("title", "Movie " + movieId);
+        row.put("alias_title", null);
+        row.put("description", "Description");
+        row.put("release_year", (short) 2020);
+        row.put("age_rating", "T13");
+        row.put("imdb_rating", new BigDecimal("7.5"));
+        row.put("is_series", false);
+        row.put("poster_url", null);
+        row.put("banner_url", null);
+        row.put("created_by", null);
+        row.put("video_id", null);
+        row.put("hls_url", null);
+        row.put("video_status", null);
+        row.put("slug", "movie-" + movieId);
+        row.put("created_at", now);
+        row.put("updated_at", now);
+        return row;
+    }
+}
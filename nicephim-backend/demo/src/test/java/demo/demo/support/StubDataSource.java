@@ -0,0 +1,203 @@
+package demo.demo.support;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * In-memory DataSource for repository and service tests: records every statement sent through it with its
+ * bound parameters, and answers queries with the rows the test returns for that statement (column label ->
+ * value; UUID columns may be given as UUID or String, DATETIME2 columns as Timestamp). Updates report one
+ * affected row. Methods a JdbcTemplate calls that are not modelled return null, false or 0.
+ */
+public final class StubDataSource {
+
+    public record Statement(String sql, List<Object> params) {
+
+        public boolean isQuery() {
+            return sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6);
+        }
+    }
+
+    private final Function<Statement, List<Map<String, Object>>> answers;
+    private final List<Statement> executed = new ArrayList<>();
+
+    public StubDataSource(Function<Statement, List<Map<String, Object>>> answers) {
+        this.answers = answers;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    public List<Statement> executed() {
+        return executed;
+    }
+
+    public long queries() {
+        return executed.stream().filter(Statement::isQuery).count();
+    }
+
+    public void reset() {
+        executed.clear();
+    }
+
+    private DataSource dataSource() {
+        return proxy(DataSource.class, (method, args) -> method.equals("getConnection")
+                ? proxy(Connection.class, (connectionMethod, connectionArgs) ->
+                        connectionMethod.equals("prepareStatement") ? statement((String) connectionArgs[0]) : null)
+                : null);
+    }
+
+    private PreparedStatement statement(String sql) {
+        List<Object> params = new ArrayList<>();
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                while (params.size() < index) {
+                    params.add(null);
+                }
+                params.set(index - 1, method.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (method) {
+                case "executeQuery" -> {
+                    Statement statement = new Statement(sql, Collections.unmodifiableList(new ArrayList<>(params)));
+                    executed.add(statement);
+                    return resultSet(answers.apply(statement));
+                }
+                case "executeUpdate" -> {
+                    executed.add(new Statement(sql, Collections.unmodifiableList(new ArrayList<>(params))));
+                    return 1;
+                }
+                // Parameter types are unknown (Types.NULL), so null values are bound with setNull
+                case "getParameterMetaData" -> {
+                    return proxy(ParameterMetaData.class, (metaDataMethod, metaDataArgs) -> null);
+                }
+                default -> {
+                    return null;
+                }
+            }
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        List<String> labels = rows.isEmpty() ? List.of() : List.copyOf(rows.get(0).keySet());
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method) {
+            case "getColumnCount" -> labels.size();
+            case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+            default -> null;
+        });
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++row[0] < rows.size();
+                case "getMetaData":
+                    return metaData;
+                case "wasNull":
+                    return wasNull[0];
+                default:
+                    break;
+            }
+            if (!method.startsWith("get") || args == null || args.length == 0) {
+                return null;
+            }
+            String label = args[0] instanceof Integer index ? labels.get(index - 1) : (String) args[0];
+            Object value = valueOf(rows.get(row[0]), label);
+            wasNull[0] = value == null;
+            Class<?> type = switch (method) {
+                case "getString" -> String.class;
+                case "getShort" -> Short.class;
+                case "getInt" -> Integer.class;
+                case "getLong" -> Long.class;
+                case "getBoolean" -> Boolean.class;
+                case "getBigDecimal" -> BigDecimal.class;
+                case "getTimestamp" -> Timestamp.class;
+                default -> args.length > 1 ? (Class<?>) args[1] : Object.class;
+            };
+            return convert(value, type);
+        });
+    }
+
+    private static Object valueOf(Map<String, Object> row, String label) {
+        for (Map.Entry<String, Object> column : row.entrySet()) {
+            if (column.getKey().equalsIgnoreCase(label)) {
+                return column.getValue();
+            }
+        }
+        throw new IllegalArgumentException("Column " + label + " is not in the stubbed row " + row.keySet());
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (type == UUID.class) {
+            return UUID.fromString(value.toString());
+        }
+        if (type == LocalDateTime.class && value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof Number number) {
+            if (type == Short.class) {
+                return number.shortValue();
+            }
+            if (type == Integer.class) {
+                return number.intValue();
+            }
+            if (type == Long.class) {
+                return number.longValue();
+            }
+        }
+        throw new IllegalArgumentException("Cannot read " + value.getClass().getSimpleName() + " as " + type.getSimpleName());
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    // Methods the handler does not answer return null, or the zero value of their primitive return type
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result = handler.handle(method.getName(), args);
+            Class<?> returnType = method.getReturnType();
+            if (result != null || !returnType.isPrimitive() || returnType == void.class) {
+                return result;
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            if (returnType == short.class) {
+                return (short) 0;
+            }
+            if (returnType == double.class) {
+                return 0d;
+            }
+            return returnType == float.class ? (Object) 0f : (Object) 0;
+        });
+    }
+}
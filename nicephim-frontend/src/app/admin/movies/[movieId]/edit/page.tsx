@@ -133,24 +133,15 @@ export default function EditMoviePage() {
       setIsSaving(true);
       setError(null);
 
-      // Remove all current genres
-      for (const genre of movieGenres) {
-        await ApiService.removeGenreFromMovie(genre.genreId, movieId);
-      }
-
-      // Add selected genres
-      for (const genreId of selectedGenres) {
-        await ApiService.addGenreToMovie(genreId, movieId);
+      // Replace the movie's genres with the selection in one request
+      const response = await ApiService.setMovieGenres(movieId, selectedGenres);
+      if (!response.success || !response.data) {
+        throw new Error(response.error || 'Không thể cập nhật thể loại');
       }
 
       setSuccess('Cập nhật thể loại thành công!');
       setShowGenreModal(false);
-      
-      // Refresh movie genres
-      const movieGenresResponse = await ApiService.getGenresByMovieId(movieId);
-      if (movieGenresResponse.success && movieGenresResponse.data) {
-        setMovieGenres(movieGenresResponse.data);
-      }
+      setMovieGenres(response.data);
     } catch (err) {
       const errorMessage = err instanceof Error ? err.message : 'Có lỗi xảy ra khi cập nhật thể loại';
       setError(errorMessage);
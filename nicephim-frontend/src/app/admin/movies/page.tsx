@@ -67,7 +67,7 @@ export default function MoviesManagement() {
     try {
       setIsLoading(true);
       setError(null);
-      const response = await ApiService.getMovies(page, pageSize);
+      const response = await ApiService.getMovies(page, pageSize, true);
 
       if (response.success && response.data) {
         console.log('Movies data:', response.data);
@@ -75,8 +75,8 @@ export default function MoviesManagement() {
         setMovies(response.data);
         if (response.pagination) {
           setCurrentPage(response.pagination.page);
-          setTotalPages(response.pagination.totalPages);
-          setTotalMovies(response.pagination.total);
+          setTotalPages(response.pagination.totalPages ?? 0);
+          setTotalMovies(response.pagination.total ?? 0);
         }
         // Fetch genres for all movies
         await fetchGenresForMovies(response.data);
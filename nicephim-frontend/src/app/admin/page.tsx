@@ -22,7 +22,7 @@ export default function AdminDashboard() {
   useEffect(() => {
     const fetchStats = async () => {
       try {
-        const response = await ApiService.getMovies(0, 5); // Get first 5 movies
+        const response = await ApiService.getMovies(0, 5, true); // Get first 5 movies
         if (response.success) {
           setStats({
             totalMovies: response.pagination?.total || 0,
@@ -80,14 +80,62 @@ export interface MovieResponse {
   videoStatus?: string;
 }
 
+export interface MovieSuggestion {
+  movieId: string;
+  title: string;
+  aliasTitle?: string;
+  slug?: string;
+  posterUrl?: string;
+  releaseYear?: number;
+}
+
+export interface MovieSuggestionListResponse {
+  success: boolean;
+  data: MovieSuggestion[];
+  count?: number;
+  error?: string;
+}
+
+export interface HomepageGenreRail {
+  genreId: string;
+  name: string;
+  movies: MovieResponse[];
+}
+
+export interface HomepageRailsResponse {
+  success: boolean;
+  data?: {
+    newest: MovieResponse[];
+    topRated: MovieResponse[];
+    series: MovieResponse[];
+    genres: HomepageGenreRail[];
+    generatedAt: string;
+  };
+  error?: string;
+}
+
+// 'card' returns only movieId, title, aliasTitle, slug, releaseYear, ageRating, imdbRating, isSeries and posterUrl
+export type MovieView = 'full' | 'card';
+
+export interface MovieBatchResponse {
+  success: boolean;
+  data: MovieResponse[];
+  missing?: string[];
+  count?: number;
+  error?: string;
+}
+
 export interface MovieListResponse {
   success: boolean;
   data: MovieResponse[];
   pagination?: {
     page: number;
     size: number;
-    total: number;
-    totalPages: number;
+    hasNext?: boolean;
+    nextCursor?: string | null;
+    // Only returned when includeTotal is requested
+    total?: number;
+    totalPages?: number;
   };
   count?: number;
   error?: string;
@@ -111,6 +159,7 @@ export interface UpdateGenreRequest {
 export interface GenreResponse {
   genreId: string;
   name: string;
+  movieCount?: number;
 }
 
 export interface GenreListResponse {
@@ -208,8 +257,13 @@ export class ApiService {
     });
   }
 
-  static async getMovies(page: number = 0, size: number = 10): Promise<MovieListResponse> {
-    return this.request<MovieListResponse>(`/api/admin/movies?page=${page}&size=${size}`);
+  static async getMovies(page: number = 0, size: number = 10, includeTotal: boolean = false): Promise<MovieListResponse> {
+    return this.request<MovieListResponse>(`/api/admin/movies?page=${page}&size=${size}&includeTotal=${includeTotal}`);
+  }
+
+  static async getMoviesAfter(cursor: string | null, size: number = 10, view: MovieView = 'full'): Promise<MovieListResponse> {
+    const cursorParam = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+    return this.request<MovieListResponse>(`/api/admin/movies?size=${size}${cursorParam}&view=${view}`);
   }
 
   static async getMovieById(movieId: string): Promise<MovieActionResponse> {
@@ -237,6 +291,26 @@ export class ApiService {
     return this.request<MovieListResponse>(`/api/admin/movies/search?title=${encodeURIComponent(title)}`);
   }
 
+  static async autocompleteMovies(query: string, limit: number = 8): Promise<MovieSuggestionListResponse> {
+    return this.request<MovieSuggestionListResponse>(`/api/admin/movies/autocomplete?q=${encodeURIComponent(query)}&limit=${limit}`);
+  }
+
+  static async getMoviesByIds(ids: string[], view: MovieView = 'full'): Promise<MovieBatchResponse> {
+    return this.request<MovieBatchResponse>(`/api/admin/movies/batch?view=${view}`, {
+      method: 'POST',
+      body: JSON.stringify({ ids }),
+    });
+  }
+
+  // "More like this" rail for a movie page or the end of a watch room
+  static async getRelatedMovies(movieId: string, limit: number = 12, view: MovieView = 'card'): Promise<MovieListResponse> {
+    return this.request<MovieListResponse>(`/api/admin/movies/${movieId}/related?limit=${limit}&view=${view}`);
+  }
+
+  static async getHomepageRails(): Promise<HomepageRailsResponse> {
+    return this.request<HomepageRailsResponse>('/api/admin/movies/homepage');
+  }
+
   // Genre Admin methods
   static async createGenre(data: CreateGenreRequest): Promise<GenreActionResponse> {
     return this.request<GenreActionResponse>('/api/admin/genres', {
@@ -270,6 +344,13 @@ export class ApiService {
     return this.request<GenreListResponse>(`/api/admin/genres/movie/${movieId}`);
   }
 
+  static async setMovieGenres(movieId: string, genreIds: string[]): Promise<GenreListResponse> {
+    return this.request<GenreListResponse>(`/api/admin/genres/movie/${movieId}`, {
+      method: 'PUT',
+      body: JSON.stringify({ genreIds }),
+    });
+  }
+
   static async addGenreToMovie(genreId: string, movieId: string): Promise<GenreActionResponse> {
     return this.request<GenreActionResponse>(`/api/admin/genres/${genreId}/movies/${movieId}`, {
       method: 'POST',